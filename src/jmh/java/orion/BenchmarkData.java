@@ -0,0 +1,38 @@
+package orion;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Generates deterministic task data shared by the benchmarks.
+ */
+final class BenchmarkData {
+    private static final LocalDate BASE_DATE = LocalDate.of(2025, 1, 1);
+    private static final String[] WORDS = {
+        "read", "book", "return", "submit", "report", "project", "meeting", "review", "draft", "email",
+        "groceries", "call", "plan", "lecture", "quiz", "tutorial", "invoice", "budget", "team", "deploy"
+    };
+
+    private BenchmarkData() {
+        // Utility class, no instances.
+    }
+
+    /**
+     * Returns the {@code i}-th generated task: a mix of todos, deadlines and events, about a third of them done.
+     */
+    static Task task(int i) {
+        String description = WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i;
+        LocalDate date = BASE_DATE.plusDays(i % 730);
+        LocalTime time = (i % 2 == 0) ? null : LocalTime.of(i % 24, (i * 7) % 60);
+
+        Task task = switch (i % 3) {
+            case 0 -> new Todo(description);
+            case 1 -> new Deadline(description, date, time);
+            default -> new Event(description, date, time, date.plusDays(i % 5), null);
+        };
+        if (i % 3 == 0) {
+            task.markDone();
+        }
+        return task;
+    }
+}
@@ -0,0 +1,88 @@
+package orion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures full {@link Orion#getResponse(String)} round trips (parse, execute, save, format)
+ * against a data file of {@code size} tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class OrionBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private Path dataFile;
+    private Orion orion;
+    private String lastTaskNumber;
+
+    @Setup(Level.Trial)
+    public void startOrion() throws IOException, OrionException {
+        dataFile = Files.createTempFile("orion-response", ".txt");
+        System.setProperty("orion.dataFile", dataFile.toString());
+
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(BenchmarkData.task(i));
+        }
+        new Storage().save(tasks);
+        orion = new Orion();
+        lastTaskNumber = String.valueOf(size + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDataFile() throws IOException {
+        Files.deleteIfExists(dataFile);
+        System.clearProperty("orion.dataFile");
+    }
+
+    @Benchmark
+    public String list() {
+        return orion.getResponse("list");
+    }
+
+    @Benchmark
+    public String find() {
+        return orion.getResponse("find report");
+    }
+
+    @Benchmark
+    public String markAndUnmark() {
+        orion.getResponse("mark 1");
+        return orion.getResponse("unmark 1");
+    }
+
+    @Benchmark
+    public String addAndDelete() {
+        orion.getResponse("deadline submit benchmark report /by 2025-03-01 1800");
+        return orion.getResponse("delete " + lastTaskNumber);
+    }
+
+    @Benchmark
+    public String invalidCommand() {
+        return orion.getResponse("deadline missing date");
+    }
+}
@@ -0,0 +1,69 @@
+package orion;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how {@link MappedTaskReader} scales with the number of parsing threads.
+ * Compare each score with {@code threads = 1}; gains stop at the number of available processors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParallelLoadBenchmark {
+    @Param({"1000000"})
+    private int lines;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private Path dataFile;
+
+    @Setup(Level.Trial)
+    public void writeDataFile() throws IOException {
+        dataFile = Files.createTempFile("orion-parallel-load", ".txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(dataFile, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines; i++) {
+                writer.write(BenchmarkData.task(i).toDataString());
+                writer.newLine();
+            }
+        }
+        System.out.println("text: " + Files.size(dataFile) + " bytes, "
+                + Runtime.getRuntime().availableProcessors() + " processors");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDataFile() throws IOException {
+        Files.deleteIfExists(dataFile);
+    }
+
+    @Benchmark
+    public List<Task> load() throws Exception {
+        List<Task> tasks = new ArrayList<>(lines);
+        MappedTaskReader.read(dataFile, tasks, threads);
+        return tasks;
+    }
+}
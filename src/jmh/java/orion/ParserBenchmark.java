@@ -0,0 +1,83 @@
+package orion;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Parser#parse(String)} for each command word and {@link Parser#parseTask(String, String)}
+ * for each task type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParserBenchmark {
+    private final Parser parser = new Parser();
+
+    /**
+     * One input line per command word.
+     */
+    @State(Scope.Benchmark)
+    public static class CommandInput {
+        @Param({
+            "list",
+            "mark 12",
+            "unmark 12",
+            "delete 12",
+            "find report",
+            "due 2025-03-01",
+            "overdue",
+            "agenda 2025-03-01 2025-03-07",
+            "todo read book",
+            "deadline submit report /by 2025-03-01 1800",
+            "event project meeting /from 2025-03-01 09:00 /to 2025-03-01 11:00",
+            "bye"
+        })
+        private String line;
+    }
+
+    /**
+     * One already-split task command per task type, with and without times.
+     */
+    @State(Scope.Benchmark)
+    public static class TaskInput {
+        @Param({
+            "todo read book",
+            "deadline submit report /by 2025-03-01",
+            "deadline submit report /by 2025-03-01 1800",
+            "event project meeting /from 2025-03-01 /to 2025-03-02",
+            "event project meeting /from 2025-03-01 09:00 /to 2025-03-01 11:00"
+        })
+        private String line;
+
+        private Parser.ParsedCommand command;
+
+        @Setup
+        public void split() throws OrionException {
+            command = new Parser().parse(line);
+        }
+    }
+
+    @Benchmark
+    public Parser.ParsedCommand parse(CommandInput input) throws OrionException {
+        return parser.parse(input.line);
+    }
+
+    @Benchmark
+    public Task parseTask(TaskInput input) throws OrionException {
+        return parser.parseTask(input.command.getCommandWord(), input.command.getArguments());
+    }
+}
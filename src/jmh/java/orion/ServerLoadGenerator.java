@@ -0,0 +1,170 @@
+package orion;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+/**
+ * Drives an {@link OrionServer} with many concurrent clients and reports throughput and latency percentiles.
+ * Every client connects as its own user, waits until all clients are connected, and then sends its requests
+ * back to back, each time waiting for the full reply.
+ * <p>
+ * Usage: {@code ServerLoadGenerator [clients] [requestsPerClient] [port]}. Defaults: 1000 clients,
+ * 200 requests each, and an in-process server on a temporary data directory. Give a port to load a
+ * server that is already running.
+ */
+public final class ServerLoadGenerator {
+    private static final String[] COMMANDS = {
+        "todo load task ", "find load", "mark 1", "list", "unmark 1", "delete 1"
+    };
+
+    private ServerLoadGenerator() {
+        // Entry point only, no instances.
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+        int requestsPerClient = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+
+        Path dataDir = null;
+        OrionServer server = null;
+        int port;
+        if (args.length > 2) {
+            port = Integer.parseInt(args[2]);
+        } else {
+            dataDir = Files.createTempDirectory("orion-load");
+            server = new OrionServer(0, dataDir);
+            port = server.getPort();
+            System.out.println("In-process server on port " + port
+                    + (server.isUsingVirtualThreads() ? " (virtual threads)" : " (platform threads)"));
+        }
+
+        try {
+            run(port, clients, requestsPerClient);
+        } finally {
+            if (server != null) {
+                server.close();
+                deleteRecursively(dataDir);
+            }
+        }
+    }
+
+    private static void run(int port, int clients, int requestsPerClient) throws InterruptedException {
+        long[][] latencies = new long[clients][];
+        Thread[] threads = new Thread[clients];
+        CountDownLatch connected = new CountDownLatch(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(clients);
+
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            threads[c] = new Thread(() -> {
+                try {
+                    latencies[client] = runClient(port, "load-" + client, requestsPerClient, connected, start);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            }, "orion-load-client-" + c);
+            threads[c].start();
+        }
+
+        connected.await();
+        long startNanos = System.nanoTime();
+        start.countDown();
+        finished.await();
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        long[] all = Arrays.stream(latencies).filter(Objects::nonNull).flatMapToLong(Arrays::stream).sorted().toArray();
+        if (all.length == 0) {
+            System.out.println("No requests completed.");
+            return;
+        }
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("clients=%d requests=%d (%d failed clients) time=%.2f s throughput=%.0f req/s%n",
+                clients, all.length, Arrays.stream(latencies).filter(Objects::isNull).count(), seconds,
+                all.length / seconds);
+        System.out.printf("latency ms: p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f%n",
+                percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99), percentile(all, 0.999),
+                all[all.length - 1] / 1e6);
+    }
+
+    private static long[] runClient(int port, String user, int requests, CountDownLatch connected,
+            CountDownLatch start) throws IOException, InterruptedException {
+        boolean isConnected = false;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            send(out, "user " + user);
+            readReply(in); // welcome
+            isConnected = true;
+            connected.countDown();
+            start.await();
+
+            long[] latencies = new long[requests];
+            for (int i = 0; i < requests; i++) {
+                String command = COMMANDS[i % COMMANDS.length];
+                long sent = System.nanoTime();
+                send(out, command.endsWith(" ") ? command + i : command);
+                readReply(in);
+                latencies[i] = System.nanoTime() - sent;
+            }
+            send(out, "bye");
+            readReply(in);
+            return latencies;
+        } finally {
+            if (!isConnected) {
+                connected.countDown(); // so the run does not wait for a client that failed to connect
+            }
+        }
+    }
+
+    private static void send(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+    }
+
+    private static void readReply(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null && !line.isEmpty()) {
+            // Skip the reply body up to the empty line that ends it.
+        }
+        if (line == null) {
+            throw new IOException("Server closed the connection");
+        }
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
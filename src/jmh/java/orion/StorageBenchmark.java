@@ -0,0 +1,70 @@
+package orion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Storage#load()} and {@link Storage#save(List)} end to end, in the default text format,
+ * at several list sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class StorageBenchmark {
+    @Param({"100", "10000", "100000"})
+    private int size;
+
+    private Path dataFile;
+    private Storage storage;
+    private List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void writeDataFile() throws IOException, OrionException {
+        dataFile = Files.createTempFile("orion-storage", ".txt");
+        System.setProperty("orion.dataFile", dataFile.toString());
+        storage = new Storage();
+
+        tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(BenchmarkData.task(i));
+        }
+        storage.save(tasks);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDataFile() throws IOException {
+        Files.deleteIfExists(dataFile);
+        System.clearProperty("orion.dataFile");
+    }
+
+    @Benchmark
+    public List<Task> load() throws OrionException {
+        return storage.load();
+    }
+
+    @Benchmark
+    public void save() throws OrionException {
+        storage.save(tasks);
+    }
+}
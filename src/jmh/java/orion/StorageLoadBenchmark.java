@@ -0,0 +1,87 @@
+package orion;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the line-by-line regex loader with {@link MappedTaskReader} and the binary format
+ * on data files of various sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class StorageLoadBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int lines;
+
+    private Path dataFile;
+    private Path binaryFile;
+
+    @Setup(Level.Trial)
+    public void writeDataFiles() throws IOException {
+        dataFile = Files.createTempFile("orion-load", ".txt");
+        List<Task> tasks = new ArrayList<>(lines);
+        try (BufferedWriter writer = Files.newBufferedWriter(dataFile, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines; i++) {
+                Task task = BenchmarkData.task(i);
+                tasks.add(task);
+                writer.write(task.toDataString());
+                writer.newLine();
+            }
+        }
+
+        binaryFile = Files.createTempFile("orion-load", ".bin");
+        BinaryTaskCodec.write(binaryFile, tasks, 0);
+        System.out.println("text: " + Files.size(dataFile) + " bytes, binary: " + Files.size(binaryFile) + " bytes");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDataFiles() throws IOException {
+        Files.deleteIfExists(dataFile);
+        Files.deleteIfExists(binaryFile);
+    }
+
+    @Benchmark
+    public List<Task> readAllLinesWithRegex() throws Exception {
+        List<Task> tasks = new ArrayList<>(lines);
+        Storage.readSnapshotLines(dataFile, tasks);
+        return tasks;
+    }
+
+    @Benchmark
+    public List<Task> memoryMapped() throws Exception {
+        List<Task> tasks = new ArrayList<>(lines);
+        MappedTaskReader.read(dataFile, tasks);
+        return tasks;
+    }
+
+    @Benchmark
+    public List<Task> binary() throws Exception {
+        List<Task> tasks = new ArrayList<>(lines);
+        BinaryTaskCodec.read(binaryFile, tasks);
+        return tasks;
+    }
+}
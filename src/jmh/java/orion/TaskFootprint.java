@@ -0,0 +1,68 @@
+package orion;
+
+import java.io.BufferedWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Measures the heap retained per task after a load: writes a generated data file, loads it through
+ * {@link Storage}, and divides the growth in used heap (after full collections) by the number of tasks.
+ * Reports the loaded tasks alone, and a {@link TaskList} of them, indexes included, in each {@link TaskStore} layout.
+ * <p>
+ * Usage: {@code TaskFootprint [tasks]}. Default: 1,000,000 tasks. Run in a JVM of its own with a fixed heap
+ * (e.g. {@code -Xms2g -Xmx2g}) so other allocations do not blur the numbers.
+ */
+public final class TaskFootprint {
+    private static final int GC_ROUNDS = 5;
+
+    private TaskFootprint() {
+        // Entry point only, no instances.
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+
+        Path dataFile = Files.createTempFile("orion-footprint", ".txt");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(dataFile, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < count; i++) {
+                    writer.write(BenchmarkData.task(i).toDataString());
+                    writer.newLine();
+                }
+            }
+
+            long baseline = usedHeap();
+            List<Task> tasks = new Storage(dataFile).load();
+            System.out.printf("%,d tasks: %.1f bytes/task loaded%n", tasks.size(), perTask(baseline, count));
+            tasks = null;
+
+            for (boolean isColumnar : new boolean[] {false, true}) {
+                TaskList taskList = new TaskList(new Storage(dataFile).load(), isColumnar);
+                System.out.printf("  %.1f bytes/task in a TaskList (%s layout)%n", perTask(baseline, count),
+                        isColumnar ? "columnar" : "object");
+                if (taskList.size() != count) { // keeps the list reachable until measured
+                    throw new AssertionError("TaskList lost tasks");
+                }
+            }
+        } finally {
+            Files.deleteIfExists(dataFile);
+        }
+    }
+
+    private static double perTask(long baseline, int count) throws InterruptedException {
+        return (double) (usedHeap() - baseline) / count;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,99 @@
+package orion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link TaskList#find(String)}, {@link TaskList#query(TaskQuery)}, {@link TaskList#indexOfDuplicate(Task)}
+ * and {@link Ui#formatList(TaskList)} at several list sizes, in each {@link TaskStore} layout.
+ * {@code queryDatedDeadlinesByScan} runs the same query as {@code queryDatedDeadlines} on every task, to show what
+ * the planner's choice of index saves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TaskListBenchmark {
+    @Param({"100", "10000", "100000"})
+    private int size;
+
+    @Param({"object", "columnar"})
+    private String layout;
+
+    private final Ui ui = new Ui();
+    private TaskList tasks;
+    private Task present;
+    private Task absent;
+    private TaskQuery datedDeadlines;
+
+    @Setup
+    public void buildList() {
+        List<Task> generated = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            generated.add(BenchmarkData.task(i));
+        }
+        tasks = new TaskList(generated, TaskStore.COLUMNAR.equals(layout));
+        present = BenchmarkData.task(size / 2);
+        absent = new Todo("not in the list");
+        try {
+            datedDeadlines = Parser.parseFindQuery("type:deadline done:no on:2025-03-01 -draft").query();
+        } catch (OrionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public List<Task> findCommonWord() {
+        return tasks.find("report");
+    }
+
+    @Benchmark
+    public List<Task> findRareWord() {
+        return tasks.find("budget team " + (size / 2));
+    }
+
+    @Benchmark
+    public List<Task> findShortKeyword() {
+        return tasks.find("qu");
+    }
+
+    @Benchmark
+    public TaskQuery.Result queryDatedDeadlines() {
+        return tasks.query(datedDeadlines);
+    }
+
+    @Benchmark
+    public long queryDatedDeadlinesByScan() {
+        return tasks.asUnmodifiableList().stream().filter(datedDeadlines::matches).count();
+    }
+
+    @Benchmark
+    public int indexOfDuplicatePresent() {
+        return tasks.indexOfDuplicate(present);
+    }
+
+    @Benchmark
+    public int indexOfDuplicateAbsent() {
+        return tasks.indexOfDuplicate(absent);
+    }
+
+    @Benchmark
+    public String formatList() {
+        return ui.formatList(tasks);
+    }
+}
@@ -0,0 +1,139 @@
+package orion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures readers ({@code find}, {@code size}) running against a writer ({@code add} then {@code remove}) on one
+ * shared list: {@link TaskList}, whose readers never lock, against the same list behind a single monitor.
+ * Throughput is reported per thread role, so a slower writer shows up separately from slower readers.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TaskListContentionBenchmark {
+    @Param({"10000"})
+    private int size;
+
+    @Param({"snapshot", "synchronized"})
+    private String list;
+
+    private SharedList tasks;
+    private Task churn;
+
+    @Setup
+    public void buildList() {
+        List<Task> generated = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            generated.add(BenchmarkData.task(i));
+        }
+        TaskList taskList = new TaskList(generated);
+        tasks = "snapshot".equals(list) ? new SnapshotList(taskList) : new SynchronizedList(taskList);
+        churn = new Todo("churn report task");
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public int read() {
+        return tasks.find("budget team " + (size / 2)).size() + tasks.size();
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public Task write() {
+        tasks.add(churn);
+        return tasks.removeLast();
+    }
+
+    /**
+     * The operations the benchmark shares between threads.
+     */
+    private interface SharedList {
+        List<Task> find(String keyword);
+
+        int size();
+
+        void add(Task task);
+
+        Task removeLast();
+    }
+
+    private static final class SnapshotList implements SharedList {
+        private final TaskList tasks;
+
+        private SnapshotList(TaskList tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        public List<Task> find(String keyword) {
+            return tasks.find(keyword);
+        }
+
+        @Override
+        public int size() {
+            return tasks.size();
+        }
+
+        @Override
+        public void add(Task task) {
+            tasks.add(task);
+        }
+
+        @Override
+        public Task removeLast() {
+            return tasks.remove(tasks.size() - 1); // only this thread writes, so size() is still current
+        }
+    }
+
+    /**
+     * Serializes every operation, reads included, on one monitor: the usual way to share a non-thread-safe list.
+     */
+    private static final class SynchronizedList implements SharedList {
+        private final TaskList tasks;
+
+        private SynchronizedList(TaskList tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        public synchronized List<Task> find(String keyword) {
+            return tasks.find(keyword);
+        }
+
+        @Override
+        public synchronized int size() {
+            return tasks.size();
+        }
+
+        @Override
+        public synchronized void add(Task task) {
+            tasks.add(task);
+        }
+
+        @Override
+        public synchronized Task removeLast() {
+            return tasks.remove(tasks.size() - 1);
+        }
+    }
+}
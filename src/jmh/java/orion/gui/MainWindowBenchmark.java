@@ -0,0 +1,138 @@
+package orion.gui;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import orion.TaskList;
+import orion.Todo;
+import orion.Ui;
+
+/**
+ * Measures messages per second appended to {@link MainWindow}'s transcript view, including the CSS and layout pass
+ * that puts them on screen, and the cost of building one {@link DialogBox}.
+ * The window is loaded into a scene on the JavaFX Application Thread but never shown, so the benchmark needs the
+ * JavaFX toolkit (a display, or a headless platform such as Monocle) but no user interaction. Its list view is given
+ * a fresh {@link Transcript}, updated the way the window updates its own for each input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MainWindowBenchmark {
+    private static final String INPUT = "list";
+    private static final String RESPONSE = new Ui().formatList(sampleTasks());
+
+    private Scene scene;
+    private ListView<Transcript.Entry> transcriptView;
+    private Transcript transcript;
+    private Image picture;
+
+    @Setup
+    public void startToolkit() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException e) {
+            started.countDown(); // already running in this JVM
+        }
+        started.await();
+
+        onFxThread(() -> {
+            FXMLLoader loader = new FXMLLoader(MainWindow.class.getResource("/view/MainWindow.fxml"));
+            Parent root = loader.load();
+            scene = new Scene(root);
+            transcript = new Transcript();
+            transcriptView = listView(scene.lookup("#transcriptView"));
+            transcriptView.setItems(transcript.entries());
+            picture = new Image(MainWindow.class.getResourceAsStream("/images/DaOrion.png"));
+            return null;
+        });
+    }
+
+    @TearDown
+    public void stopToolkit() {
+        Platform.exit();
+    }
+
+    /**
+     * One user message and one ten-task reply, laid out as after a real input: the input with a placeholder reply,
+     * then the reply in its place. Scores are messages per second.
+     */
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public Object appendExchange() throws Exception {
+        return onFxThread(() -> {
+            transcript.add(INPUT, true);
+            Transcript.Entry pending = transcript.addPending();
+            transcript.complete(pending, RESPONSE);
+            transcriptView.scrollTo(transcript.entries().size() - 1);
+            scene.getRoot().applyCss();
+            scene.getRoot().layout();
+            return scene;
+        });
+    }
+
+    @Benchmark
+    public DialogBox newDialogBox() {
+        return DialogBox.getOrionDialog(RESPONSE, picture);
+    }
+
+    private static <T> T onFxThread(FxTask<T> task) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(task.run());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ListView<Transcript.Entry> listView(Node node) {
+        return (ListView<Transcript.Entry>) node;
+    }
+
+    private static TaskList sampleTasks() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new Todo("sample task " + i));
+        }
+        return tasks;
+    }
+
+    @FunctionalInterface
+    private interface FxTask<T> {
+        T run() throws Exception;
+    }
+}
@@ -0,0 +1,208 @@
+package orion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Persists task list changes on a dedicated writer thread, so commands do not wait for the disk.
+ * Changes are queued by {@link #submit(Mutation)}; the writer waits up to the configured delay for more
+ * changes to arrive and then writes the whole burst with one {@link Storage#recordAll(List, List)} call.
+ * The writer keeps its own task list, updated by replaying the queued changes, so it never reads the list the
+ * caller is modifying. It starts out holding the caller's task objects rather than copies: {@link TaskList} and
+ * {@link Mutation#applyTo(List)} change a task's status by replacing the task, never in place.
+ * Enabled with {@code -Dorion.asyncSave=true}; the delay is {@code orion.saveDelayMs} (default 50 ms).
+ */
+class AsyncStorageWriter {
+    private static final String ASYNC_SAVE_PROPERTY = "orion.asyncSave";
+    private static final String SAVE_DELAY_PROPERTY = "orion.saveDelayMs";
+    private static final long DEFAULT_SAVE_DELAY_MILLIS = 50;
+    private static final String ERROR_WRITE_PREFIX = "Failed to save tasks: ";
+
+    private final Storage storage;
+    private final List<Task> writtenTasks; // only touched by the writer thread once started
+    private final long maxDelayNanos;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>(); // Mutation or Flush entries
+    private final AtomicReference<OrionException> lastError = new AtomicReference<>();
+
+    private volatile boolean isClosed;
+    private volatile boolean isStopped; // set by the writer thread as it exits, normally or not
+
+    /**
+     * A request to signal {@code done} once every change queued before it has been written.
+     */
+    private record Flush(CountDownLatch done, boolean isLast) {
+    }
+
+    /**
+     * Constructs a writer for {@code storage} and starts its thread.
+     *
+     * @param storage Storage to write to; must not be used by anyone else from now on.
+     * @param tasks Task list as currently persisted; the list is copied, the tasks are shared.
+     * @param maxDelayMillis Longest time a change waits for others before it is written.
+     */
+    AsyncStorageWriter(Storage storage, List<Task> tasks, long maxDelayMillis) {
+        assert storage != null : "AsyncStorageWriter storage must not be null";
+        assert maxDelayMillis >= 0 : "AsyncStorageWriter delay must be >= 0";
+
+        this.storage = storage;
+        this.writtenTasks = new ArrayList<>(tasks);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+
+        Thread writer = new Thread(this::writeLoop, "orion-storage-writer");
+        writer.setDaemon(true); // exit is handled by close(), e.g. from a shutdown hook
+        writer.start();
+    }
+
+    /**
+     * Returns true if asynchronous saving was requested with {@code -Dorion.asyncSave=true}.
+     *
+     * @return Whether to use an {@code AsyncStorageWriter}.
+     */
+    static boolean isEnabled() {
+        return Boolean.getBoolean(ASYNC_SAVE_PROPERTY);
+    }
+
+    /**
+     * Returns the configured maximum delay ({@code orion.saveDelayMs}) in milliseconds.
+     *
+     * @return Maximum delay before a change is written.
+     */
+    static long configuredDelayMillis() {
+        return Math.max(0, Long.getLong(SAVE_DELAY_PROPERTY, DEFAULT_SAVE_DELAY_MILLIS));
+    }
+
+    /**
+     * Queues a change that has just been applied to the caller's task list. Does not block.
+     *
+     * @param mutation Change to persist.
+     */
+    void submit(Mutation mutation) {
+        assert mutation != null : "submit(): mutation must not be null";
+        assert !isClosed : "submit(): writer is closed";
+
+        // Copy an added task, so later marks on the caller's list reach the writer only via their own records.
+        queue.add((mutation.getTask() == null) ? mutation : mutation.withTask(mutation.getTask().copy()));
+    }
+
+    /**
+     * Blocks until every change submitted so far has been written (or has failed).
+     */
+    synchronized void flush() {
+        if (!isClosed) {
+            awaitFlush(false);
+        }
+    }
+
+    /**
+     * Writes every change submitted so far and stops the writer thread. Later calls do nothing.
+     */
+    synchronized void close() {
+        if (isClosed) {
+            return;
+        }
+        awaitFlush(true);
+        isClosed = true;
+    }
+
+    /**
+     * Returns the most recent write failure since the last call, and clears it.
+     *
+     * @return Write failure, or {@code null} if all writes since the last call succeeded.
+     */
+    OrionException takeError() {
+        return lastError.getAndSet(null);
+    }
+
+    private void awaitFlush(boolean isLast) {
+        CountDownLatch done = new CountDownLatch(1);
+        queue.add(new Flush(done, isLast));
+        if (isStopped) {
+            return; // the writer thread has died and will not see the request
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<Mutation> batch = new ArrayList<>();
+        List<Flush> flushes = new ArrayList<>();
+        boolean isLast = false;
+
+        try {
+            while (!isLast) {
+                try {
+                    collect(queue.take(), batch, flushes);
+                    // Linger for more changes, unless someone is already waiting for this batch.
+                    long deadline = System.nanoTime() + maxDelayNanos;
+                    while (flushes.isEmpty() && !batch.isEmpty()) {
+                        Object next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        collect(next, batch, flushes);
+                    }
+                } catch (InterruptedException e) {
+                    // Not expected: the thread is stopped via a Flush. Write what we have and carry on.
+                }
+
+                try {
+                    write(batch);
+                } catch (RuntimeException | AssertionError e) {
+                    // A bug, not a disk problem; report it like a failed write rather than lose the thread.
+                    lastError.set(new OrionException(ERROR_WRITE_PREFIX + e));
+                } finally {
+                    for (Flush flush : flushes) {
+                        isLast |= flush.isLast();
+                        flush.done().countDown();
+                    }
+                    batch.clear();
+                    flushes.clear();
+                }
+            }
+        } finally {
+            // Release everyone still waiting, so that a dying writer cannot hang close() and the JVM with it.
+            isStopped = true;
+            for (Flush flush : flushes) {
+                flush.done().countDown();
+            }
+            Object entry;
+            while ((entry = queue.poll()) != null) {
+                if (entry instanceof Flush flush) {
+                    flush.done().countDown();
+                }
+            }
+        }
+    }
+
+    private static void collect(Object entry, List<Mutation> batch, List<Flush> flushes) {
+        if (entry instanceof Flush flush) {
+            flushes.add(flush);
+        } else {
+            batch.add((Mutation) entry);
+        }
+    }
+
+    private void write(List<Mutation> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (Mutation mutation : batch) {
+            boolean isApplied = mutation.applyTo(writtenTasks);
+            assert isApplied : "write(): change does not fit the written list: " + mutation.getKind();
+        }
+        try {
+            storage.recordAll(batch, writtenTasks);
+        } catch (OrionException e) {
+            // writtenTasks stays current, so the next successful write catches up.
+            lastError.set(e);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package orion;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Reads and writes the compact binary data format.
+ *
+ * <p>Layout (big-endian): magic {@code "ORNB"}, {@code short} version, {@code long} snapshot sequence number,
+ * {@code int} task count, then one record per task:
+ * <pre>
+ *   byte flags      bits 0-1 type (0 todo, 1 deadline, 2 event), bit 2 done,
+ *                   bit 3 first time present, bit 4 second time present
+ *   varint length   UTF-8 description length, followed by the bytes
+ *   int day         deadline: by date; event: from date (epoch day)
+ *   short minute    time of day in minutes, only if bit 3 is set
+ *   int day         event only: to date
+ *   short minute    event only, only if bit 4 is set
+ * </pre>
+ */
+final class BinaryTaskCodec {
+    private static final int MAGIC = 0x4F524E42; // "ORNB"
+    private static final short VERSION = 1;
+
+    private static final int TYPE_TODO = 0;
+    private static final int TYPE_DEADLINE = 1;
+    private static final int TYPE_EVENT = 2;
+    private static final int TYPE_MASK = 0b11;
+    private static final int FLAG_DONE = 1 << 2;
+    private static final int FLAG_FIRST_TIME = 1 << 3;
+    private static final int FLAG_SECOND_TIME = 1 << 4;
+
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final String ERROR_DATE_RANGE = "%s is outside the range of dates the binary format can store";
+
+    private BinaryTaskCodec() {
+        // Utility class, no instances.
+    }
+
+    /**
+     * Writes {@code tasks} to {@code path}, replacing any existing file.
+     *
+     * @param path File to write.
+     * @param tasks Tasks to write.
+     * @param seq Journal sequence number the snapshot was taken at.
+     * @throws IOException If the file cannot be written.
+     */
+    static void write(Path path, List<Task> tasks, long seq) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(seq);
+            out.writeInt(tasks.size());
+
+            for (Task task : tasks) {
+                writeTask(out, task);
+            }
+        }
+    }
+
+    /**
+     * Reads all tasks in the binary file at {@code path} into {@code tasks}.
+     *
+     * @param path File to read.
+     * @param tasks List to append the loaded tasks to.
+     * @return Sequence number recorded in the header.
+     * @throws IOException If the file cannot be read.
+     * @throws OrionException If the file is not in this format or is corrupted.
+     */
+    static long read(Path path, List<Task> tasks) throws IOException, OrionException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("binary data file larger than 2 GiB: " + path);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Reader(buffer).readAll(tasks);
+        }
+    }
+
+    private static void writeTask(DataOutputStream out, Task task) throws IOException {
+        LocalTime firstTime = null;
+        LocalTime secondTime = null;
+        int type = TYPE_TODO;
+        if (task instanceof Deadline deadline) {
+            type = TYPE_DEADLINE;
+            firstTime = deadline.getByTime();
+        } else if (task instanceof Event event) {
+            type = TYPE_EVENT;
+            firstTime = event.getFromTime();
+            secondTime = event.getToTime();
+        }
+
+        int flags = type;
+        if (task.isDone()) {
+            flags |= FLAG_DONE;
+        }
+        if (firstTime != null) {
+            flags |= FLAG_FIRST_TIME;
+        }
+        if (secondTime != null) {
+            flags |= FLAG_SECOND_TIME;
+        }
+        out.writeByte(flags);
+
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, description.length);
+        out.write(description);
+
+        if (task instanceof Deadline deadline) {
+            writeDateTime(out, deadline.getByDate(), firstTime);
+        } else if (task instanceof Event event) {
+            writeDateTime(out, event.getFromDate(), firstTime);
+            writeDateTime(out, event.getToDate(), secondTime);
+        }
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDate date, LocalTime time) throws IOException {
+        if (!DateTimeUtil.isSupported(date)) {
+            throw new IOException(String.format(ERROR_DATE_RANGE, date));
+        }
+        out.writeInt((int) date.toEpochDay());
+        if (time != null) {
+            out.writeShort(time.getHour() * MINUTES_PER_HOUR + time.getMinute());
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Decodes one buffer; holds the scratch space reused across records.
+     */
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        private byte[] scratch = new byte[256];
+
+        private Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private long readAll(List<Task> tasks) throws IOException, OrionException {
+            int count;
+            long seq;
+            try {
+                if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                    throw Storage.corrupted("not an Orion binary data file (or unsupported version)");
+                }
+                seq = buffer.getLong();
+                count = buffer.getInt();
+            } catch (BufferUnderflowException e) {
+                throw Storage.corrupted("truncated binary header");
+            }
+
+            for (int i = 0; i < count; i++) {
+                tasks.add(readTask(i + 1));
+            }
+            if (buffer.hasRemaining()) {
+                throw Storage.corrupted("unexpected data after binary record " + count);
+            }
+            return seq;
+        }
+
+        private Task readTask(int recordNumber) throws IOException, OrionException {
+            try {
+                int flags = buffer.get();
+                String description = readDescription();
+
+                Task task;
+                switch (flags & TYPE_MASK) {
+                case TYPE_TODO:
+                    task = new Todo(description);
+                    break;
+                case TYPE_DEADLINE:
+                    LocalDate byDate = readDate();
+                    task = new Deadline(description, byDate, readTimeIf(flags, FLAG_FIRST_TIME));
+                    break;
+                case TYPE_EVENT:
+                    LocalDate fromDate = readDate();
+                    LocalTime fromTime = readTimeIf(flags, FLAG_FIRST_TIME);
+                    LocalDate toDate = readDate();
+                    task = new Event(description, fromDate, fromTime, toDate, readTimeIf(flags, FLAG_SECOND_TIME));
+                    break;
+                default:
+                    throw corruptedRecord(recordNumber);
+                }
+
+                if ((flags & FLAG_DONE) != 0) {
+                    task.markDone();
+                }
+                return task;
+            } catch (BufferUnderflowException | DateTimeException | IndexOutOfBoundsException e) {
+                throw corruptedRecord(recordNumber);
+            }
+        }
+
+        private String readDescription() throws IOException {
+            int length = readVarInt();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+
+            for (int i = 0; i < length; i++) {
+                if (scratch[i] < 0) {
+                    return decoder.decode(ByteBuffer.wrap(scratch, 0, length)).toString();
+                }
+            }
+            return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+        }
+
+        private LocalDate readDate() {
+            return LocalDate.ofEpochDay(buffer.getInt());
+        }
+
+        private LocalTime readTimeIf(int flags, int flag) {
+            if ((flags & flag) == 0) {
+                return null;
+            }
+            int minuteOfDay = buffer.getShort();
+            return DateTimeCache.time(minuteOfDay / MINUTES_PER_HOUR, minuteOfDay % MINUTES_PER_HOUR);
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new BufferUnderflowException();
+        }
+
+        private static OrionException corruptedRecord(int recordNumber) {
+            return Storage.corrupted("binary record " + recordNumber);
+        }
+    }
+}
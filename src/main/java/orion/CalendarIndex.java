@@ -0,0 +1,252 @@
+package orion;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Date index over deadlines and events.
+ * Deadlines are kept in a treap ordered by due date/time; events are kept in an interval treap ordered by start
+ * and augmented with the latest end date in each subtree, so overlap queries skip subtrees that end too early.
+ * Both structures report task ids, ordered by date/time and then by id (i.e. list order).
+ * The index is immutable: updates return a new index sharing structure with this one.
+ */
+class CalendarIndex {
+    private static final int SLOTS_PER_DAY = 24 * 60 + 1; // slot 0 = no time, then one per minute
+    private static final CalendarIndex EMPTY = new CalendarIndex(PersistentTreap.empty(), PersistentTreap.empty());
+
+    private final PersistentTreap<Void> deadlines; // key: due slot
+    private final PersistentTreap<Void> events; // key: start slot, bound: end day
+
+    private CalendarIndex(PersistentTreap<Void> deadlines, PersistentTreap<Void> events) {
+        this.deadlines = deadlines;
+        this.events = events;
+    }
+
+    /**
+     * Returns the empty index.
+     *
+     * @return Index without tasks.
+     */
+    static CalendarIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns an index of {@code tasks}, where the task at position {@code i} has id {@code i}.
+     *
+     * @param tasks Tasks to index.
+     * @return New index.
+     */
+    static CalendarIndex of(List<Task> tasks) {
+        int count = tasks.size();
+        long[] deadlineSlots = new long[count];
+        int[] deadlineIds = new int[count];
+        int deadlineCount = 0;
+        long[] eventSlots = new long[count];
+        int[] eventIds = new int[count];
+        long[] eventEndDays = new long[count];
+        int eventCount = 0;
+
+        for (int id = 0; id < count; id++) {
+            Task task = tasks.get(id);
+            if (task instanceof Deadline deadline) {
+                deadlineSlots[deadlineCount] = slotOf(deadline.getByDate(), deadline.getByTime());
+                deadlineIds[deadlineCount++] = id;
+            } else if (task instanceof Event event) {
+                eventSlots[eventCount] = slotOf(event.getFromDate(), event.getFromTime());
+                eventIds[eventCount] = id;
+                eventEndDays[eventCount++] = event.getToDate().toEpochDay();
+            }
+        }
+        return new CalendarIndex(
+                PersistentTreap.of(deadlineSlots, deadlineIds, new Void[deadlineCount], null, deadlineCount),
+                PersistentTreap.of(eventSlots, eventIds, new Void[eventCount], eventEndDays, eventCount));
+    }
+
+    /**
+     * Returns an index that also contains {@code task} under {@code id} if it is a deadline or event.
+     *
+     * @param id Stable task id.
+     * @param task Task to index.
+     * @return Updated index.
+     */
+    CalendarIndex add(int id, Task task) {
+        if (task instanceof Deadline deadline) {
+            long slot = slotOf(deadline.getByDate(), deadline.getByTime());
+            return new CalendarIndex(deadlines.insert(slot, id, null, 0), events);
+        } else if (task instanceof Event event) {
+            long slot = slotOf(event.getFromDate(), event.getFromTime());
+            return new CalendarIndex(deadlines, events.insert(slot, id, null, event.getToDate().toEpochDay()));
+        }
+        return this;
+    }
+
+    /**
+     * Returns an index without {@code task}, previously added under {@code id}.
+     *
+     * @param id Stable task id.
+     * @param task Task to remove.
+     * @return Updated index.
+     */
+    CalendarIndex remove(int id, Task task) {
+        if (task instanceof Deadline deadline) {
+            return new CalendarIndex(deadlines.remove(slotOf(deadline.getByDate(), deadline.getByTime()), id),
+                    events);
+        } else if (task instanceof Event event) {
+            return new CalendarIndex(deadlines,
+                    events.remove(slotOf(event.getFromDate(), event.getFromTime()), id));
+        }
+        return this;
+    }
+
+    /**
+     * Returns ids of deadlines due between {@code from} and {@code to} (inclusive), in due order.
+     *
+     * @param from First day, or {@code null} for no lower bound.
+     * @param to Last day.
+     * @return Matching ids.
+     */
+    int[] deadlinesBetween(LocalDate from, LocalDate to) {
+        long fromSlot = (from == null) ? Long.MIN_VALUE : from.toEpochDay() * SLOTS_PER_DAY;
+        long toSlot = to.toEpochDay() * SLOTS_PER_DAY + SLOTS_PER_DAY - 1;
+        if (fromSlot > toSlot) {
+            return new int[0];
+        }
+
+        IdCollector out = new IdCollector();
+        deadlines.forEachBetween(fromSlot, toSlot, (slot, id, unused) -> out.add(slot, id));
+        return out.ids();
+    }
+
+    /**
+     * Returns ids of deadlines due and events taking place between {@code from} and {@code to} (inclusive),
+     * ordered by due/start date and time.
+     *
+     * @param from First day.
+     * @param to Last day.
+     * @return Matching ids.
+     */
+    int[] agenda(LocalDate from, LocalDate to) {
+        return datedBetween(from, to, true, true);
+    }
+
+    /**
+     * Returns ids of deadlines due and events taking place between {@code from} and {@code to} (inclusive),
+     * ordered by due/start date and time, like {@link #agenda(LocalDate, LocalDate)} but with optional bounds.
+     *
+     * @param from First day, or {@code null} for no lower bound.
+     * @param to Last day, or {@code null} for no upper bound.
+     * @param includeDeadlines Whether to report deadlines.
+     * @param includeEvents Whether to report events.
+     * @return Matching ids.
+     */
+    int[] datedBetween(LocalDate from, LocalDate to, boolean includeDeadlines, boolean includeEvents) {
+        long fromSlot = firstSlot(from);
+        long toSlot = lastSlot(to);
+
+        IdCollector dueDeadlines = new IdCollector();
+        if (includeDeadlines && fromSlot <= toSlot) {
+            deadlines.forEachBetween(fromSlot, toSlot, (slot, id, unused) -> dueDeadlines.add(slot, id));
+        }
+        IdCollector overlappingEvents = new IdCollector();
+        if (includeEvents) {
+            long minEndDay = (from == null) ? Long.MIN_VALUE : from.toEpochDay();
+            events.forEachOverlapping(toSlot, minEndDay, (slot, id, unused) -> overlappingEvents.add(slot, id));
+        }
+        return IdCollector.merge(dueDeadlines, overlappingEvents);
+    }
+
+    /**
+     * Estimates how many ids {@link #datedBetween} returns without visiting them: the exact number of deadlines
+     * due in the range, plus every event that starts by its end (some of which may have ended before it began).
+     *
+     * @return Upper bound on the number of ids.
+     */
+    long estimateBetween(LocalDate from, LocalDate to, boolean includeDeadlines, boolean includeEvents) {
+        long fromSlot = firstSlot(from);
+        long toSlot = lastSlot(to);
+        long estimate = 0;
+        if (includeDeadlines && fromSlot <= toSlot) {
+            int before = (fromSlot == Long.MIN_VALUE) ? 0 : deadlines.countAtMost(fromSlot - 1);
+            estimate += deadlines.countAtMost(toSlot) - before;
+        }
+        if (includeEvents) {
+            estimate += events.countAtMost(toSlot);
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the number of deadlines.
+     *
+     * @return Deadline count.
+     */
+    int deadlineCount() {
+        return deadlines.size();
+    }
+
+    /**
+     * Returns the number of events.
+     *
+     * @return Event count.
+     */
+    int eventCount() {
+        return events.size();
+    }
+
+    private static long firstSlot(LocalDate from) {
+        return (from == null) ? Long.MIN_VALUE : from.toEpochDay() * SLOTS_PER_DAY;
+    }
+
+    private static long lastSlot(LocalDate to) {
+        return (to == null) ? Long.MAX_VALUE : to.toEpochDay() * SLOTS_PER_DAY + SLOTS_PER_DAY - 1;
+    }
+
+    private static long slotOf(LocalDate date, LocalTime time) {
+        int slotInDay = (time == null) ? 0 : time.getHour() * 60 + time.getMinute() + 1;
+        return date.toEpochDay() * SLOTS_PER_DAY + slotInDay;
+    }
+
+    /**
+     * Growable list of (slot, id) pairs, already in (slot, id) order.
+     */
+    private static final class IdCollector {
+        private long[] slots = new long[8];
+        private int[] ids = new int[8];
+        private int size;
+
+        private void add(long slot, int id) {
+            if (size == ids.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            slots[size] = slot;
+            ids[size] = id;
+            size++;
+        }
+
+        private int[] ids() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        private static int[] merge(IdCollector a, IdCollector b) {
+            int[] result = new int[a.size + b.size];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < a.size && j < b.size) {
+                boolean takeA = a.slots[i] < b.slots[j] || (a.slots[i] == b.slots[j] && a.ids[i] < b.ids[j]);
+                result[k++] = takeA ? a.ids[i++] : b.ids[j++];
+            }
+            while (i < a.size) {
+                result[k++] = a.ids[i++];
+            }
+            while (j < b.size) {
+                result[k++] = b.ids[j++];
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,632 @@
+package orion;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * {@link TaskStore} that keeps tasks in parallel primitive arrays instead of objects: per task an id, a type byte,
+ * a done bit, two epoch-day ints, two minute-of-day shorts, and the end of its description in a byte arena.
+ * Task objects are only created when a task is read, as independent copies.
+ * <p>
+ * Tasks are split into chunks of at most {@value #CHUNK_CAPACITY}. A chunk's tasks never change once a store can
+ * see them: removing a task copies its chunk, and marking one copies only the chunk's done bits. Appending writes
+ * into spare room at the end of the last chunk's arrays, which no existing store reads; only the first store to
+ * claim a slot writes into it, and any other copies the chunk.
+ * <p>
+ * Times are kept to the minute, like in the data file. Descriptions are stored in Latin-1 when they fit, else as
+ * UTF-16. A task that is neither a {@link Deadline} nor an {@link Event} is stored as a {@link Todo}.
+ * <p>
+ * Dates outside {@link DateTimeUtil#isSupported(LocalDate) the supported range} do not fit the epoch-day ints. The
+ * parser rejects them, but a text data file can still hold them; a store given such a task keeps its tasks in an
+ * {@link ObjectTaskStore} instead.
+ */
+final class ColumnarTaskStore implements TaskStore {
+    /** Most tasks in one chunk. */
+    static final int CHUNK_CAPACITY = 1024;
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int SLOT_BYTES = 21; // array bytes per task, besides its description
+    private static final int TYPICAL_DESCRIPTION_BYTES = 32;
+    private static final int CHUNK_REFERENCE_BYTES = 8; // one chunks entry and one chunkStarts entry
+    private static final int TYPE_TODO = 0;
+    private static final int TYPE_DEADLINE = 1;
+    private static final int TYPE_EVENT = 2;
+    private static final int TYPE_MASK = 0b11;
+    private static final int FLAG_UTF16 = 1 << 2;
+    private static final short NO_TIME = -1;
+    private static final int MINUTES_PER_HOUR = 60;
+
+    private static final ColumnarTaskStore EMPTY = new ColumnarTaskStore(new Chunk[0], new int[0], 0);
+
+    private final Chunk[] chunks; // in list order, none empty
+    private final int[] chunkStarts; // position of the first task of each chunk
+    private final int size;
+
+    private ColumnarTaskStore(Chunk[] chunks, int[] chunkStarts, int size) {
+        this.chunks = chunks;
+        this.chunkStarts = chunkStarts;
+        this.size = size;
+    }
+
+    /**
+     * Returns a store of {@code tasks}, where the task at position {@code i} has id {@code i}.
+     *
+     * @param tasks Tasks to store.
+     * @return New store, an {@link ObjectTaskStore} if some task's dates do not fit.
+     */
+    static TaskStore of(List<Task> tasks) {
+        int count = tasks.size();
+        if (count == 0) {
+            return EMPTY;
+        }
+        for (Task task : tasks) {
+            if (!fits(task)) {
+                return ObjectTaskStore.of(tasks);
+            }
+        }
+        Task[] values = tasks.toArray(new Task[0]);
+        Chunk[] chunks = new Chunk[(count + CHUNK_CAPACITY - 1) / CHUNK_CAPACITY];
+        int[] starts = new int[chunks.length];
+        for (int c = 0; c < chunks.length; c++) {
+            starts[c] = c * CHUNK_CAPACITY;
+            chunks[c] = Chunk.of(values, starts[c], Math.min(count, starts[c] + CHUNK_CAPACITY));
+        }
+        return new ColumnarTaskStore(chunks, starts, count);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        int c = chunkAt(index);
+        return chunks[c].task(index - chunkStarts[c]);
+    }
+
+    @Override
+    public int idAt(int index) {
+        int c = chunkAt(index);
+        return chunks[c].ids[index - chunkStarts[c]];
+    }
+
+    @Override
+    public int positionOf(int id) {
+        int c = chunkWithId(id);
+        int slot = (c < 0) ? -1 : chunks[c].slotOf(id);
+        return (slot < 0) ? -1 : chunkStarts[c] + slot;
+    }
+
+    @Override
+    public Task getById(int id) {
+        int c = chunkWithId(id);
+        int slot = (c < 0) ? -1 : chunks[c].slotOf(id);
+        return (slot < 0) ? null : chunks[c].task(slot);
+    }
+
+    @Override
+    public TaskStore add(int id, Task task) {
+        int last = chunks.length - 1;
+        assert last < 0 || chunks[last].ids[chunks[last].count - 1] < id : "add(): ids must increase";
+        if (!fits(task)) {
+            return ObjectTaskStore.copyOf(this).add(id, task);
+        }
+
+        if (last >= 0 && chunks[last].count < CHUNK_CAPACITY) {
+            Chunk[] updated = chunks.clone();
+            updated[last] = chunks[last].append(id, task);
+            return new ColumnarTaskStore(updated, chunkStarts, size + 1);
+        }
+        Chunk[] updated = Arrays.copyOf(chunks, chunks.length + 1);
+        updated[last + 1] = Chunk.allocate(MIN_CAPACITY, 0).append(id, task);
+        int[] starts = Arrays.copyOf(chunkStarts, chunks.length + 1);
+        starts[last + 1] = size;
+        return new ColumnarTaskStore(updated, starts, size + 1);
+    }
+
+    @Override
+    public TaskStore remove(int index) {
+        int c = chunkAt(index);
+        Chunk smaller = chunks[c].remove(index - chunkStarts[c]);
+
+        Chunk[] updated;
+        int[] starts;
+        if (smaller == null) {
+            updated = new Chunk[chunks.length - 1];
+            starts = new int[chunks.length - 1];
+            System.arraycopy(chunks, 0, updated, 0, c);
+            System.arraycopy(chunks, c + 1, updated, c, chunks.length - c - 1);
+            System.arraycopy(chunkStarts, 0, starts, 0, c);
+            for (int j = c; j < starts.length; j++) {
+                starts[j] = chunkStarts[j + 1] - 1;
+            }
+        } else {
+            updated = chunks.clone();
+            updated[c] = smaller;
+            starts = chunkStarts.clone();
+            for (int j = c + 1; j < starts.length; j++) {
+                starts[j]--;
+            }
+        }
+        return new ColumnarTaskStore(updated, starts, size - 1);
+    }
+
+    @Override
+    public TaskStore removeAll(int[] indexes) {
+        Chunk[] updated = new Chunk[chunks.length];
+        int[] starts = new int[chunks.length];
+        int count = 0;
+        int next = 0;
+        for (int c = 0; c < chunks.length; c++) {
+            int first = next;
+            while (next < indexes.length && indexes[next] < chunkStarts[c] + chunks[c].count) {
+                next++;
+            }
+            Chunk chunk = (next == first) ? chunks[c] : chunks[c].removeAll(indexes, first, next, chunkStarts[c]);
+            if (chunk != null) {
+                updated[count] = chunk;
+                starts[count++] = chunkStarts[c] - first; // first: tasks removed from earlier chunks
+            }
+        }
+        return new ColumnarTaskStore(Arrays.copyOf(updated, count), Arrays.copyOf(starts, count),
+                size - indexes.length);
+    }
+
+    @Override
+    public TaskStore replace(int index, Task task) {
+        int c = chunkAt(index);
+        int slot = index - chunkStarts[c];
+        assert chunks[c].task(slot).isSameTask(task) : "replace(): only the completion status may change";
+
+        Chunk updated = chunks[c].withDone(slot, task.isDone());
+        if (updated == chunks[c]) {
+            return this;
+        }
+        Chunk[] updatedChunks = chunks.clone();
+        updatedChunks[c] = updated;
+        return new ColumnarTaskStore(updatedChunks, chunkStarts, size);
+    }
+
+    @Override
+    public long updateBytes(int changedTasks) {
+        // Every update copies the chunk table; each changed task may copy a whole chunk.
+        long chunkBytes = (long) CHUNK_CAPACITY * (SLOT_BYTES + TYPICAL_DESCRIPTION_BYTES);
+        return (long) chunks.length * CHUNK_REFERENCE_BYTES
+                + Math.min(changedTasks, Math.max(chunks.length, 1)) * chunkBytes;
+    }
+
+    @Override
+    public void forEach(Visitor visitor) {
+        for (Chunk chunk : chunks) {
+            for (int slot = 0; slot < chunk.count; slot++) {
+                visitor.visit(chunk.ids[slot], chunk.task(slot));
+            }
+        }
+    }
+
+    @Override
+    public void forEachWithDescription(Predicate<String> test, Visitor visitor) {
+        for (Chunk chunk : chunks) {
+            for (int slot = 0; slot < chunk.count; slot++) {
+                if (test.test(chunk.description(slot, chunk.kinds[slot]))) {
+                    visitor.visit(chunk.ids[slot], chunk.task(slot));
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Task> values() {
+        return new TaskView(this);
+    }
+
+    private int chunkAt(int index) {
+        assert index >= 0 && index < size : "index out of bounds: " + index + " (size=" + size + ")";
+        int c = Arrays.binarySearch(chunkStarts, index);
+        return (c >= 0) ? c : -c - 2;
+    }
+
+    /**
+     * Returns the last chunk whose first id is at most {@code id}, or -1 if there is none.
+     */
+    private int chunkWithId(int id) {
+        int low = 0;
+        int high = chunks.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (chunks[mid].ids[0] <= id) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Up to {@value #CHUNK_CAPACITY} consecutive tasks as parallel arrays. The first {@code count} entries of
+     * each array belong to this chunk; entries past them may be written by a chunk sharing the arrays that has
+     * claimed them.
+     */
+    private static final class Chunk {
+        private final int count;
+        private final AtomicInteger claimed; // entries written in these arrays, by any chunk sharing them
+        private final int[] ids;
+        private final byte[] kinds;
+        private final int[] firstDays;
+        private final int[] secondDays;
+        private final short[] firstMinutes;
+        private final short[] secondMinutes;
+        private final int[] descriptionEnds;
+        private final byte[] arena;
+        private final long[] doneBits;
+
+        private Chunk(int count, AtomicInteger claimed, int[] ids, byte[] kinds, int[] firstDays, int[] secondDays,
+                short[] firstMinutes, short[] secondMinutes, int[] descriptionEnds, byte[] arena, long[] doneBits) {
+            this.count = count;
+            this.claimed = claimed;
+            this.ids = ids;
+            this.kinds = kinds;
+            this.firstDays = firstDays;
+            this.secondDays = secondDays;
+            this.firstMinutes = firstMinutes;
+            this.secondMinutes = secondMinutes;
+            this.descriptionEnds = descriptionEnds;
+            this.arena = arena;
+            this.doneBits = doneBits;
+        }
+
+        private static Chunk allocate(int capacity, int arenaCapacity) {
+            return new Chunk(0, new AtomicInteger(), new int[capacity], new byte[capacity], new int[capacity],
+                    new int[capacity], new short[capacity], new short[capacity], new int[capacity],
+                    new byte[arenaCapacity], new long[(capacity + Long.SIZE - 1) / Long.SIZE]);
+        }
+
+        /**
+         * Returns a full chunk of {@code values[from..to)}, where each task's id is its position in {@code values}.
+         */
+        private static Chunk of(Task[] values, int from, int to) {
+            int arenaSize = 0;
+            for (int i = from; i < to; i++) {
+                arenaSize += encodedLength(values[i].getDescription());
+            }
+            Chunk chunk = allocate(to - from, arenaSize);
+            int end = 0;
+            for (int i = from; i < to; i++) {
+                end = chunk.write(i - from, i, values[i], chunk.arena, end);
+            }
+            return chunk.withCount(to - from);
+        }
+
+        private Task task(int slot) {
+            int kind = kinds[slot];
+            String description = description(slot, kind);
+            Task task = switch (kind & TYPE_MASK) {
+                case TYPE_DEADLINE -> new Deadline(description, day(firstDays[slot]), time(firstMinutes[slot]));
+                case TYPE_EVENT -> new Event(description, day(firstDays[slot]), time(firstMinutes[slot]),
+                        day(secondDays[slot]), time(secondMinutes[slot]));
+                default -> new Todo(description);
+            };
+            if (isDone(slot)) {
+                task.markDone();
+            }
+            return task;
+        }
+
+        /**
+         * Returns the slot holding {@code id}, or -1 if there is none.
+         */
+        private int slotOf(int id) {
+            int slot = Arrays.binarySearch(ids, 0, count, id);
+            return (slot >= 0) ? slot : -1;
+        }
+
+        private boolean isDone(int slot) {
+            return (doneBits[slot / Long.SIZE] & (1L << slot)) != 0;
+        }
+
+        /**
+         * Returns this chunk with {@code task} appended under {@code id}. Must have fewer than
+         * {@value #CHUNK_CAPACITY} tasks.
+         */
+        private Chunk append(int id, Task task) {
+            int start = (count == 0) ? 0 : descriptionEnds[count - 1];
+            int length = encodedLength(task.getDescription());
+            if (count == ids.length || !claimed.compareAndSet(count, count + 1)) {
+                // Full, or another chunk already wrote the next slot: continue in arrays of our own.
+                int capacity = (count == ids.length) ? Math.min(CHUNK_CAPACITY, Math.max(MIN_CAPACITY, 2 * count))
+                        : ids.length;
+                return copy(capacity, Math.max(2 * start, start + length)).append(id, task);
+            }
+
+            byte[] targetArena = arena;
+            if (start + length > arena.length) {
+                targetArena = Arrays.copyOf(arena, Math.max(2 * arena.length, start + length));
+            }
+            write(count, id, task, targetArena, start);
+            return new Chunk(count + 1, claimed, ids, kinds, firstDays, secondDays, firstMinutes, secondMinutes,
+                    descriptionEnds, targetArena, doneBits);
+        }
+
+        /**
+         * Returns this chunk without the task in {@code slot}, or {@code null} if it was the only one.
+         */
+        private Chunk remove(int slot) {
+            if (count == 1) {
+                return null;
+            }
+            int start = (slot == 0) ? 0 : descriptionEnds[slot - 1];
+            int length = descriptionEnds[slot] - start;
+            int end = descriptionEnds[count - 1];
+
+            int remaining = count - 1;
+            Chunk smaller = allocate(remaining, end - length);
+            removeEntry(ids, smaller.ids, slot, remaining);
+            removeEntry(kinds, smaller.kinds, slot, remaining);
+            removeEntry(firstDays, smaller.firstDays, slot, remaining);
+            removeEntry(secondDays, smaller.secondDays, slot, remaining);
+            removeEntry(firstMinutes, smaller.firstMinutes, slot, remaining);
+            removeEntry(secondMinutes, smaller.secondMinutes, slot, remaining);
+            removeEntry(descriptionEnds, smaller.descriptionEnds, slot, remaining);
+            for (int i = slot; i < remaining; i++) {
+                smaller.descriptionEnds[i] -= length;
+            }
+            System.arraycopy(arena, 0, smaller.arena, 0, start);
+            System.arraycopy(arena, start + length, smaller.arena, start, end - start - length);
+            for (int i = 0; i < remaining; i++) {
+                if (isDone((i < slot) ? i : i + 1)) {
+                    smaller.doneBits[i / Long.SIZE] |= 1L << i;
+                }
+            }
+            return smaller.withCount(remaining);
+        }
+
+        /**
+         * Returns this chunk without the tasks at positions {@code indexes[from..to)}, which are ascending and
+         * counted from {@code offset}, or {@code null} if that is all of them. Copies the chunk once.
+         */
+        private Chunk removeAll(int[] indexes, int from, int to, int offset) {
+            if (to - from == count) {
+                return null;
+            }
+            int remaining = count - (to - from);
+            int removedBytes = 0;
+            for (int i = from; i < to; i++) {
+                int slot = indexes[i] - offset;
+                removedBytes += descriptionEnds[slot] - ((slot == 0) ? 0 : descriptionEnds[slot - 1]);
+            }
+
+            Chunk smaller = allocate(remaining, descriptionEnds[count - 1] - removedBytes);
+            int next = from;
+            int kept = 0;
+            int end = 0;
+            for (int slot = 0; slot < count; slot++) {
+                if (next < to && indexes[next] - offset == slot) {
+                    next++;
+                    continue;
+                }
+                int start = (slot == 0) ? 0 : descriptionEnds[slot - 1];
+                System.arraycopy(arena, start, smaller.arena, end, descriptionEnds[slot] - start);
+                end += descriptionEnds[slot] - start;
+                smaller.ids[kept] = ids[slot];
+                smaller.kinds[kept] = kinds[slot];
+                smaller.firstDays[kept] = firstDays[slot];
+                smaller.secondDays[kept] = secondDays[slot];
+                smaller.firstMinutes[kept] = firstMinutes[slot];
+                smaller.secondMinutes[kept] = secondMinutes[slot];
+                smaller.descriptionEnds[kept] = end;
+                if (isDone(slot)) {
+                    smaller.doneBits[kept / Long.SIZE] |= 1L << kept;
+                }
+                kept++;
+            }
+            return smaller.withCount(remaining);
+        }
+
+        /**
+         * Returns this chunk with the task in {@code slot} marked {@code isDone}, sharing every array but the
+         * done bits.
+         */
+        private Chunk withDone(int slot, boolean isDone) {
+            if (isDone(slot) == isDone) {
+                return this;
+            }
+            long[] bits = doneBits.clone();
+            bits[slot / Long.SIZE] ^= 1L << slot;
+            return new Chunk(count, claimed, ids, kinds, firstDays, secondDays, firstMinutes, secondMinutes,
+                    descriptionEnds, arena, bits);
+        }
+
+        /**
+         * Returns a chunk of the first {@code newCount} entries of these arrays, all of them already written.
+         * Only for chunks no store can see yet.
+         */
+        private Chunk withCount(int newCount) {
+            claimed.set(newCount);
+            return new Chunk(newCount, claimed, ids, kinds, firstDays, secondDays, firstMinutes, secondMinutes,
+                    descriptionEnds, arena, doneBits);
+        }
+
+        /**
+         * Returns a chunk with the same tasks in new arrays with room for {@code capacity} tasks.
+         */
+        private Chunk copy(int capacity, int arenaCapacity) {
+            int end = (count == 0) ? 0 : descriptionEnds[count - 1];
+            long[] bits = Arrays.copyOf(doneBits, (capacity + Long.SIZE - 1) / Long.SIZE);
+            for (int i = count; i < Math.min(capacity, doneBits.length * Long.SIZE); i++) {
+                bits[i / Long.SIZE] &= ~(1L << i); // set by a chunk that shared the arrays
+            }
+            return new Chunk(count, new AtomicInteger(count), Arrays.copyOf(ids, capacity),
+                    Arrays.copyOf(kinds, capacity), Arrays.copyOf(firstDays, capacity),
+                    Arrays.copyOf(secondDays, capacity), Arrays.copyOf(firstMinutes, capacity),
+                    Arrays.copyOf(secondMinutes, capacity), Arrays.copyOf(descriptionEnds, capacity),
+                    Arrays.copyOf(arena, Math.max(arenaCapacity, end)), bits);
+        }
+
+        /**
+         * Writes {@code task} into {@code slot}, with its description at {@code start} in {@code targetArena}.
+         *
+         * @return End of the description in the arena.
+         */
+        private int write(int slot, int id, Task task, byte[] targetArena, int start) {
+            ids[slot] = id;
+            int kind = TYPE_TODO;
+            firstMinutes[slot] = NO_TIME;
+            secondMinutes[slot] = NO_TIME;
+            if (task instanceof Deadline deadline) {
+                kind = TYPE_DEADLINE;
+                firstDays[slot] = Math.toIntExact(deadline.getByDate().toEpochDay());
+                firstMinutes[slot] = minuteOf(deadline.getByTime());
+            } else if (task instanceof Event event) {
+                kind = TYPE_EVENT;
+                firstDays[slot] = Math.toIntExact(event.getFromDate().toEpochDay());
+                firstMinutes[slot] = minuteOf(event.getFromTime());
+                secondDays[slot] = Math.toIntExact(event.getToDate().toEpochDay());
+                secondMinutes[slot] = minuteOf(event.getToTime());
+            }
+
+            String description = task.getDescription();
+            int end = start;
+            if (isLatin1(description)) {
+                for (int i = 0; i < description.length(); i++) {
+                    targetArena[end++] = (byte) description.charAt(i);
+                }
+            } else {
+                kind |= FLAG_UTF16;
+                for (int i = 0; i < description.length(); i++) {
+                    char c = description.charAt(i);
+                    targetArena[end++] = (byte) (c >>> 8);
+                    targetArena[end++] = (byte) c;
+                }
+            }
+            kinds[slot] = (byte) kind;
+            descriptionEnds[slot] = end;
+            if (task.isDone()) {
+                doneBits[slot / Long.SIZE] |= 1L << slot;
+            }
+            return end;
+        }
+
+        private String description(int slot, int kind) {
+            int start = (slot == 0) ? 0 : descriptionEnds[slot - 1];
+            int end = descriptionEnds[slot];
+            if ((kind & FLAG_UTF16) == 0) {
+                return new String(arena, start, end - start, StandardCharsets.ISO_8859_1);
+            }
+            char[] chars = new char[(end - start) / 2];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = (char) (((arena[start + 2 * i] & 0xFF) << 8) | (arena[start + 2 * i + 1] & 0xFF));
+            }
+            return new String(chars);
+        }
+
+        /**
+         * Copies the first {@code remaining + 1} entries of the array {@code source} to {@code target}, leaving out
+         * the entry at {@code slot}.
+         */
+        private static void removeEntry(Object source, Object target, int slot, int remaining) {
+            System.arraycopy(source, 0, target, 0, slot);
+            System.arraycopy(source, slot + 1, target, slot, remaining - slot);
+        }
+    }
+
+    /**
+     * Returns true if {@code task}'s dates fit the epoch-day columns.
+     */
+    private static boolean fits(Task task) {
+        if (task instanceof Deadline deadline) {
+            return DateTimeUtil.isSupported(deadline.getByDate());
+        } else if (task instanceof Event event) {
+            return DateTimeUtil.isSupported(event.getFromDate()) && DateTimeUtil.isSupported(event.getToDate());
+        }
+        return true;
+    }
+
+    private static int encodedLength(String description) {
+        return isLatin1(description) ? description.length() : 2 * description.length();
+    }
+
+    private static boolean isLatin1(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static short minuteOf(LocalTime time) {
+        return (time == null) ? NO_TIME : (short) (time.getHour() * MINUTES_PER_HOUR + time.getMinute());
+    }
+
+    private static LocalDate day(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static LocalTime time(short minuteOfDay) {
+        return (minuteOfDay == NO_TIME) ? null
+                : DateTimeCache.time(minuteOfDay / MINUTES_PER_HOUR, minuteOfDay % MINUTES_PER_HOUR);
+    }
+
+    /**
+     * Unmodifiable list view of a store. Iteration walks the chunks in order.
+     */
+    private static final class TaskView extends AbstractList<Task> {
+        private final ColumnarTaskStore store;
+
+        private TaskView(ColumnarTaskStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public Task get(int index) {
+            if (index < 0 || index >= store.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + store.size);
+            }
+            return store.get(index);
+        }
+
+        @Override
+        public int size() {
+            return store.size;
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return new Iterator<>() {
+                private int chunk;
+                private int slot;
+
+                @Override
+                public boolean hasNext() {
+                    return chunk < store.chunks.length;
+                }
+
+                @Override
+                public Task next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Chunk current = store.chunks[chunk];
+                    Task task = current.task(slot);
+                    if (++slot == current.count) {
+                        chunk++;
+                        slot = 0;
+                    }
+                    return task;
+                }
+            };
+        }
+    }
+}
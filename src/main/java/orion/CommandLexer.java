@@ -0,0 +1,164 @@
+package orion;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Index-based scanning primitives used by {@link Parser}.
+ * Every method works on a {@code [from, to)} range of the input, so a command is scanned in place without
+ * regular expressions or intermediate arrays; only the final fields are copied out as strings.
+ * "Whitespace" means the characters matched by the regex {@code \s}, while trimming follows
+ * {@link String#trim()}, so results match the split/trim code this replaces.
+ */
+final class CommandLexer {
+
+    private CommandLexer() {
+        // Utility class, no instances.
+    }
+
+    /**
+     * Returns true if {@code c} is matched by the regex {@code \s}.
+     */
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Returns the index of the first whitespace character at or after {@code from}, or {@code to} if none.
+     */
+    static int nextWhitespace(String s, int from, int to) {
+        int i = from;
+        while (i < to && !isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the index of the first non-whitespace character at or after {@code from}, or {@code to} if none.
+     */
+    static int skipWhitespace(String s, int from, int to) {
+        int i = from;
+        while (i < to && isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the start of the run of whitespace that ends just before {@code index}, not going below {@code from}.
+     */
+    static int whitespaceRunStart(String s, int from, int index) {
+        int i = index;
+        while (i > from && isWhitespace(s.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the first index at or after {@code from} that {@link String#trim()} would keep.
+     */
+    static int trimStart(String s, int from, int to) {
+        int i = from;
+        while (i < to && s.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the end of the range {@code [from, to)} after {@link String#trim()} removes trailing characters.
+     */
+    static int trimEnd(String s, int from, int to) {
+        int i = to;
+        while (i > from && s.charAt(i - 1) <= ' ') {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the range {@code [from, to)} of {@code s}, trimmed as by {@link String#trim()}.
+     */
+    static String trimmed(String s, int from, int to) {
+        int start = trimStart(s, from, to);
+        return s.substring(start, trimEnd(s, start, to));
+    }
+
+    /**
+     * Finds the first {@code marker} in {@code [from, to)} with whitespace immediately before and after it,
+     * i.e. the marker of the leftmost match of {@code \s+marker\s+}.
+     *
+     * @return Index of the marker, or -1 if there is none.
+     */
+    static int findMarker(String s, int from, int to, String marker) {
+        int i = s.indexOf(marker, from + 1);
+        while (i >= 0 && i + marker.length() < to) {
+            if (isWhitespace(s.charAt(i - 1)) && isWhitespace(s.charAt(i + marker.length()))) {
+                return i;
+            }
+            i = s.indexOf(marker, i + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Parses {@code [from, to)} as an ISO {@code yyyy-MM-dd} date, like {@link LocalDate#parse(CharSequence)}.
+     *
+     * @return Parsed date, or {@code null} if the range is not a valid date or is outside
+     *         {@link DateTimeUtil#isSupported(LocalDate) the supported range}.
+     */
+    static LocalDate parseDate(String s, int from, int to) {
+        try {
+            if (to - from == 10 && isDigits(s, from, 4) && s.charAt(from + 4) == '-'
+                    && isDigits(s, from + 5, 2) && s.charAt(from + 7) == '-' && isDigits(s, from + 8, 2)) {
+                return LocalDate.of(digits(s, from, 4), digits(s, from + 5, 2), digits(s, from + 8, 2));
+            }
+            // Rare shapes (e.g. signed or 5+ digit years) go through the regular parser.
+            LocalDate date = LocalDate.parse(s.substring(from, to));
+            return DateTimeUtil.isSupported(date) ? date : null;
+        } catch (DateTimeException e) {
+            // Also covers DateTimeParseException from the fallback path.
+            return null;
+        }
+    }
+
+    /**
+     * Parses {@code [from, to)} as a time, either {@code HHmm} or ISO {@code HH:mm[:ss]}.
+     *
+     * @return Parsed time, or {@code null} if the range is not a valid time.
+     */
+    static LocalTime parseTime(String s, int from, int to) {
+        try {
+            if (to - from == 4 && isDigits(s, from, 4)) {
+                return LocalTime.of(digits(s, from, 2), digits(s, from + 2, 2));
+            }
+            if (to - from == 5 && isDigits(s, from, 2) && s.charAt(from + 2) == ':' && isDigits(s, from + 3, 2)) {
+                return LocalTime.of(digits(s, from, 2), digits(s, from + 3, 2));
+            }
+            return LocalTime.parse(s.substring(from, to));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isDigits(String s, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(String s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            value = value * 10 + (s.charAt(i) - '0');
+        }
+        return value;
+    }
+}
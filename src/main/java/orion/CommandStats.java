@@ -0,0 +1,178 @@
+package orion;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Latency of the commands run in this JVM, per command word and per phase, shared by every {@link Orion}.
+ * Each command word gets a {@link LatencyHistogram} of its total time and one per {@link Phase}; recording
+ * allocates nothing once a word has run, so it stays on in production. The figures are shown by the
+ * {@code stats} command and exposed over JMX as {@value #OBJECT_NAME}.
+ */
+public final class CommandStats implements CommandStatsMBean {
+    /** JMX name under which {@link #global()} is registered. */
+    public static final String OBJECT_NAME = "orion:type=CommandStats";
+
+    /**
+     * Parts of a command that are timed separately.
+     */
+    enum Phase {
+        /** Splitting the input and parsing the command's arguments. */
+        PARSE,
+        /** Reading or changing the task list. */
+        EXECUTE,
+        /** Saving changes; not timed for commands that change nothing. */
+        PERSIST,
+        /** Formatting and writing the response. */
+        RENDER
+    }
+
+    static final Phase[] PHASES = Phase.values();
+
+    private static final String TOTAL = "total";
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+    private static final String[] PERCENTILE_LABELS = {"p50", "p99", "p99.9"};
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private static final CommandStats GLOBAL = new CommandStats();
+    private static boolean isRegistered;
+
+    private final ConcurrentSkipListMap<String, CommandLatency> byCommand = new ConcurrentSkipListMap<>();
+
+    /**
+     * Returns the statistics of this JVM, registering them over JMX on first use.
+     * Registration failures are ignored: the {@code stats} command works without JMX.
+     *
+     * @return Shared statistics.
+     */
+    static synchronized CommandStats global() {
+        if (!isRegistered) {
+            isRegistered = true;
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(GLOBAL, new ObjectName(OBJECT_NAME));
+            } catch (JMException | SecurityException e) {
+                // Already registered by another class loader, or JMX is not permitted; keep counting anyway.
+            }
+        }
+        return GLOBAL;
+    }
+
+    /**
+     * Records one run of {@code command}.
+     *
+     * @param command Command word; must come from a fixed set, since each word keeps its histograms forever.
+     * @param totalNanos Time from reading the input to writing the response.
+     * @param phaseNanos Time spent in each phase, indexed by {@link Phase#ordinal()}.
+     * @param phasesRun Bit {@code 1 << ordinal} is set for each phase that ran.
+     */
+    void record(String command, long totalNanos, long[] phaseNanos, int phasesRun) {
+        CommandLatency latency = byCommand.computeIfAbsent(command, word -> new CommandLatency());
+        latency.total.record(totalNanos);
+        for (int i = 0; i < PHASES.length; i++) {
+            if ((phasesRun & (1 << i)) != 0) {
+                latency.phases[i].record(phaseNanos[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the report lines the {@code stats} command shows: per command word, its run count and total
+     * latency percentiles, followed by a line of percentiles for each phase that ran.
+     *
+     * @return Report lines, empty if no command has run.
+     */
+    List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        byCommand.forEach((command, latency) -> {
+            LatencyHistogram.Snapshot total = latency.total.snapshot();
+            lines.add(String.format(Locale.ROOT, "%s: %d run%s, %s", command, total.count(),
+                    (total.count() == 1) ? "" : "s", formatPercentiles(total)));
+            for (Phase phase : PHASES) {
+                LatencyHistogram.Snapshot snapshot = latency.phases[phase.ordinal()].snapshot();
+                if (snapshot.count() > 0) {
+                    lines.add(String.format(Locale.ROOT, "  %-7s %s", phaseName(phase), formatPercentiles(snapshot)));
+                }
+            }
+        });
+        return lines;
+    }
+
+    @Override
+    public String[] getCommands() {
+        return byCommand.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public String getSummary() {
+        return String.join(System.lineSeparator(), summaryLines());
+    }
+
+    @Override
+    public long count(String command) {
+        CommandLatency latency = byCommand.get(command);
+        return (latency == null) ? 0 : latency.total.snapshot().count();
+    }
+
+    @Override
+    public double percentileMillis(String command, String phase, double percentile) {
+        CommandLatency latency = byCommand.get(command);
+        LatencyHistogram histogram = (latency == null) ? null : latency.histogram(phase);
+        if (histogram == null || percentile < 0 || percentile > 100) {
+            return 0;
+        }
+        return histogram.snapshot().valueAt(percentile) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public void reset() {
+        byCommand.clear();
+    }
+
+    private static String phaseName(Phase phase) {
+        return phase.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String formatPercentiles(LatencyHistogram.Snapshot snapshot) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(String.format(Locale.ROOT, "%s %.3f ms", PERCENTILE_LABELS[i],
+                    snapshot.valueAt(PERCENTILES[i]) / NANOS_PER_MILLI));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Histograms of one command word.
+     */
+    private static final class CommandLatency {
+        private final LatencyHistogram total = new LatencyHistogram();
+        private final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+
+        private CommandLatency() {
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new LatencyHistogram();
+            }
+        }
+
+        private LatencyHistogram histogram(String phase) {
+            if (TOTAL.equalsIgnoreCase(phase)) {
+                return total;
+            }
+            for (Phase candidate : PHASES) {
+                if (phaseName(candidate).equalsIgnoreCase(phase)) {
+                    return phases[candidate.ordinal()];
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package orion;
+
+/**
+ * Management interface of {@link CommandStats}, registered with the platform MBean server as
+ * {@value CommandStats#OBJECT_NAME} so that command latency can be read with JConsole or any JMX client.
+ */
+public interface CommandStatsMBean {
+    /**
+     * Returns the command words that have run, in alphabetical order; unknown words are counted as
+     * {@code unknown}.
+     *
+     * @return Command words.
+     */
+    String[] getCommands();
+
+    /**
+     * Returns the report the {@code stats} command shows, one line per command word and phase.
+     *
+     * @return Multi-line report.
+     */
+    String getSummary();
+
+    /**
+     * Returns how many times {@code command} has run.
+     *
+     * @param command Command word.
+     * @return Run count, 0 for a word that has not run.
+     */
+    long count(String command);
+
+    /**
+     * Returns a latency percentile of {@code command} in milliseconds.
+     *
+     * @param command Command word.
+     * @param phase {@code total}, {@code parse}, {@code execute}, {@code persist} or {@code render}.
+     * @param percentile Percentile between 0 and 100, e.g. {@code 99.9}.
+     * @return Latency in milliseconds, 0 if the command has not run or the phase is unknown.
+     */
+    double percentileMillis(String command, String phase, double percentile);
+
+    /**
+     * Forgets every latency recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,52 @@
+package orion;
+
+import java.util.Arrays;
+
+/**
+ * Times the phases of one command at a time for {@link CommandStats}. Each {@link #lap(CommandStats.Phase)}
+ * charges the time since the previous lap to a phase, so the phases of a command add up to its total.
+ * Not thread-safe; every {@link Orion} has its own timer and runs one command at a time.
+ */
+final class CommandTimer {
+    private final CommandStats stats;
+    private final long[] phaseNanos = new long[CommandStats.PHASES.length];
+    private long startNanos;
+    private long lapNanos;
+    private int phasesRun;
+
+    CommandTimer(CommandStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Starts timing a command.
+     */
+    void start() {
+        startNanos = System.nanoTime();
+        lapNanos = startNanos;
+        phasesRun = 0;
+        Arrays.fill(phaseNanos, 0);
+    }
+
+    /**
+     * Charges the time since the previous lap, or since {@link #start()}, to {@code phase}.
+     *
+     * @param phase Phase that just ended.
+     */
+    void lap(CommandStats.Phase phase) {
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += now - lapNanos;
+        phasesRun |= 1 << phase.ordinal();
+        lapNanos = now;
+    }
+
+    /**
+     * Charges the time since the previous lap to {@link CommandStats.Phase#RENDER} and records the command.
+     *
+     * @param command Command word to record the command under.
+     */
+    void finish(String command) {
+        lap(CommandStats.Phase.RENDER);
+        stats.record(command, lapNanos - startNanos, phaseNanos, phasesRun);
+    }
+}
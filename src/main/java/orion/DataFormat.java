@@ -0,0 +1,115 @@
+package orion;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * On-disk formats for the task data file.
+ */
+enum DataFormat {
+    /** Pipe-delimited text, one task per line (see {@link Task#toDataString()}). */
+    TEXT {
+        @Override
+        long read(Path path, List<Task> tasks) throws IOException, OrionException {
+            return MappedTaskReader.read(path, tasks);
+        }
+
+        @Override
+        long read(Path path, List<Task> tasks, int threads) throws IOException, OrionException {
+            return MappedTaskReader.read(path, tasks, threads);
+        }
+
+        @Override
+        void write(Path path, List<Task> tasks, long seq) throws IOException {
+            List<String> serializedLines = new ArrayList<>(tasks.size() + 1);
+            if (seq > 0) {
+                serializedLines.add(Storage.SNAPSHOT_SEQ_PREFIX + seq);
+            }
+            for (Task task : tasks) {
+                serializedLines.add(task.toDataString());
+            }
+
+            Files.write(path, serializedLines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+    },
+
+    /** Compact binary records (see {@link BinaryTaskCodec}). */
+    BINARY {
+        @Override
+        long read(Path path, List<Task> tasks) throws IOException, OrionException {
+            return BinaryTaskCodec.read(path, tasks);
+        }
+
+        @Override
+        void write(Path path, List<Task> tasks, long seq) throws IOException {
+            BinaryTaskCodec.write(path, tasks, seq);
+        }
+    };
+
+    private static final String BINARY_EXTENSION = ".bin";
+
+    /**
+     * Reads all tasks in the file at {@code path} into {@code tasks}.
+     *
+     * @param path File to read.
+     * @param tasks List to append the loaded tasks to.
+     * @return Journal sequence number the file was written at, or 0 if none was recorded.
+     * @throws IOException If the file cannot be read.
+     * @throws OrionException If the file is corrupted.
+     */
+    abstract long read(Path path, List<Task> tasks) throws IOException, OrionException;
+
+    /**
+     * Reads all tasks in the file at {@code path} into {@code tasks}, parsing with up to {@code threads} threads
+     * where the format supports it. The tasks are appended in file order either way.
+     *
+     * @param path File to read.
+     * @param tasks List to append the loaded tasks to.
+     * @param threads Number of parsing threads.
+     * @return Journal sequence number the file was written at, or 0 if none was recorded.
+     * @throws IOException If the file cannot be read.
+     * @throws OrionException If the file is corrupted.
+     */
+    long read(Path path, List<Task> tasks, int threads) throws IOException, OrionException {
+        return read(path, tasks);
+    }
+
+    /**
+     * Writes {@code tasks} to {@code path}, replacing any existing file.
+     *
+     * @param path File to write.
+     * @param tasks Tasks to write.
+     * @param seq Journal sequence number the tasks reflect, or 0 outside journaled mode.
+     * @throws IOException If the file cannot be written.
+     */
+    abstract void write(Path path, List<Task> tasks, long seq) throws IOException;
+
+    /**
+     * Returns the format named by {@code name} ({@code text} or {@code binary}), or, if {@code name} is null,
+     * the format implied by the file extension of {@code path} ({@code .bin} is binary).
+     *
+     * @param path Data file path.
+     * @param name Format name, usually from {@code -Dorion.dataFormat}; may be null.
+     * @return Chosen format.
+     * @throws IllegalArgumentException If {@code name} is not a known format.
+     */
+    static DataFormat choose(Path path, String name) {
+        if (name != null) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown data format '" + name + "' (expected text or binary)");
+            }
+        }
+        Path fileName = path.getFileName();
+        boolean isBinary = fileName != null && fileName.toString().endsWith(BINARY_EXTENSION);
+        return isBinary ? BINARY : TEXT;
+    }
+}
@@ -0,0 +1,104 @@
+package orion;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Shares {@link LocalDate} and {@link LocalTime} instances between tasks.
+ * Most tasks use a few hundred distinct dates and whole-minute times, so instead of every task holding its own
+ * copies, equal values are replaced by one shared instance. Dates go into a fixed-size table indexed by day,
+ * which holds about eleven years without collisions; a colliding date simply replaces the older one. Times on a
+ * whole minute get one slot each. Other values are returned unchanged.
+ * <p>
+ * The tables are read and written without locking: both types are immutable, so a thread that misses another
+ * thread's write just creates an equal instance.
+ */
+final class DateTimeCache {
+    private static final int DATE_SLOTS = 1 << 12;
+    private static final int DAYS_PER_MONTH_SLOTS = 31;
+    private static final int DAYS_PER_YEAR_SLOTS = 12 * DAYS_PER_MONTH_SLOTS;
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final int MINUTES_PER_DAY = 24 * MINUTES_PER_HOUR;
+
+    private static final LocalDate[] DATES = new LocalDate[DATE_SLOTS];
+    private static final LocalTime[] TIMES = new LocalTime[MINUTES_PER_DAY];
+
+    private DateTimeCache() {
+        // Utility class, no instances.
+    }
+
+    /**
+     * Returns the shared instance equal to {@code date}, caching {@code date} if there is none.
+     *
+     * @param date Date to share, or {@code null}.
+     * @return Equal date, or {@code null} if {@code date} is {@code null}.
+     */
+    static LocalDate share(LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        int slot = dateSlot(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+        LocalDate cached = DATES[slot];
+        if (date.equals(cached)) {
+            return cached;
+        }
+        DATES[slot] = date;
+        return date;
+    }
+
+    /**
+     * Returns the shared date with the given fields, without allocating when it is already cached.
+     *
+     * @throws java.time.DateTimeException If the fields are not a valid date.
+     */
+    static LocalDate date(int year, int month, int dayOfMonth) {
+        LocalDate cached = DATES[dateSlot(year, month, dayOfMonth)];
+        if (cached != null && cached.getDayOfMonth() == dayOfMonth && cached.getMonthValue() == month
+                && cached.getYear() == year) {
+            return cached;
+        }
+        return share(LocalDate.of(year, month, dayOfMonth));
+    }
+
+    /**
+     * Returns the shared instance equal to {@code time}, caching {@code time} if there is none.
+     *
+     * @param time Time to share, or {@code null}.
+     * @return Equal time, or {@code null} if {@code time} is {@code null}.
+     */
+    static LocalTime share(LocalTime time) {
+        if (time == null || time.getSecond() != 0 || time.getNano() != 0) {
+            return time;
+        }
+        int slot = time.getHour() * MINUTES_PER_HOUR + time.getMinute();
+        LocalTime cached = TIMES[slot];
+        if (cached != null) {
+            return cached;
+        }
+        TIMES[slot] = time;
+        return time;
+    }
+
+    /**
+     * Returns the shared time with the given fields, without allocating when it is already cached.
+     *
+     * @throws java.time.DateTimeException If the fields are not a valid time.
+     */
+    static LocalTime time(int hour, int minute) {
+        if (hour >= 0 && hour < 24 && minute >= 0 && minute < MINUTES_PER_HOUR) {
+            LocalTime cached = TIMES[hour * MINUTES_PER_HOUR + minute];
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return share(LocalTime.of(hour, minute));
+    }
+
+    /**
+     * Returns the table slot of the given date: consecutive days mostly get consecutive slots, since every month
+     * is given 31 of them.
+     */
+    private static int dateSlot(int year, int month, int dayOfMonth) {
+        return (year * DAYS_PER_YEAR_SLOTS + month * DAYS_PER_MONTH_SLOTS + dayOfMonth) & (DATE_SLOTS - 1);
+    }
+}
@@ -46,4 +46,16 @@ public final class DateTimeUtil {
     static String formatTimeForStorage(LocalTime time) {
         return (time == null) ? NO_TIME_TOKEN : time.format(TIME_FORMAT);
     }
+
+    /**
+     * Returns true if {@code date} is in the range tasks may use: days whose epoch day fits in an {@code int}, as
+     * the binary data file and the columnar task store keep them.
+     *
+     * @param date Non-null date to check.
+     * @return Whether tasks may use the date.
+     */
+    static boolean isSupported(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        return epochDay >= Integer.MIN_VALUE && epochDay <= Integer.MAX_VALUE;
+    }
 }
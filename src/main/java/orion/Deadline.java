@@ -24,8 +24,16 @@ public class Deadline extends Task {
     public Deadline(String description, LocalDate byDate, LocalTime byTime) {
         super(description);
         assert byDate != null : "Deadline byDate must not be null";
-        this.byDate = byDate;
-        this.byTime = byTime;
+        this.byDate = DateTimeCache.share(byDate);
+        this.byTime = DateTimeCache.share(byTime);
+    }
+
+    LocalDate getByDate() {
+        return byDate;
+    }
+
+    LocalTime getByTime() {
+        return byTime;
     }
 
     @Override
@@ -37,6 +45,11 @@ public class Deadline extends Task {
         return byDate.equals(d.byDate) && Objects.equals(byTime, d.byTime);
     }
 
+    @Override
+    public int sameTaskHashCode() {
+        return Objects.hash(super.sameTaskHashCode(), byDate, byTime);
+    }
+
     @Override
     public String toDataString() {
         return TYPE_CODE + " | " + getDoneFlag() + " | " + getDescription()
@@ -0,0 +1,81 @@
+package orion;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Hash index from a task's identifying fields (as compared by {@link Task#isSameTask(Task)}) to the ids
+ * of the tasks that share them. Only ids are stored; candidates are checked against the tasks themselves,
+ * looked up by id, so the index holds no task references.
+ * The index is immutable: updates return a new index sharing structure with this one.
+ */
+class DuplicateIndex {
+    private static final DuplicateIndex EMPTY = new DuplicateIndex(PersistentTreap.empty());
+
+    private final PersistentTreap<Void> idsByHash; // key: Task#sameTaskHashCode(), id: task id
+
+    private DuplicateIndex(PersistentTreap<Void> idsByHash) {
+        this.idsByHash = idsByHash;
+    }
+
+    /**
+     * Returns the empty index.
+     *
+     * @return Index without tasks.
+     */
+    static DuplicateIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns an index of {@code tasks}, where the task at position {@code i} has id {@code i}.
+     *
+     * @param tasks Tasks to index.
+     * @return New index.
+     */
+    static DuplicateIndex of(List<Task> tasks) {
+        int count = tasks.size();
+        long[] hashes = new long[count];
+        int[] ids = new int[count];
+        int i = 0;
+        for (Task task : tasks) {
+            hashes[i] = task.sameTaskHashCode();
+            ids[i] = i;
+            i++;
+        }
+        return new DuplicateIndex(PersistentTreap.of(hashes, ids, new Void[count], null, count));
+    }
+
+    /**
+     * Returns an index that also records {@code task} under {@code id}.
+     *
+     * @param id Stable task id.
+     * @param task Task to index.
+     * @return Updated index.
+     */
+    DuplicateIndex add(int id, Task task) {
+        return new DuplicateIndex(idsByHash.insert(task.sameTaskHashCode(), id, null, 0));
+    }
+
+    /**
+     * Returns an index without {@code task}, previously added under {@code id}.
+     *
+     * @param id Stable task id.
+     * @param task Task to remove.
+     * @return Updated index.
+     */
+    DuplicateIndex remove(int id, Task task) {
+        return new DuplicateIndex(idsByHash.remove(task.sameTaskHashCode(), id));
+    }
+
+    /**
+     * Returns the smallest id of a task that is the same task as {@code candidate}.
+     *
+     * @param candidate Task to look up.
+     * @param tasksById Returns the indexed task with a given id.
+     * @return Smallest matching id, or -1 if there is none.
+     */
+    int firstIdOf(Task candidate, IntFunction<Task> tasksById) {
+        return idsByHash.firstIdWithKey(candidate.sameTaskHashCode(), id -> candidate.isSameTask(tasksById.apply(id)));
+    }
+}
@@ -30,10 +30,26 @@ public class Event extends Task {
         super(description);
         assert fromDate != null : "Event fromDate must not be null";
         assert toDate != null : "Event toDate must not be null";
-        this.fromDate = fromDate;
-        this.fromTime = fromTime;
-        this.toDate = toDate;
-        this.toTime = toTime;
+        this.fromDate = DateTimeCache.share(fromDate);
+        this.fromTime = DateTimeCache.share(fromTime);
+        this.toDate = DateTimeCache.share(toDate);
+        this.toTime = DateTimeCache.share(toTime);
+    }
+
+    LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    LocalTime getFromTime() {
+        return fromTime;
+    }
+
+    LocalDate getToDate() {
+        return toDate;
+    }
+
+    LocalTime getToTime() {
+        return toTime;
     }
 
     @Override
@@ -48,6 +64,11 @@ public class Event extends Task {
                 && Objects.equals(toTime, e.toTime);
     }
 
+    @Override
+    public int sameTaskHashCode() {
+        return Objects.hash(super.sameTaskHashCode(), fromDate, fromTime, toDate, toTime);
+    }
+
     @Override
     public String toDataString() {
         return TYPE_CODE + " | " + getDoneFlag() + " | " + getDescription()
@@ -0,0 +1,304 @@
+package orion;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Append-only log of task list mutations, kept next to the data file.
+ * Each record is one line: {@code <seq> <KIND> <payload>}, where the payload is the task's data string for
+ * {@code ADD}, the 0-based index and the task's data string, separated by a space, for {@code INSERT}, and
+ * otherwise the 0-based indexes of the tasks changed: a single index, or for changes to several tasks a
+ * comma-separated list of indexes and inclusive ranges such as {@code 3,7,12-40}.
+ * Records are replayed in order on top of the last snapshot.
+ */
+class Journal {
+    private static final String ACTIVE_SUFFIX = ".journal";
+    private static final String ROTATED_SUFFIX = ".journal.old";
+    private static final char RECORD_SEPARATOR = ' ';
+    private static final char INDEX_SEPARATOR = ',';
+    private static final char RANGE_SEPARATOR = '-';
+    private static final byte NEWLINE = '\n';
+
+    private final Path activePath;
+    private final Path rotatedPath;
+
+    private OutputStream out; // opened lazily on first append
+    private long sizeBytes;
+
+    /**
+     * Constructs a {@code Journal} for the given data file.
+     *
+     * @param dataPath Path of the snapshot file the journal belongs to.
+     */
+    Journal(Path dataPath) {
+        assert dataPath != null : "Journal data path must not be null";
+        this.activePath = dataPath.resolveSibling(dataPath.getFileName() + ACTIVE_SUFFIX);
+        this.rotatedPath = dataPath.resolveSibling(dataPath.getFileName() + ROTATED_SUFFIX);
+    }
+
+    /**
+     * Replays the rotated journal (if any) and then the active journal onto {@code tasks}.
+     * Records with a sequence number not greater than {@code afterSeq} are already part of the snapshot
+     * and are skipped. An incomplete last record (left by a crash mid-append) is discarded.
+     *
+     * @param tasks Tasks loaded from the snapshot; modified in place.
+     * @param afterSeq Sequence number the snapshot was taken at.
+     * @return Highest sequence number seen, or {@code afterSeq} if there were no newer records.
+     * @throws IOException If a journal file cannot be read.
+     * @throws OrionException If a record is corrupted.
+     */
+    long replay(List<Task> tasks, long afterSeq) throws IOException, OrionException {
+        long lastSeq = replayFile(rotatedPath, tasks, afterSeq, false);
+        lastSeq = replayFile(activePath, tasks, lastSeq, true);
+        sizeBytes = Files.exists(activePath) ? Files.size(activePath) : 0;
+        return lastSeq;
+    }
+
+    /**
+     * Appends records for {@code mutations} to the active journal in a single write.
+     *
+     * @param firstSeq Sequence number of the first record; the rest follow consecutively.
+     * @param mutations Changes to record, in order.
+     * @throws IOException If the records cannot be written.
+     */
+    void appendAll(long firstSeq, List<Mutation> mutations) throws IOException {
+        if (out == null) {
+            Path parent = activePath.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            out = Files.newOutputStream(activePath, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+
+        StringBuilder records = new StringBuilder();
+        long seq = firstSeq;
+        for (Mutation mutation : mutations) {
+            records.append(encode(seq++, mutation)).append((char) NEWLINE);
+        }
+        byte[] bytes = records.toString().getBytes(StandardCharsets.UTF_8);
+        out.write(bytes);
+        out.flush();
+        sizeBytes += bytes.length;
+    }
+
+    /**
+     * Returns the size of the active journal in bytes.
+     *
+     * @return Active journal size.
+     */
+    long sizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Moves the active journal aside so that new records start a fresh file.
+     * Does nothing if a rotated journal from an earlier, unfinished compaction is still present.
+     *
+     * @throws IOException If the journal cannot be moved.
+     */
+    void rotate() throws IOException {
+        close();
+        if (Files.exists(rotatedPath) || Files.notExists(activePath)) {
+            return;
+        }
+        Files.move(activePath, rotatedPath);
+        sizeBytes = 0;
+    }
+
+    /**
+     * Deletes the rotated journal once its records are covered by a snapshot.
+     *
+     * @throws IOException If the file cannot be deleted.
+     */
+    void deleteRotated() throws IOException {
+        Files.deleteIfExists(rotatedPath);
+    }
+
+    /**
+     * Deletes both journal files once all their records are covered by a snapshot.
+     *
+     * @throws IOException If a file cannot be deleted.
+     */
+    void clear() throws IOException {
+        close();
+        Files.deleteIfExists(rotatedPath);
+        Files.deleteIfExists(activePath);
+        sizeBytes = 0;
+    }
+
+    private void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private static String encode(long seq, Mutation mutation) {
+        String payload;
+        if (mutation.getKind() == Mutation.Kind.ADD) {
+            payload = mutation.getTask().toDataString();
+        } else if (mutation.getKind() == Mutation.Kind.INSERT) {
+            payload = mutation.getIndex() + String.valueOf(RECORD_SEPARATOR) + mutation.getTask().toDataString();
+        } else {
+            payload = encodeIndexes(mutation.getIndexes());
+        }
+        return seq + String.valueOf(RECORD_SEPARATOR) + mutation.getKind() + RECORD_SEPARATOR + payload;
+    }
+
+    private long replayFile(Path path, List<Task> tasks, long afterSeq, boolean isActive)
+            throws IOException, OrionException {
+        if (Files.notExists(path)) {
+            return afterSeq;
+        }
+
+        byte[] bytes = Files.readAllBytes(path);
+        int end = lastIndexOf(bytes, NEWLINE) + 1;
+        if (isActive && end < bytes.length) {
+            truncate(path, end);
+        }
+
+        long lastSeq = afterSeq;
+        int start = 0;
+        while (start < end) {
+            int lineEnd = indexOf(bytes, NEWLINE, start);
+            String line = new String(bytes, start, lineEnd - start, StandardCharsets.UTF_8);
+            start = lineEnd + 1;
+
+            if (line.isBlank()) {
+                continue;
+            }
+            lastSeq = replayRecord(line, tasks, lastSeq);
+        }
+        return lastSeq;
+    }
+
+    private static long replayRecord(String line, List<Task> tasks, long lastSeq) throws OrionException {
+        int firstSpace = line.indexOf(RECORD_SEPARATOR);
+        int secondSpace = (firstSpace < 0) ? -1 : line.indexOf(RECORD_SEPARATOR, firstSpace + 1);
+        if (secondSpace < 0) {
+            throw Storage.corrupted(line);
+        }
+
+        try {
+            long seq = Long.parseLong(line.substring(0, firstSpace));
+            if (seq <= lastSeq) {
+                return lastSeq; // already part of the snapshot
+            }
+
+            Mutation.Kind kind = Mutation.Kind.valueOf(line.substring(firstSpace + 1, secondSpace));
+            String payload = line.substring(secondSpace + 1);
+            Mutation mutation;
+            if (kind == Mutation.Kind.ADD) {
+                mutation = Mutation.added(Storage.parseLine(payload));
+            } else if (kind == Mutation.Kind.INSERT) {
+                mutation = decodeInsert(payload);
+            } else {
+                mutation = decodeIndexed(kind, decodeIndexes(payload));
+            }
+
+            if (!mutation.applyTo(tasks)) {
+                throw Storage.corrupted(line);
+            }
+            return seq;
+        } catch (IllegalArgumentException e) {
+            // Covers NumberFormatException and unknown record kinds.
+            throw Storage.corrupted(line);
+        }
+    }
+
+    private static Mutation decodeIndexed(Mutation.Kind kind, int[] indexes) {
+        if (kind == Mutation.Kind.DELETE) {
+            return Mutation.deletedAll(indexes);
+        }
+        return Mutation.markedAll(indexes, kind == Mutation.Kind.MARK);
+    }
+
+    private static Mutation decodeInsert(String payload) throws OrionException {
+        int separator = payload.indexOf(RECORD_SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("missing task");
+        }
+        int index = Integer.parseInt(payload.substring(0, separator));
+        if (index < 0) {
+            throw new IllegalArgumentException("negative index");
+        }
+        return Mutation.inserted(index, Storage.parseLine(payload.substring(separator + 1)));
+    }
+
+    /**
+     * Writes ascending indexes as a list in which runs of consecutive indexes become ranges.
+     */
+    private static String encodeIndexes(int[] indexes) {
+        StringBuilder payload = new StringBuilder();
+        int i = 0;
+        while (i < indexes.length) {
+            int runEnd = i;
+            while (runEnd + 1 < indexes.length && indexes[runEnd + 1] == indexes[runEnd] + 1) {
+                runEnd++;
+            }
+            if (i > 0) {
+                payload.append(INDEX_SEPARATOR);
+            }
+            payload.append(indexes[i]);
+            if (runEnd > i) {
+                payload.append(RANGE_SEPARATOR).append(indexes[runEnd]);
+            }
+            i = runEnd + 1;
+        }
+        return payload.toString();
+    }
+
+    /**
+     * Reads a list written by {@link #encodeIndexes(int[])}.
+     *
+     * @throws IllegalArgumentException If the list is malformed, negative, or not ascending.
+     */
+    private static int[] decodeIndexes(String payload) {
+        IntStream.Builder indexes = IntStream.builder();
+        int previous = -1;
+        for (String part : payload.split(String.valueOf(INDEX_SEPARATOR), -1)) {
+            int range = part.indexOf(RANGE_SEPARATOR, 1);
+            int from = Integer.parseInt((range < 0) ? part : part.substring(0, range));
+            int to = (range < 0) ? from : Integer.parseInt(part.substring(range + 1));
+            if (from <= previous || to < from) {
+                throw new IllegalArgumentException("indexes not ascending");
+            }
+            for (int index = from; index <= to; index++) {
+                indexes.add(index);
+            }
+            previous = to;
+        }
+        return indexes.build().toArray();
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte target, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] bytes, byte target) {
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            if (bytes[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,106 @@
+package orion;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations in nanoseconds, with buckets at most about 3% wide, in the style of HdrHistogram:
+ * durations below 64 ns get a bucket each, and every power-of-two range above that is split into 32 equal
+ * buckets. Recording is one atomic increment and allocates nothing, so it can run on every command from any
+ * thread; percentiles are read from a copy of the counts while recording goes on.
+ * Durations of {@value #MAX_EXPONENT} bits or more (over two minutes) are counted in the last bucket.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 37;
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Counts one duration.
+     *
+     * @param nanos Duration in nanoseconds; negative values count as 0.
+     */
+    void record(long nanos) {
+        counts.incrementAndGet(bucketOf(Math.min(Math.max(nanos, 0), MAX_VALUE)));
+    }
+
+    /**
+     * Returns a copy of the current counts.
+     *
+     * @return Snapshot to read percentiles from.
+     */
+    Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total);
+    }
+
+    /**
+     * Counts of a {@link LatencyHistogram} at one point in time.
+     */
+    static final class Snapshot {
+        private final long[] counts;
+        private final long total;
+
+        private Snapshot(long[] counts, long total) {
+            this.counts = counts;
+            this.total = total;
+        }
+
+        /**
+         * Returns the number of durations recorded.
+         *
+         * @return Count.
+         */
+        long count() {
+            return total;
+        }
+
+        /**
+         * Returns the duration that {@code percentile} percent of the recorded durations do not exceed, rounded up
+         * to the end of its bucket.
+         *
+         * @param percentile Percentile between 0 and 100, e.g. {@code 99.9}.
+         * @return Duration in nanoseconds, or 0 if nothing was recorded.
+         */
+        long valueAt(double percentile) {
+            assert percentile >= 0 && percentile <= 100 : "valueAt(): percentile must be within 0..100";
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += counts[bucket];
+                if (seen >= rank) {
+                    return highestValueOf(bucket);
+                }
+            }
+            return MAX_VALUE;
+        }
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,85 @@
+package orion;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Buffered line reader that splits lines exactly like {@link java.util.Scanner#nextLine()}:
+ * on {@code \r\n}, {@code \n}, {@code \r}, {@code \u2028}, {@code \u2029} and {@code \u0085}.
+ * Used by batch mode so scripts are read the same way as interactive input.
+ */
+class LineReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean isSkippingLf; // last line ended with '\r'; a following '\n' belongs to it
+
+    /**
+     * Constructs a {@code LineReader} over {@code in}.
+     *
+     * @param in Source of characters; read in large chunks.
+     */
+    LineReader(Reader in) {
+        assert in != null : "LineReader input must not be null";
+        this.in = in;
+    }
+
+    /**
+     * Returns the next line without its terminator.
+     *
+     * @return Next line, or {@code null} at end of input.
+     * @throws IOException If the input cannot be read.
+     */
+    String readLine() throws IOException {
+        StringBuilder partial = null; // only used for lines spanning buffer refills
+
+        while (true) {
+            if (position == limit && !fill()) {
+                return (partial == null) ? null : partial.toString();
+            }
+            if (isSkippingLf) {
+                isSkippingLf = false;
+                if (buffer[position] == '\n') {
+                    position++;
+                    continue;
+                }
+            }
+
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (isLineSeparator(c)) {
+                    String line = (partial == null)
+                            ? new String(buffer, start, position - start)
+                            : partial.append(buffer, start, position - start).toString();
+                    position++;
+                    isSkippingLf = (c == '\r');
+                    return line;
+                }
+                position++;
+            }
+
+            if (partial == null) {
+                partial = new StringBuilder();
+            }
+            partial.append(buffer, start, position - start);
+        }
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        while (read == 0) {
+            read = in.read(buffer, 0, buffer.length);
+        }
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    private static boolean isLineSeparator(char c) {
+        return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+    }
+}
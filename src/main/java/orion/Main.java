@@ -8,13 +8,16 @@ import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
 import orion.gui.MainWindow;
+import orion.gui.StartupMetrics;
 
 /**
  * A GUI for Orion using FXML.
+ * The window is shown before the task file is read; {@link MainWindow} loads it in the background.
  */
 public class Main extends Application {
 
-    private Orion orion = new Orion();
+    private final StartupMetrics startupMetrics = new StartupMetrics();
+    private MainWindow mainWindow;
 
     @Override
     public void start(Stage stage) {
@@ -23,10 +26,19 @@ public class Main extends Application {
             AnchorPane ap = fxmlLoader.load();
             Scene scene = new Scene(ap);
             stage.setScene(scene);
-            fxmlLoader.<MainWindow>getController().setOrion(orion);  // inject the Orion instance
+            mainWindow = fxmlLoader.getController();
+            startupMetrics.watchFirstFrame(scene);
             stage.show();
+            mainWindow.load(new Storage(), startupMetrics);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        if (mainWindow != null) {
+            mainWindow.shutdown(); // finish queued commands before the JVM exits
+        }
+    }
 }
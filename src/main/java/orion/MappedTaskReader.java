@@ -0,0 +1,519 @@
+package orion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads the text data file in a single pass over a memory-mapped buffer.
+ * Fields are located by offset, so no regex runs and no per-line {@code String}/{@code String[]} is built;
+ * only descriptions are decoded. Accepts and rejects exactly the same input as {@link Storage#parseLine(String)},
+ * with the same error messages.
+ * <p>
+ * With more than one thread, each mapped window is split at line boundaries into chunks that are parsed in a
+ * fork-join pool and merged in file order. The error of the earliest failing chunk is the one thrown, so a
+ * corrupted file is reported at the same line as in a sequential read.
+ */
+final class MappedTaskReader {
+    private static final long MAX_WINDOW_BYTES = 1L << 30;
+    private static final int MAX_FIELDS = 7;
+
+    private static final byte SEPARATOR = '|';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte COMMENT = '#';
+    private static final byte NO_TIME_MARKER = '-';
+
+    private static final int MIN_CHUNK_BYTES = 1 << 16;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final String ERROR_LINE_TOO_LONG = "line longer than " + MAX_WINDOW_BYTES + " bytes";
+
+    private final List<Task> tasks;
+    private final int[] fieldStarts = new int[MAX_FIELDS];
+    private final int[] fieldEnds = new int[MAX_FIELDS];
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private byte[] scratch = new byte[256];
+
+    private ByteBuffer buffer;
+    private long seq;
+    private boolean hasSeq; // true once a snapshot header has been read
+    private Exception failure; // first error of a chunk read in parallel, rethrown when merging
+
+    private MappedTaskReader(List<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * Reads all tasks in the data file at {@code path} into {@code tasks} on the calling thread.
+     *
+     * @param path Data file to read.
+     * @param tasks List to append the loaded tasks to.
+     * @return Sequence number recorded in the snapshot header, or 0 if there is none.
+     * @throws IOException If the file cannot be read.
+     * @throws OrionException If a line is corrupted.
+     */
+    static long read(Path path, List<Task> tasks) throws IOException, OrionException {
+        return read(path, tasks, 1);
+    }
+
+    /**
+     * Reads all tasks in the data file at {@code path} into {@code tasks}, parsing with up to {@code threads}
+     * threads. The tasks are appended in file order whatever the thread count.
+     *
+     * @param path Data file to read.
+     * @param tasks List to append the loaded tasks to.
+     * @param threads Number of parsing threads; 1 or less reads on the calling thread.
+     * @return Sequence number recorded in the snapshot header, or 0 if there is none.
+     * @throws IOException If the file cannot be read.
+     * @throws OrionException If a line is corrupted.
+     */
+    static long read(Path path, List<Task> tasks, int threads) throws IOException, OrionException {
+        assert tasks != null : "read(): tasks must not be null";
+
+        MappedTaskReader reader = new MappedTaskReader(tasks);
+        ForkJoinPool pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+
+            while (position < size) {
+                long length = Math.min(size - position, MAX_WINDOW_BYTES);
+                boolean isLastWindow = position + length == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                int consumed = (pool == null)
+                        ? reader.readLines(window, isLastWindow)
+                        : reader.readLinesInParallel(window, isLastWindow, pool, threads);
+                if (consumed == 0 && !isLastWindow) {
+                    throw new IOException(ERROR_LINE_TOO_LONG);
+                }
+                position += consumed;
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        return reader.seq;
+    }
+
+    /**
+     * Parses every complete line in {@code window} in chunks on {@code pool}, then appends the chunks' tasks
+     * in order.
+     *
+     * @return Number of bytes consumed, as for {@link #readLines(ByteBuffer, boolean)}.
+     */
+    private int readLinesInParallel(ByteBuffer window, boolean isLastWindow, ForkJoinPool pool, int threads)
+            throws IOException, OrionException {
+        int end = isLastWindow ? window.limit() : lastLineEnd(window);
+        if (end == 0) {
+            return 0;
+        }
+
+        int[] bounds = chunkBounds(window, end, threads * CHUNKS_PER_THREAD);
+        MappedTaskReader[] chunks = new MappedTaskReader[bounds.length - 1];
+        pool.invoke(new ChunkTask(window, bounds, chunks, 0, chunks.length));
+
+        for (MappedTaskReader chunk : chunks) {
+            if (chunk.failure instanceof OrionException) {
+                throw (OrionException) chunk.failure;
+            } else if (chunk.failure instanceof IOException) {
+                throw (IOException) chunk.failure;
+            } else if (chunk.failure != null) {
+                throw (RuntimeException) chunk.failure;
+            }
+            for (Task task : chunk.tasks) {
+                tasks.add(task); // one at a time, so a list that reports progress sees every task
+            }
+            if (chunk.hasSeq) {
+                seq = chunk.seq;
+                hasSeq = true;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns the offset just past the last line that is known to be complete in a window that is not the last,
+     * or 0 if there is none. A CR in the final byte may be the first half of a CRLF, so it does not end a line.
+     */
+    private static int lastLineEnd(ByteBuffer window) {
+        int limit = window.limit();
+        for (int i = limit - 1; i >= 0; i--) {
+            byte b = window.get(i);
+            if (b == LF || (b == CR && i + 1 < limit)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Splits {@code [0, end)} into at most {@code maxChunks} chunks of at least {@link #MIN_CHUNK_BYTES} bytes,
+     * each starting at the beginning of a line. {@code end} must itself be a line boundary.
+     *
+     * @return Chunk boundaries: chunk {@code i} spans {@code [bounds[i], bounds[i + 1])}.
+     */
+    private static int[] chunkBounds(ByteBuffer window, int end, int maxChunks) {
+        int chunkCount = Math.max(1, Math.min(maxChunks, end / MIN_CHUNK_BYTES));
+        int[] bounds = new int[chunkCount + 1];
+        int count = 1;
+        for (int i = 1; i < chunkCount; i++) {
+            int boundary = nextLineStart(window, Math.max((int) ((long) end * i / chunkCount), bounds[count - 1]),
+                    end);
+            if (boundary > bounds[count - 1] && boundary < end) {
+                bounds[count++] = boundary;
+            }
+        }
+        bounds[count++] = end;
+        return (count == bounds.length) ? bounds : Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Returns the start of the first line that begins at or after {@code from}, or {@code end} if there is none.
+     */
+    private static int nextLineStart(ByteBuffer window, int from, int end) {
+        for (int i = from; i < end; i++) {
+            byte b = window.get(i);
+            if (b == LF) {
+                return i + 1;
+            }
+            if (b == CR) {
+                return (i + 1 < end && window.get(i + 1) == LF) ? i + 2 : i + 1;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Parses the chunks {@code [from, to)} of a window, splitting the range in halves until one chunk is left.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer window;
+        private final int[] bounds;
+        private final MappedTaskReader[] chunks;
+        private final int from;
+        private final int to;
+
+        ChunkTask(ByteBuffer window, int[] bounds, MappedTaskReader[] chunks, int from, int to) {
+            this.window = window;
+            this.bounds = bounds;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChunkTask(window, bounds, chunks, from, mid),
+                        new ChunkTask(window, bounds, chunks, mid, to));
+                return;
+            }
+
+            MappedTaskReader chunk = new MappedTaskReader(new ArrayList<>());
+            try {
+                chunk.readLines(window.slice(bounds[from], bounds[from + 1] - bounds[from]), true);
+            } catch (IOException | OrionException | RuntimeException e) {
+                chunk.failure = e; // rethrown only if no earlier chunk failed
+            }
+            chunks[from] = chunk;
+        }
+    }
+
+    /**
+     * Parses every complete line in {@code window}.
+     *
+     * @return Number of bytes consumed; an unterminated line is only consumed in the last window.
+     */
+    private int readLines(ByteBuffer window, boolean isLastWindow) throws IOException, OrionException {
+        buffer = window;
+        int limit = window.limit();
+        int lineStart = 0;
+
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != LF && buffer.get(lineEnd) != CR) {
+                lineEnd++;
+            }
+
+            int next;
+            if (lineEnd == limit) {
+                if (!isLastWindow) {
+                    return lineStart;
+                }
+                next = limit;
+            } else if (buffer.get(lineEnd) == CR) {
+                if (lineEnd + 1 == limit && !isLastWindow) {
+                    return lineStart; // cannot tell yet whether this is a CRLF
+                }
+                next = (lineEnd + 1 < limit && buffer.get(lineEnd + 1) == LF) ? lineEnd + 2 : lineEnd + 1;
+            } else {
+                next = lineEnd + 1;
+            }
+
+            readLine(lineStart, lineEnd);
+            lineStart = next;
+        }
+        return limit;
+    }
+
+    private void readLine(int start, int end) throws IOException, OrionException {
+        if (trimStart(start, end) == end) {
+            return; // blank line
+        }
+        if (buffer.get(start) == COMMENT) {
+            String comment = decode(start, end);
+            seq = Storage.parseSnapshotSeq(comment, seq);
+            hasSeq |= comment.startsWith(Storage.SNAPSHOT_SEQ_PREFIX);
+            return;
+        }
+        tasks.add(parseTask(start, end));
+    }
+
+    // ---------------- Record parsing (mirrors Storage.parseLine) ----------------
+
+    private Task parseTask(int start, int end) throws IOException, OrionException {
+        int fieldCount = tokenize(start, end);
+
+        // Common minimum: TYPE | DONE | DESC
+        requireMinFields(fieldCount, 3, start, end);
+
+        boolean isDone = parseDoneFlag(start, end);
+        byte type = singleByteField(0);
+
+        Task task;
+        if (type == 'T') {
+            task = parseTodo();
+        } else if (type == 'D') {
+            task = parseDeadline(fieldCount, start, end);
+        } else if (type == 'E') {
+            task = parseEvent(fieldCount, start, end);
+        } else {
+            throw corrupted(start, end);
+        }
+
+        if (isDone) {
+            task.markDone();
+        }
+        return task;
+    }
+
+    private Task parseTodo() throws IOException, OrionException {
+        String description = trimmedString(2);
+        if (description.isEmpty()) {
+            throw Storage.corrupted("T | ... (empty description)");
+        }
+        return new Todo(description);
+    }
+
+    private Task parseDeadline(int fieldCount, int start, int end) throws IOException, OrionException {
+        // Expected: D | done | desc | date | timeOrDash
+        requireMinFields(fieldCount, 5, start, end);
+
+        String description = trimmedString(2);
+        LocalDate byDate = parseDate(3, start, end);
+        LocalTime byTime = parseTimeOrNull(4, start, end);
+        return new Deadline(description, byDate, byTime);
+    }
+
+    private Task parseEvent(int fieldCount, int start, int end) throws IOException, OrionException {
+        // Expected: E | done | desc | fromDate | fromTimeOrDash | toDate | toTimeOrDash
+        requireMinFields(fieldCount, 7, start, end);
+
+        String description = trimmedString(2);
+        LocalDate fromDate = parseDate(3, start, end);
+        LocalTime fromTime = parseTimeOrNull(4, start, end);
+        LocalDate toDate = parseDate(5, start, end);
+        LocalTime toTime = parseTimeOrNull(6, start, end);
+        return new Event(description, fromDate, fromTime, toDate, toTime);
+    }
+
+    /**
+     * Locates the fields of a line the way {@code line.split("\\s*\\|\\s*")} would: whitespace next to a
+     * separator belongs to the separator, and trailing empty fields are not counted.
+     *
+     * @return Number of fields the equivalent {@code split} call would return.
+     */
+    private int tokenize(int start, int end) {
+        int count = 0;
+        int lastNonEmpty = -1;
+        int fieldStart = start;
+
+        while (true) {
+            int separator = fieldStart;
+            while (separator < end && buffer.get(separator) != SEPARATOR) {
+                separator++;
+            }
+
+            int fieldEnd = separator;
+            if (separator < end) {
+                while (fieldEnd > fieldStart && isRegexWhitespace(buffer.get(fieldEnd - 1))) {
+                    fieldEnd--;
+                }
+            }
+            if (count < MAX_FIELDS) {
+                fieldStarts[count] = fieldStart;
+                fieldEnds[count] = fieldEnd;
+            }
+            if (fieldEnd > fieldStart) {
+                lastNonEmpty = count;
+            }
+            count++;
+
+            if (separator == end) {
+                return lastNonEmpty + 1;
+            }
+            fieldStart = separator + 1;
+            while (fieldStart < end && isRegexWhitespace(buffer.get(fieldStart))) {
+                fieldStart++;
+            }
+        }
+    }
+
+    private boolean parseDoneFlag(int start, int end) throws IOException, OrionException {
+        byte flag = singleByteField(1);
+        if (flag == '0') {
+            return false;
+        }
+        if (flag == '1') {
+            return true;
+        }
+        throw Storage.invalidDoneFlag(decode(start, end));
+    }
+
+    private LocalDate parseDate(int field, int start, int end) throws IOException, OrionException {
+        int from = trimStart(fieldStarts[field], fieldEnds[field]);
+        int to = trimEnd(from, fieldEnds[field]);
+
+        try {
+            if (to - from == 10 && isDigits(from, 4) && buffer.get(from + 4) == '-'
+                    && isDigits(from + 5, 2) && buffer.get(from + 7) == '-' && isDigits(from + 8, 2)) {
+                return DateTimeCache.date(digits(from, 4), digits(from + 5, 2), digits(from + 8, 2));
+            }
+            // Rare shapes (e.g. signed or 5+ digit years) go through the regular parser.
+            return LocalDate.parse(decode(from, to));
+        } catch (DateTimeException e) {
+            // Also covers DateTimeParseException from the fallback path.
+            throw corrupted(start, end);
+        }
+    }
+
+    private LocalTime parseTimeOrNull(int field, int start, int end) throws IOException, OrionException {
+        int from = trimStart(fieldStarts[field], fieldEnds[field]);
+        int to = trimEnd(from, fieldEnds[field]);
+
+        if (to - from == 1 && buffer.get(from) == NO_TIME_MARKER) {
+            return null;
+        }
+        try {
+            if (to - from == 5 && isDigits(from, 2) && buffer.get(from + 2) == ':' && isDigits(from + 3, 2)) {
+                return DateTimeCache.time(digits(from, 2), digits(from + 3, 2));
+            }
+            return LocalTime.parse(decode(from, to));
+        } catch (DateTimeException e) {
+            throw corrupted(start, end);
+        }
+    }
+
+    private void requireMinFields(int fieldCount, int min, int start, int end) throws IOException, OrionException {
+        if (fieldCount < min) {
+            throw corrupted(start, end);
+        }
+    }
+
+    private OrionException corrupted(int start, int end) throws IOException {
+        return Storage.corrupted(decode(start, end));
+    }
+
+    // ---------------- Byte helpers ----------------
+
+    /**
+     * Returns the only byte of the trimmed field, or 0 if the trimmed field is not exactly one byte long.
+     */
+    private byte singleByteField(int field) {
+        int from = trimStart(fieldStarts[field], fieldEnds[field]);
+        int to = trimEnd(from, fieldEnds[field]);
+        return (to - from == 1) ? buffer.get(from) : 0;
+    }
+
+    private String trimmedString(int field) throws IOException {
+        int from = trimStart(fieldStarts[field], fieldEnds[field]);
+        return decode(from, trimEnd(from, fieldEnds[field]));
+    }
+
+    private String decode(int from, int to) throws IOException {
+        int length = to - from;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(from, scratch, 0, length);
+
+        for (int i = 0; i < length; i++) {
+            if (scratch[i] < 0) {
+                // Non-ASCII: decode strictly so malformed input fails like Files.readAllLines does.
+                return decoder.decode(ByteBuffer.wrap(scratch, 0, length)).toString();
+            }
+        }
+        return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Skips characters that {@link String#trim()} removes (code points up to U+0020).
+     */
+    private int trimStart(int from, int to) {
+        while (from < to && (buffer.get(from) & 0xFF) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private int trimEnd(int from, int to) {
+        while (to > from && (buffer.get(to - 1) & 0xFF) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    private boolean isDigits(int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            value = value * 10 + (buffer.get(i) - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Returns {@code true} for the characters matched by the regex class {@code \s}.
+     */
+    private static boolean isRegexWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+}
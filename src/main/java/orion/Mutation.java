@@ -0,0 +1,206 @@
+package orion;
+
+import java.util.List;
+
+/**
+ * Represents a single change made to the task list, as recorded in the storage journal.
+ * Marks, unmarks and deletes may cover several tasks at once.
+ */
+public class Mutation {
+    /**
+     * Kinds of change that can be recorded.
+     */
+    public enum Kind {
+        ADD, MARK, UNMARK, DELETE, INSERT
+    }
+
+    private static final int[] NO_INDEXES = new int[0];
+
+    private final Kind kind;
+    private final int[] indexes; // 0-based, ascending and distinct; empty for ADD
+    private final Task task; // only for ADD and INSERT
+
+    private Mutation(Kind kind, int[] indexes, Task task) {
+        this.kind = kind;
+        this.indexes = indexes;
+        this.task = task;
+    }
+
+    /**
+     * Returns a mutation that appends the given task to the end of the list.
+     *
+     * @param task Added task.
+     * @return Add mutation.
+     */
+    public static Mutation added(Task task) {
+        assert task != null : "added(): task must not be null";
+        return new Mutation(Kind.ADD, NO_INDEXES, task);
+    }
+
+    /**
+     * Returns a mutation that inserts the given task at the given index, as when a deletion is undone.
+     *
+     * @param index 0-based position the task will have, at most the current list size.
+     * @param task Inserted task.
+     * @return Insert mutation.
+     */
+    public static Mutation inserted(int index, Task task) {
+        assert index >= 0 : "inserted(): index must be >= 0";
+        assert task != null : "inserted(): task must not be null";
+        return new Mutation(Kind.INSERT, new int[] {index}, task);
+    }
+
+    /**
+     * Returns a mutation that sets the completion status of the task at the given index.
+     *
+     * @param index 0-based task index.
+     * @param isDone New completion status.
+     * @return Mark or unmark mutation.
+     */
+    public static Mutation marked(int index, boolean isDone) {
+        assert index >= 0 : "marked(): index must be >= 0";
+        return new Mutation(isDone ? Kind.MARK : Kind.UNMARK, new int[] {index}, null);
+    }
+
+    /**
+     * Returns a mutation that removes the task at the given index.
+     *
+     * @param index 0-based task index.
+     * @return Delete mutation.
+     */
+    public static Mutation deleted(int index) {
+        assert index >= 0 : "deleted(): index must be >= 0";
+        return new Mutation(Kind.DELETE, new int[] {index}, null);
+    }
+
+    /**
+     * Returns a mutation that sets the completion status of the tasks at the given indexes.
+     *
+     * @param indexes 0-based task indexes, ascending and distinct; not modified or retained.
+     * @param isDone New completion status.
+     * @return Mark or unmark mutation.
+     */
+    public static Mutation markedAll(int[] indexes, boolean isDone) {
+        assert isValidSelection(indexes) : "markedAll(): indexes must be ascending, distinct and >= 0";
+        return new Mutation(isDone ? Kind.MARK : Kind.UNMARK, indexes.clone(), null);
+    }
+
+    /**
+     * Returns a mutation that removes the tasks at the given indexes, all positions referring to the list
+     * before the change.
+     *
+     * @param indexes 0-based task indexes, ascending and distinct; not modified or retained.
+     * @return Delete mutation.
+     */
+    public static Mutation deletedAll(int[] indexes) {
+        assert isValidSelection(indexes) : "deletedAll(): indexes must be ascending, distinct and >= 0";
+        return new Mutation(Kind.DELETE, indexes.clone(), null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns this mutation with its task replaced by {@code replacement}.
+     *
+     * @param replacement Task to add or insert instead.
+     * @return Mutation of the same kind and indexes.
+     */
+    Mutation withTask(Task replacement) {
+        assert task != null : "withTask(): only for ADD and INSERT";
+        return new Mutation(kind, indexes, replacement);
+    }
+
+    /**
+     * Returns the index of a single-task change, or the first index of one that covers several tasks.
+     *
+     * @return 0-based task index, or -1 for {@code ADD}.
+     */
+    public int getIndex() {
+        return (indexes.length == 0) ? -1 : indexes[0];
+    }
+
+    /**
+     * Returns the indexes of the tasks this change covers.
+     *
+     * @return 0-based task indexes, ascending; empty for {@code ADD}.
+     */
+    public int[] getIndexes() {
+        return indexes.clone();
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * Applies this mutation to the given list, as done when replaying the journal.
+     * Marked tasks are replaced by copies, never modified, so other lists holding the same tasks are unaffected.
+     *
+     * @param tasks List to modify.
+     * @return {@code false} if the recorded index does not exist in {@code tasks}.
+     */
+    boolean applyTo(List<Task> tasks) {
+        if (kind == Kind.ADD) {
+            tasks.add(task);
+            return true;
+        }
+        if (kind == Kind.INSERT) {
+            if (indexes[0] > tasks.size()) {
+                return false;
+            }
+            tasks.add(indexes[0], task);
+            return true;
+        }
+        if (indexes[indexes.length - 1] >= tasks.size()) {
+            return false;
+        }
+
+        switch (kind) {
+        case MARK:
+        case UNMARK:
+            for (int index : indexes) {
+                tasks.set(index, tasks.get(index).withDone(kind == Kind.MARK));
+            }
+            break;
+        default:
+            removeAll(tasks);
+            break;
+        }
+        return true;
+    }
+
+    /**
+     * Removes the tasks at {@link #indexes} from {@code tasks}, moving each remaining task at most once.
+     */
+    private void removeAll(List<Task> tasks) {
+        if (indexes.length == 1) {
+            tasks.remove(indexes[0]);
+            return;
+        }
+        int size = tasks.size();
+        int kept = indexes[0];
+        int next = 0;
+        for (int i = indexes[0]; i < size; i++) {
+            if (next < indexes.length && indexes[next] == i) {
+                next++;
+            } else {
+                tasks.set(kept++, tasks.get(i));
+            }
+        }
+        tasks.subList(kept, size).clear();
+    }
+
+    private static boolean isValidSelection(int[] indexes) {
+        if (indexes.length == 0 || indexes[0] < 0) {
+            return false;
+        }
+        for (int i = 1; i < indexes.length; i++) {
+            if (indexes[i - 1] >= indexes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,160 @@
+package orion;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * {@link TaskStore} that keeps the task objects in a {@link PersistentTreap} keyed by id.
+ */
+final class ObjectTaskStore implements TaskStore {
+    private static final int REBUILD_FRACTION = 16; // rebuild instead of removing one by one above 1/16 of the tasks
+
+    private static final ObjectTaskStore EMPTY = new ObjectTaskStore(PersistentTreap.empty());
+
+    private final PersistentTreap<Task> tasks; // key and id: task id
+
+    private ObjectTaskStore(PersistentTreap<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * Returns a store of {@code tasks}, where the task at position {@code i} has id {@code i}.
+     *
+     * @param tasks Tasks to store.
+     * @return New store.
+     */
+    static ObjectTaskStore of(List<Task> tasks) {
+        int count = tasks.size();
+        if (count == 0) {
+            return EMPTY;
+        }
+        long[] keys = new long[count];
+        int[] ids = new int[count];
+        for (int id = 0; id < count; id++) {
+            keys[id] = id;
+            ids[id] = id;
+        }
+        return new ObjectTaskStore(PersistentTreap.of(keys, ids, tasks.toArray(new Task[0]), null, count));
+    }
+
+    /**
+     * Returns a store of the tasks in {@code store}, under the same ids.
+     *
+     * @param store Store to copy.
+     * @return New store.
+     */
+    static ObjectTaskStore copyOf(TaskStore store) {
+        int count = store.size();
+        if (count == 0) {
+            return EMPTY;
+        }
+        long[] keys = new long[count];
+        int[] ids = new int[count];
+        Task[] values = new Task[count];
+        int[] position = {0};
+        store.forEach((id, task) -> {
+            keys[position[0]] = id;
+            ids[position[0]] = id;
+            values[position[0]++] = task;
+        });
+        return new ObjectTaskStore(PersistentTreap.of(keys, ids, values, null, count));
+    }
+
+    @Override
+    public int size() {
+        return tasks.size();
+    }
+
+    @Override
+    public Task get(int index) {
+        return tasks.valueAt(index);
+    }
+
+    @Override
+    public int idAt(int index) {
+        return tasks.idAt(index);
+    }
+
+    @Override
+    public int positionOf(int id) {
+        return tasks.positionOf(id, id);
+    }
+
+    @Override
+    public Task getById(int id) {
+        return tasks.get(id, id);
+    }
+
+    @Override
+    public TaskStore add(int id, Task task) {
+        return new ObjectTaskStore(tasks.insert(id, id, task, 0));
+    }
+
+    @Override
+    public TaskStore remove(int index) {
+        int id = tasks.idAt(index);
+        return new ObjectTaskStore(tasks.remove(id, id));
+    }
+
+    @Override
+    public TaskStore removeAll(int[] indexes) {
+        int count = tasks.size();
+        if ((long) indexes.length * REBUILD_FRACTION < count) {
+            PersistentTreap<Task> remaining = tasks;
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                int id = tasks.idAt(indexes[i]);
+                remaining = remaining.remove(id, id);
+            }
+            return new ObjectTaskStore(remaining);
+        }
+
+        // Many removals: rebuild the survivors in linear time, keeping their ids.
+        int kept = count - indexes.length;
+        long[] keys = new long[kept];
+        int[] ids = new int[kept];
+        Task[] values = new Task[kept];
+        int[] cursor = new int[3]; // position, next index to skip, survivors so far
+        forEach((id, task) -> {
+            int position = cursor[0]++;
+            if (cursor[1] < indexes.length && indexes[cursor[1]] == position) {
+                cursor[1]++;
+                return;
+            }
+            int k = cursor[2]++;
+            keys[k] = id;
+            ids[k] = id;
+            values[k] = task;
+        });
+        return (kept == 0) ? EMPTY : new ObjectTaskStore(PersistentTreap.of(keys, ids, values, null, kept));
+    }
+
+    @Override
+    public TaskStore replace(int index, Task task) {
+        int id = tasks.idAt(index);
+        return new ObjectTaskStore(tasks.replace(id, id, task));
+    }
+
+    @Override
+    public long updateBytes(int changedTasks) {
+        return PersistentTreap.updateBytes(tasks.size(), changedTasks);
+    }
+
+    @Override
+    public void forEach(Visitor visitor) {
+        tasks.forEachBetween(Long.MIN_VALUE, Long.MAX_VALUE, (key, id, task) -> visitor.visit(id, task));
+    }
+
+    @Override
+    public void forEachWithDescription(Predicate<String> test, Visitor visitor) {
+        forEach((id, task) -> {
+            if (test.test(task.getDescription())) {
+                visitor.visit(id, task);
+            }
+        });
+    }
+
+    @Override
+    public List<Task> values() {
+        return tasks.values();
+    }
+}
@@ -1,7 +1,25 @@
 package orion;
 
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
 
 /**
  * Core logic for the Orion application.
@@ -11,6 +29,13 @@ public class Orion {
     private static final String UNKNOWN_COMMAND_MESSAGE =
             "I don't know what that means. Try: todo, deadline, event, list, mark, unmark, delete, bye";
     private static final String EMPTY_COMMAND_MESSAGE = "Please enter a command.";
+    private static final String USAGE_MESSAGE = "Usage: orion.Orion [--batch [<scriptFile>|-]]";
+
+    private static final String BATCH_FLAG = "--batch";
+    private static final String STDIN_SCRIPT = "-";
+    private static final String BATCH_CHECKPOINT_PROPERTY = "orion.batchCheckpoint";
+    private static final int DEFAULT_BATCH_CHECKPOINT = 10_000;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
 
     // Command words
     private static final String CMD_BYE = "bye";
@@ -22,24 +47,69 @@ public class Orion {
     private static final String CMD_DEADLINE = "deadline";
     private static final String CMD_EVENT = "event";
     private static final String CMD_DELETE = "delete";
+    private static final String CMD_DUE = "due";
+    private static final String CMD_OVERDUE = "overdue";
+    private static final String CMD_AGENDA = "agenda";
+    private static final String CMD_UNDO = "undo";
+    private static final String CMD_REDO = "redo";
+    private static final String CMD_STATS = "stats";
+
+    // Words timed under their own name; anything else is timed as UNKNOWN_COMMAND so input cannot add histograms.
+    private static final Set<String> TIMED_COMMANDS = Set.of(CMD_BYE, CMD_LIST, CMD_MARK, CMD_UNMARK, CMD_FIND,
+            CMD_TODO, CMD_DEADLINE, CMD_EVENT, CMD_DELETE, CMD_DUE, CMD_OVERDUE, CMD_AGENDA, CMD_UNDO, CMD_REDO,
+            CMD_STATS);
+    private static final String UNKNOWN_COMMAND = "unknown";
 
     private final Storage storage;
+    private final AsyncStorageWriter storageWriter; // null unless saving asynchronously
+    private final Thread storageFlushHook; // null unless saving asynchronously
     private final TaskList tasks;
     private final Ui ui;
     private final Parser parser;
+    private final CommandStats stats;
+    private final CommandTimer timer;
 
     private boolean isExit;
+    private long errorCount;
+    private List<Mutation> deferredChanges; // non-null while a batch run defers saving
+    private int checkpointInterval;
+    private int checkpointCount;
+    private String lastSaveError;
 
     /**
      * Constructs an {@code Orion} application using the default storage path.
      * The storage path can be overridden via {@code -Dorion.dataFile=...}.
+     * With {@code -Dorion.asyncSave=true}, changes are saved on a background thread and flushed on
+     * {@code bye} and at JVM shutdown.
      */
     public Orion() {
-        this.storage = new Storage();
+        this(new Storage());
+    }
+
+    /**
+     * Constructs an {@code Orion} application over the given storage, e.g. one per user in server mode.
+     *
+     * @param storage Storage to load tasks from and save them to.
+     */
+    public Orion(Storage storage) {
+        assert storage != null : "Orion storage must not be null";
+        this.storage = storage;
         this.parser = new Parser();
         this.ui = new Ui();
+        this.stats = CommandStats.global();
+        this.timer = new CommandTimer(stats);
         this.tasks = loadTasks(storage);
         this.isExit = false;
+
+        if (AsyncStorageWriter.isEnabled()) {
+            this.storageWriter = new AsyncStorageWriter(storage, tasks.asUnmodifiableList(),
+                    AsyncStorageWriter.configuredDelayMillis());
+            this.storageFlushHook = new Thread(storageWriter::close, "orion-storage-flush");
+            Runtime.getRuntime().addShutdownHook(storageFlushHook);
+        } else {
+            this.storageWriter = null;
+            this.storageFlushHook = null;
+        }
     }
 
     /**
@@ -67,16 +137,85 @@ public class Orion {
      * @return Response string to display.
      */
     public String getResponse(String input) {
+        StringBuilder response = new StringBuilder();
+        try {
+            writeResponse(input, response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder does not throw
+        }
+        return response.toString();
+    }
+
+    /**
+     * Handles a single user input and writes Orion's response to {@code out}, the same text that
+     * {@link #getResponse(String)} returns. Task listings are written line by line rather than built in memory
+     * first, so printing a very long list needs no more memory than printing a short one.
+     * The time each command takes is recorded in {@link CommandStats}, split into parsing, executing,
+     * saving and writing the response, and reported to Java Flight Recorder as an
+     * {@link OrionEvents.CommandEvent} when a recording enables it.
+     *
+     * @param input User input string.
+     * @param out Destination for the response.
+     * @throws IOException If {@code out} cannot be written.
+     */
+    public void writeResponse(String input, Appendable out) throws IOException {
         String normalizedInput = normalizeInput(input);
         if (normalizedInput.isEmpty()) {
-            return ui.formatError(EMPTY_COMMAND_MESSAGE);
+            errorCount++;
+            out.append(ui.formatError(EMPTY_COMMAND_MESSAGE));
+            return;
         }
 
+        OrionEvents.CommandEvent event = new OrionEvents.CommandEvent();
+        event.begin();
+        timer.start();
+        String commandWord = UNKNOWN_COMMAND;
+        int argumentLength = 0;
+        boolean failed = false;
         try {
-            Parser.ParsedCommand command = parser.parse(normalizedInput);
-            return processCommand(command);
-        } catch (OrionException e) {
-            return ui.formatError(e.getMessage());
+            String response;
+            try {
+                Parser.ParsedCommand command = parser.parse(normalizedInput);
+                timer.lap(CommandStats.Phase.PARSE);
+                if (TIMED_COMMANDS.contains(command.getCommandWord())) {
+                    commandWord = command.getCommandWord();
+                }
+                argumentLength = command.getArguments().length();
+                if (CMD_LIST.equals(commandWord)) {
+                    writeList(command.getArguments(), out);
+                    return;
+                }
+                response = processCommand(command);
+            } catch (OrionException e) {
+                errorCount++;
+                failed = true;
+                response = ui.formatError(e.getMessage());
+            }
+            out.append(withSaveError(response));
+        } finally {
+            timer.finish(commandWord);
+            if (event.shouldCommit()) {
+                event.command = commandWord;
+                event.argumentLength = argumentLength;
+                event.outcome = failed ? "error" : "ok";
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Writes any changes still queued for saving and releases background resources.
+     * Only needed for instances that end before the JVM does, such as server sessions.
+     */
+    public void close() {
+        if (storageWriter == null) {
+            return;
+        }
+        storageWriter.close();
+        try {
+            Runtime.getRuntime().removeShutdownHook(storageFlushHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down; the hook closes the (already closed) writer again, which does nothing.
         }
     }
 
@@ -85,23 +224,99 @@ public class Orion {
      */
     public void run() {
         Scanner scanner = new Scanner(System.in);
-        System.out.print(getWelcomeMessage());
+        // Buffered, but still encoded by System.out, which knows the console's charset.
+        Writer output = new BufferedWriter(new PrintStreamWriter(System.out), OUTPUT_BUFFER_SIZE);
 
-        while (!isExit) {
-            String input = scanner.nextLine();
-            System.out.print(getResponse(input));
+        try {
+            output.write(getWelcomeMessage());
+            output.flush();
+            while (!isExit) {
+                String input = scanner.nextLine();
+                writeResponse(input, output);
+                output.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write output: " + e.getMessage());
         }
 
         scanner.close();
     }
 
+    /**
+     * Runs a script of commands, one per line, writing exactly what {@link #run()} prints for the same input.
+     * Instead of saving after every change, changes are saved together every {@code orion.batchCheckpoint}
+     * changes (default 10000) and at the end. A throughput and error summary is written to {@code summary}.
+     *
+     * @param input Script to run; read up to the end or up to {@code bye}.
+     * @param output Destination for the responses; flushed before returning.
+     * @param summary Destination for the summary and any save failures.
+     * @throws IOException If the script cannot be read or the output cannot be written.
+     */
+    public void runBatch(Reader input, Writer output, PrintStream summary) throws IOException {
+        LineReader lines = new LineReader(input);
+        long startNanos = System.nanoTime();
+        long errorsBefore = errorCount;
+        long commandCount = 0;
+
+        deferredChanges = new ArrayList<>();
+        checkpointInterval = Math.max(1, Integer.getInteger(BATCH_CHECKPOINT_PROPERTY, DEFAULT_BATCH_CHECKPOINT));
+        checkpointCount = 0;
+        lastSaveError = null;
+        try {
+            output.write(getWelcomeMessage());
+            String line;
+            while (!isExit && (line = lines.readLine()) != null) {
+                writeResponse(line, output);
+                commandCount++;
+            }
+        } finally {
+            saveDeferredChanges();
+            if (storageWriter != null) {
+                storageWriter.flush();
+            }
+            deferredChanges = null;
+            output.flush();
+        }
+
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        summary.printf("Batch: %d commands in %.3f s (%.0f commands/s), %d errors, %d saves%n",
+                commandCount, seconds, commandCount / Math.max(seconds, 1e-9), errorCount - errorsBefore,
+                checkpointCount);
+        if (lastSaveError != null) {
+            summary.println("Batch: saving failed: " + lastSaveError);
+        }
+    }
+
     /**
      * Program entry point (CLI).
+     * With no arguments, runs interactively. With {@code --batch [<scriptFile>|-]}, runs the script file
+     * (or standard input) through {@link #runBatch(Reader, Writer, PrintStream)}.
      *
-     * @param args Command-line arguments (not used).
+     * @param args Command-line arguments.
      */
     public static void main(String[] args) {
-        new Orion().run();
+        if (args.length == 0) {
+            new Orion().run();
+            return;
+        }
+        if (!BATCH_FLAG.equals(args[0]) || args.length > 2) {
+            System.err.println(USAGE_MESSAGE);
+            System.exit(2);
+        }
+
+        String script = (args.length == 2) ? args[1] : STDIN_SCRIPT;
+        // Same charset as Scanner(System.in) and System.out use when redirected.
+        Charset charset = Charset.defaultCharset();
+        try (Reader input = STDIN_SCRIPT.equals(script)
+                ? new InputStreamReader(System.in, charset)
+                : Files.newBufferedReader(Paths.get(script), charset)) {
+            Writer output = new BufferedWriter(
+                    new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), charset), OUTPUT_BUFFER_SIZE);
+            new Orion().runBatch(input, output, System.err);
+        } catch (IOException e) {
+            System.err.println("Batch run failed: " + e.getMessage());
+            System.exit(1);
+        }
     }
 
     private static String normalizeInput(String input) {
@@ -124,6 +339,11 @@ public class Orion {
 
         if (CMD_BYE.equals(commandWord)) {
             isExit = true;
+            timer.lap(CommandStats.Phase.EXECUTE);
+            if (storageWriter != null) {
+                storageWriter.flush();
+                timer.lap(CommandStats.Phase.PERSIST);
+            }
             return ui.formatBye();
         }
 
@@ -132,10 +352,6 @@ public class Orion {
 
     private String executeCommand(String commandWord, String arguments) throws OrionException {
         switch (commandWord) {
-        case CMD_LIST:
-            emphasizeNonNullTasks(); // assertion
-            return ui.formatList(tasks);
-
         case CMD_MARK:
             return handleMark(arguments, true);
 
@@ -153,52 +369,240 @@ public class Orion {
         case CMD_DELETE:
             return handleDelete(arguments);
 
+        case CMD_DUE:
+            return handleDue(arguments);
+
+        case CMD_OVERDUE:
+            return handleOverdue();
+
+        case CMD_AGENDA:
+            return handleAgenda(arguments);
+
+        case CMD_UNDO:
+            return handleUndo(arguments, false);
+
+        case CMD_REDO:
+            return handleUndo(arguments, true);
+
+        case CMD_STATS:
+            return handleStats();
+
         default:
             throw new OrionException(UNKNOWN_COMMAND_MESSAGE);
         }
     }
 
+    private void writeList(String arguments, Appendable out) throws OrionException, IOException {
+        Parser.ListRange range = Parser.parseListRange(arguments);
+        timer.lap(CommandStats.Phase.PARSE);
+        emphasizeNonNullTasks(); // assertion
+        out.append(withSaveError(""));
+        ui.writeList(tasks, range.offset(), range.limit(), out);
+    }
+
     private String handleMark(String arguments, boolean markDone) throws OrionException {
         String keyword = markDone ? CMD_MARK : CMD_UNMARK;
-        int index = parser.parseTaskIndex(arguments, keyword, tasks.size());
-
-        Task updated = markDone ? tasks.markDone(index) : tasks.markUndone(index);
-        saveTasks();
+        int[] indexes = selectTasks(arguments, keyword);
+        timer.lap(CommandStats.Phase.PARSE);
+
+        if (indexes.length == 1) {
+            int index = indexes[0];
+            Task updated = markDone ? tasks.markDone(index) : tasks.markUndone(index);
+            saveChange(Mutation.marked(index, markDone));
+            return ui.formatMark(updated, markDone);
+        }
 
-        return ui.formatMark(updated, markDone);
+        int changed = tasks.markAll(indexes, markDone);
+        saveChange(Mutation.markedAll(indexes, markDone));
+        return ui.formatBulkMark(indexes.length, changed, markDone);
     }
 
     private String handleFind(String arguments) throws OrionException {
-        String keyword = Parser.parseFindKeyword(arguments);
-        return ui.formatFindResults(tasks.find(keyword));
+        Parser.FindQuery find = Parser.parseFindQuery(arguments);
+        timer.lap(CommandStats.Phase.PARSE);
+        TaskQuery.Result result = tasks.query(find.query());
+        timer.lap(CommandStats.Phase.EXECUTE);
+        return find.isExplain()
+                ? ui.formatQueryPlan(find.query(), result)
+                : ui.formatFindResults(result.matches());
     }
 
     private String handleAddTask(String commandWord, String arguments) throws OrionException {
         Task newTask = parser.parseTask(commandWord, arguments);
+        timer.lap(CommandStats.Phase.PARSE);
 
         int duplicateIndex = tasks.indexOfDuplicate(newTask);
         if (duplicateIndex != -1) {
             Task existing = tasks.get(duplicateIndex);
+            timer.lap(CommandStats.Phase.EXECUTE);
             return ui.formatDuplicate(existing, duplicateIndex + 1);
         }
 
         tasks.add(newTask);
-        saveTasks();
+        saveChange(Mutation.added(newTask));
         return ui.formatAdd(newTask, tasks.size());
     }
 
     private String handleDelete(String arguments) throws OrionException {
-        int index = parser.parseTaskIndex(arguments, CMD_DELETE, tasks.size());
-        Task removed = tasks.remove(index);
-        saveTasks();
-        return ui.formatDelete(removed, tasks.size());
+        int[] indexes = selectTasks(arguments, CMD_DELETE);
+        timer.lap(CommandStats.Phase.PARSE);
+
+        if (indexes.length == 1) {
+            Task removed = tasks.remove(indexes[0]);
+            saveChange(Mutation.deleted(indexes[0]));
+            return ui.formatDelete(removed, tasks.size());
+        }
+
+        List<Task> removed = tasks.removeAll(indexes);
+        saveChange(Mutation.deletedAll(indexes));
+        return ui.formatBulkDelete(removed.size(), tasks.size());
+    }
+
+    /**
+     * Returns the tasks a {@code mark}, {@code unmark} or {@code delete} command refers to: the numbered ones,
+     * or with {@code done}, every task that is done. The whole selection is validated before anything changes.
+     */
+    private int[] selectTasks(String arguments, String keyword) throws OrionException {
+        if (!Parser.selectsDoneTasks(arguments)) {
+            return parser.parseTaskNumbers(arguments, keyword, tasks.size());
+        }
+        int[] doneIndexes = tasks.doneIndexes();
+        if (doneIndexes.length == 0) {
+            throw new OrionException("There are no done tasks to " + keyword + ".");
+        }
+        return doneIndexes;
+    }
+
+    private String handleDue(String arguments) throws OrionException {
+        LocalDate date = Parser.parseDueDate(arguments);
+        timer.lap(CommandStats.Phase.PARSE);
+        int[] due = unfinished(tasks.deadlinesDueBy(date));
+        timer.lap(CommandStats.Phase.EXECUTE);
+        return ui.formatDue(date, tasks, due);
+    }
+
+    private String handleOverdue() {
+        int[] overdue = unfinished(tasks.deadlinesDueBy(LocalDate.now().minusDays(1)));
+        timer.lap(CommandStats.Phase.EXECUTE);
+        return ui.formatOverdue(tasks, overdue);
+    }
+
+    private String handleAgenda(String arguments) throws OrionException {
+        Parser.DateRange range = Parser.parseAgendaRange(arguments);
+        timer.lap(CommandStats.Phase.PARSE);
+        int[] agenda = tasks.agenda(range.from(), range.to());
+        timer.lap(CommandStats.Phase.EXECUTE);
+        return ui.formatAgenda(range.from(), range.to(), tasks, agenda);
     }
 
-    private void saveTasks() throws OrionException {
-        storage.save(tasks.asUnmodifiableList());
+    private String handleUndo(String arguments, boolean isRedo) throws OrionException {
+        String keyword = isRedo ? CMD_REDO : CMD_UNDO;
+        if (!arguments.isEmpty()) {
+            throw new OrionException("Usage: " + keyword);
+        }
+        timer.lap(CommandStats.Phase.PARSE);
+
+        TaskList.Revision revision = isRedo ? tasks.redo() : tasks.undo();
+        if (revision == null) {
+            throw new OrionException("There is nothing to " + keyword + ".");
+        }
+        saveChanges(revision.updates());
+        return ui.formatRevision(revision.change(), isRedo, tasks.size());
+    }
+
+    private String handleStats() {
+        List<String> lines = stats.summaryLines();
+        timer.lap(CommandStats.Phase.EXECUTE);
+        return ui.formatStats(lines);
+    }
+
+    private int[] unfinished(int[] indexes) {
+        return Arrays.stream(indexes).filter(i -> !tasks.get(i).isDone()).toArray();
+    }
+
+    private void saveChange(Mutation mutation) throws OrionException {
+        saveChanges(List.of(mutation));
+    }
+
+    private void saveChanges(List<Mutation> mutations) throws OrionException {
+        timer.lap(CommandStats.Phase.EXECUTE);
+        try {
+            if (deferredChanges != null) {
+                deferredChanges.addAll(mutations);
+                if (deferredChanges.size() >= checkpointInterval) {
+                    saveDeferredChanges();
+                }
+                return;
+            }
+            if (storageWriter != null) {
+                mutations.forEach(storageWriter::submit);
+                return;
+            }
+            storage.recordAll(mutations, tasks.asUnmodifiableList());
+        } finally {
+            timer.lap(CommandStats.Phase.PERSIST);
+        }
+    }
+
+    /**
+     * Saves the changes deferred by a batch run in one write.
+     * Failures are kept for the batch summary rather than shown in the output, and the changes stay
+     * pending so the next checkpoint retries them.
+     */
+    private void saveDeferredChanges() {
+        if (deferredChanges.isEmpty()) {
+            return;
+        }
+        if (storageWriter != null) {
+            deferredChanges.forEach(storageWriter::submit);
+            deferredChanges.clear();
+            checkpointCount++;
+            return;
+        }
+        try {
+            storage.recordAll(deferredChanges, tasks.asUnmodifiableList());
+            deferredChanges.clear();
+            checkpointCount++;
+        } catch (OrionException e) {
+            lastSaveError = e.getMessage();
+        }
+    }
+
+    /**
+     * Prefixes {@code response} with the latest background save failure, if any.
+     */
+    private String withSaveError(String response) {
+        OrionException error = (storageWriter == null) ? null : storageWriter.takeError();
+        return (error == null) ? response : ui.formatError(error.getMessage()) + response;
     }
 
     private void emphasizeNonNullTasks() {
         assert tasks != null : "TaskList must be initialized";
     }
+
+    /**
+     * Writes characters to a {@link PrintStream}, which encodes them in its own charset.
+     */
+    private static final class PrintStreamWriter extends Writer {
+        private final PrintStream out;
+
+        private PrintStreamWriter(PrintStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            out.append(CharBuffer.wrap(buffer, offset, length));
+        }
+
+        @Override
+        public void flush() {
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            out.flush(); // never close System.out
+        }
+    }
 }
@@ -0,0 +1,143 @@
+package orion;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events that give recordings of Orion application context: which command ran, how much the
+ * storage read and wrote, and how much work a search did. Every event is disabled unless a recording turns it on,
+ * e.g. with the bundled {@code orion.jfc} settings; a disabled event is never committed, and callers fill in its
+ * fields only when {@link jdk.jfr.Event#shouldCommit()} says it will be, so instrumented code does no extra work.
+ * The JFR base class is named in full because {@link Event} here is the task type.
+ */
+final class OrionEvents {
+    private static final String CATEGORY = "Orion";
+
+    private OrionEvents() {
+        // Holder of event types, no instances.
+    }
+
+    /**
+     * One command, from reading the input to writing the response.
+     */
+    @Name("orion.Command")
+    @Label("Command")
+    @Description("A command run by Orion")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class CommandEvent extends jdk.jfr.Event {
+        @Label("Command Word")
+        @Description("Command word, or unknown for words Orion does not know")
+        String command;
+
+        @Label("Argument Length")
+        @Description("Characters after the command word")
+        int argumentLength;
+
+        @Label("Outcome")
+        @Description("ok, or error if Orion answered with an error message")
+        String outcome;
+    }
+
+    /**
+     * Loading the task list from the data file and journal.
+     */
+    @Name("orion.StorageLoad")
+    @Label("Storage Load")
+    @Category({CATEGORY, "Storage"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class StorageLoadEvent extends jdk.jfr.Event {
+        @Label("Path")
+        String path;
+
+        @Label("Bytes")
+        @Description("Size of the data file, plus the journal in journaled mode")
+        @DataAmount
+        long bytes;
+
+        @Label("Task Count")
+        int taskCount;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    /**
+     * Saving changes: writing the whole data file, or appending to the journal in journaled mode.
+     */
+    @Name("orion.StorageSave")
+    @Label("Storage Save")
+    @Category({CATEGORY, "Storage"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class StorageSaveEvent extends jdk.jfr.Event {
+        @Label("Path")
+        String path;
+
+        @Label("Bytes")
+        @Description("Bytes written: the whole data file, or the records appended to the journal")
+        @DataAmount
+        long bytes;
+
+        @Label("Task Count")
+        int taskCount;
+
+        @Label("Journaled")
+        @Description("True if only the changes were appended to the journal")
+        boolean journaled;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    /**
+     * One keyword search of the task list.
+     */
+    @Name("orion.Find")
+    @Label("Find")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class FindEvent extends jdk.jfr.Event {
+        @Label("Keyword Length")
+        int keywordLength;
+
+        @Label("Matches")
+        int matches;
+
+        @Label("Tasks Scanned")
+        @Description("Tasks whose descriptions were compared with the keyword")
+        int tasksScanned;
+
+        @Label("Used Index")
+        @Description("True if the search index narrowed down the tasks to compare")
+        boolean usedIndex;
+    }
+
+    /**
+     * Checking whether a new task duplicates one already in the list.
+     */
+    @Name("orion.DuplicateCheck")
+    @Label("Duplicate Check")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class DuplicateCheckEvent extends jdk.jfr.Event {
+        @Label("Task Count")
+        int taskCount;
+
+        @Label("Candidates Examined")
+        @Description("Tasks with the same hash that were compared in full")
+        int candidatesExamined;
+
+        @Label("Found")
+        boolean found;
+    }
+}
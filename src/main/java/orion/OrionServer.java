@@ -0,0 +1,288 @@
+package orion;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves many users' task lists from one JVM over a line-based TCP protocol on the loopback interface.
+ * A client first sends {@code user <name>}. The server replies with the welcome message, and then with
+ * exactly what {@link Orion#writeResponse(String, Appendable)} writes for each command line. Every reply is followed by
+ * an empty line. Each connection runs on its own thread (a virtual thread when the JVM supports them) with
+ * its own {@link Orion}, so its own {@link TaskList} and {@link Storage} on {@code <dataDir>/<name>.txt}.
+ * A user can only be connected once at a time.
+ */
+public class OrionServer implements Closeable {
+    /** Port used when none is given on the command line. */
+    public static final int DEFAULT_PORT = 4789;
+
+    private static final String DATA_DIR_PROPERTY = "orion.serverDataDir";
+    private static final String DEFAULT_DATA_DIR = "data/users";
+    private static final String DATA_FILE_SUFFIX = ".txt";
+    private static final int ACCEPT_BACKLOG = 1024;
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
+    private static final String HELLO_WORD = "user";
+    private static final int MAX_USER_NAME_LENGTH = 32;
+    private static final String HELLO_USAGE = "Please identify yourself first. Usage: user <name>";
+    private static final String INVALID_USER_MESSAGE =
+            "User names are 1-" + MAX_USER_NAME_LENGTH + " letters, digits, '-' or '_'. Usage: user <name>";
+    private static final String USER_BUSY_SUFFIX = " is already connected.";
+
+    private final ServerSocket serverSocket;
+    private final Path dataDir;
+    private final ExecutorService connections;
+    private final boolean isUsingVirtualThreads;
+    private final Set<String> activeUsers = ConcurrentHashMap.newKeySet();
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final Parser parser = new Parser(); // stateless, so shared by all connections
+    private final Ui ui = new Ui();
+    private final Thread acceptor;
+
+    private volatile boolean isClosed;
+
+    /**
+     * Starts a server on {@code port} of the loopback interface.
+     *
+     * @param port Port to listen on, or 0 for any free port.
+     * @param dataDir Directory holding one data file per user; created on first save.
+     * @throws IOException If the port cannot be bound.
+     */
+    public OrionServer(int port, Path dataDir) throws IOException {
+        assert dataDir != null : "OrionServer data directory must not be null";
+        this.dataDir = dataDir;
+        ExecutorService virtualThreads = newVirtualThreadExecutorOrNull();
+        this.isUsingVirtualThreads = (virtualThreads != null);
+        this.connections = isUsingVirtualThreads ? virtualThreads : Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "orion-connection");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.serverSocket = new ServerSocket(port, ACCEPT_BACKLOG, InetAddress.getLoopbackAddress());
+
+        this.acceptor = new Thread(this::acceptLoop, "orion-server-acceptor");
+        acceptor.start();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return Local port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns true if connections are served on virtual threads (Java 21+), false for platform threads.
+     *
+     * @return Whether virtual threads are used.
+     */
+    public boolean isUsingVirtualThreads() {
+        return isUsingVirtualThreads;
+    }
+
+    /**
+     * Stops accepting connections, disconnects every client and waits for their changes to be saved.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        closeQuietly(serverSocket);
+        openSockets.forEach(OrionServer::closeQuietly);
+        connections.shutdown();
+        try {
+            connections.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Server entry point.
+     * Data files go to {@code -Dorion.serverDataDir} (default {@code data/users}).
+     *
+     * @param args Optional port number (default {@value #DEFAULT_PORT}).
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        if (args.length > 0) {
+            try {
+                port = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                System.err.println("Usage: orion.OrionServer [port]");
+                System.exit(2);
+            }
+        }
+
+        try {
+            OrionServer server = new OrionServer(port, Paths.get(System.getProperty(DATA_DIR_PROPERTY,
+                    DEFAULT_DATA_DIR)));
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close, "orion-server-shutdown"));
+            System.out.println("Orion server listening on " + server.serverSocket.getLocalSocketAddress()
+                    + (server.isUsingVirtualThreads() ? " (virtual threads)" : " (platform threads)"));
+            server.acceptor.join();
+        } catch (IOException e) {
+            System.err.println("Failed to start server: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!isClosed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+                socket.setTcpNoDelay(true); // replies are small and latency-sensitive
+            } catch (IOException e) {
+                if (!isClosed) {
+                    System.err.println("Failed to accept connection: " + e.getMessage());
+                }
+                continue;
+            }
+
+            openSockets.add(socket);
+            try {
+                connections.execute(() -> serve(socket));
+            } catch (RejectedExecutionException e) {
+                closeQuietly(socket); // the server was closed right after accept()
+                openSockets.remove(socket);
+            }
+        }
+    }
+
+    /**
+     * Runs one client's session until {@code bye}, disconnection or server shutdown.
+     */
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String user = awaitUser(in, out);
+            if (user == null) {
+                return;
+            }
+
+            try {
+                Orion orion = new Orion(new Storage(dataDir.resolve(user + DATA_FILE_SUFFIX)));
+                try {
+                    reply(out, orion.getWelcomeMessage());
+                    String line;
+                    while (!orion.isExit() && (line = in.readLine()) != null) {
+                        orion.writeResponse(line, out);
+                        endReply(out);
+                    }
+                } finally {
+                    orion.close();
+                }
+            } finally {
+                activeUsers.remove(user);
+            }
+        } catch (IOException e) {
+            // The client went away (or the server is closing); its changes are already saved.
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    /**
+     * Reads lines until a valid {@code user <name>} line for a user who is not already connected.
+     * Names are lowercased, since they name data files and many file systems ignore case.
+     *
+     * @return Lowercase user name, now reserved for this connection, or {@code null} if the client disconnected.
+     */
+    private String awaitUser(BufferedReader in, Writer out) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            Parser.ParsedCommand hello;
+            try {
+                hello = parser.parse(line);
+            } catch (OrionException e) {
+                reply(out, ui.formatError(HELLO_USAGE));
+                continue;
+            }
+
+            String user = hello.getArguments();
+            if (!HELLO_WORD.equals(hello.getCommandWord())) {
+                reply(out, ui.formatError(HELLO_USAGE));
+            } else if (!isValidUserName(user)) {
+                reply(out, ui.formatError(INVALID_USER_MESSAGE));
+            } else if (!activeUsers.add(user.toLowerCase(Locale.ROOT))) {
+                reply(out, ui.formatError("User " + user + USER_BUSY_SUFFIX));
+            } else {
+                return user.toLowerCase(Locale.ROOT); // the name just reserved
+            }
+        }
+        return null;
+    }
+
+    private static void reply(Writer out, String response) throws IOException {
+        out.write(response);
+        endReply(out);
+    }
+
+    private static void endReply(Writer out) throws IOException {
+        out.write(System.lineSeparator()); // the empty line that ends every reply
+        out.flush();
+    }
+
+    /**
+     * Returns true if {@code name} is safe to use as a file name: 1-32 ASCII letters, digits, '-' or '_'.
+     */
+    private static boolean isValidUserName(String name) {
+        if (name.isEmpty() || name.length() > MAX_USER_NAME_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean isAllowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_';
+            if (!isAllowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns an executor that starts a virtual thread per task, or {@code null} before Java 21.
+     * Looked up reflectively so the server still builds and runs on Java 17.
+     */
+    private static ExecutorService newVirtualThreadExecutorOrNull() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null; // not available, or only as a disabled preview
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing more to do while shutting down.
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package orion;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 /**
  * Parses user input into commands and task objects.
+ * Input is scanned once by index with {@link CommandLexer}; no regular expressions are involved.
  */
 public class Parser {
 
     private static final String MESSAGE_EMPTY_COMMAND = "Please enter a command.";
     private static final String MESSAGE_UNKNOWN_COMMAND = "I don't know what that means.";
 
-    private static final String FIND_USAGE = "Usage: find <keyword>";
+    private static final String FIND_USAGE = "Usage: find [--explain] <keyword or query>";
+    private static final String QUERY_DATE_USAGE = "Dates in queries are yyyy-MM-dd, e.g. before:2025-01-01.";
+    private static final String DUE_USAGE = "Usage: due yyyy-MM-dd";
+    private static final String AGENDA_USAGE = "Usage: agenda yyyy-MM-dd [yyyy-MM-dd]";
+    private static final String LIST_USAGE = "Usage: list [<page>] or list [--limit <count>] [--offset <count>]";
+    private static final String FLAG_LIMIT = "--limit";
+    private static final String FLAG_OFFSET = "--offset";
     private static final String DEADLINE_USAGE =
             "Usage: deadline <description> /by yyyy-MM-dd [HHmm|HH:mm]";
     private static final String DEADLINE_USAGE_EXAMPLE =
@@ -20,11 +30,22 @@ public class Parser {
     private static final String EVENT_USAGE =
             "Usage: event <description> /from yyyy-MM-dd [HHmm|HH:mm] /to yyyy-MM-dd [HHmm|HH:mm]";
 
-    private static final String SPLIT_BY = "\\s+/by\\s+";
-    private static final String SPLIT_FROM = "\\s+/from\\s+";
-    private static final String SPLIT_TO = "\\s+/to\\s+";
-
-    private static final String TIME_HHMM_REGEX = "\\d{4}";
+    private static final String SELECT_DONE = "done";
+    private static final String FLAG_EXPLAIN = "--explain";
+    private static final char QUOTE = '"';
+    private static final char EXCLUDE_PREFIX = '-';
+    private static final char FIELD_SEPARATOR = ':';
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_DONE = "done";
+    private static final String FIELD_BEFORE = "before";
+    private static final String FIELD_AFTER = "after";
+    private static final String FIELD_ON = "on";
+    private static final char NUMBER_SEPARATOR = ',';
+    private static final char RANGE_SEPARATOR = '-';
+
+    private static final String MARKER_BY = "/by";
+    private static final String MARKER_FROM = "/from";
+    private static final String MARKER_TO = "/to";
 
     /**
      * Represents a parsed user command (command word + arguments).
@@ -53,6 +74,50 @@ public class Parser {
         }
     }
 
+    /**
+     * Represents an inclusive range of days.
+     *
+     * @param from First day.
+     * @param to Last day (not before {@code from}).
+     */
+    public record DateRange(LocalDate from, LocalDate to) {
+        public DateRange {
+            assert from != null && to != null : "DateRange dates must not be null";
+            assert !to.isBefore(from) : "DateRange must not end before it starts";
+        }
+    }
+
+    /**
+     * Represents the part of the task list to show: up to {@code limit} tasks starting at 0-based {@code offset}.
+     *
+     * @param offset Number of tasks to skip.
+     * @param limit Maximum number of tasks to show.
+     */
+    public record ListRange(int offset, int limit) {
+        /** The whole list. */
+        public static final ListRange ALL = new ListRange(0, Integer.MAX_VALUE);
+
+        /** Tasks per page for {@code list <page>}. */
+        public static final int PAGE_SIZE = 50;
+
+        public ListRange {
+            assert offset >= 0 : "ListRange offset must be >= 0";
+            assert limit >= 1 : "ListRange limit must be >= 1";
+        }
+    }
+
+    /**
+     * Represents a parsed {@code find} command.
+     *
+     * @param query Query to run.
+     * @param isExplain True if the plan used should be shown along with the matches.
+     */
+    public record FindQuery(TaskQuery query, boolean isExplain) {
+        public FindQuery {
+            assert query != null : "FindQuery query must not be null";
+        }
+    }
+
     /**
      * Holds a parsed date, and an optional time (nullable).
      */
@@ -70,15 +135,17 @@ public class Parser {
      * @throws OrionException If the input is empty.
      */
     public ParsedCommand parse(String userInput) throws OrionException {
-        String trimmed = normalize(userInput);
+        String input = (userInput == null) ? "" : userInput;
+        int start = CommandLexer.trimStart(input, 0, input.length());
+        int end = CommandLexer.trimEnd(input, start, input.length());
 
-        if (trimmed.isEmpty()) {
+        if (start == end) {
             throw new OrionException(MESSAGE_EMPTY_COMMAND);
         }
 
-        String[] parts = trimmed.split("\\s+", 2);
-        String commandWord = parts[0]; // already non-empty due to trimmed check above
-        String arguments = (parts.length == 2) ? parts[1].trim() : "";
+        int wordEnd = CommandLexer.nextWhitespace(input, start, end);
+        String commandWord = input.substring(start, wordEnd); // non-empty: input[start] is not whitespace
+        String arguments = CommandLexer.trimmed(input, wordEnd, end);
 
         return new ParsedCommand(commandWord, arguments);
     }
@@ -144,18 +211,195 @@ public class Parser {
     }
 
     /**
-     * Parses the keyword for the {@code find} command.
+     * Parses a selection of task numbers: one number, an inclusive range such as {@code 1-500}, or a
+     * comma-separated list of both such as {@code 3,7,12-40}. The whole selection is checked before any
+     * index is returned, with the same messages as {@link #parseTaskIndex(String, String, int)}.
+     *
+     * @param arguments Raw selection input.
+     * @param keyword Command keyword for error messages.
+     * @param taskCount Current number of tasks.
+     * @return 0-based task indexes, ascending and without repeats.
+     * @throws OrionException If the selection is missing, malformed, or names a task that does not exist.
+     */
+    public int[] parseTaskNumbers(String arguments, String keyword, int taskCount) throws OrionException {
+        assert keyword != null : "parseTaskNumbers(): keyword must not be null";
+        assert taskCount >= 0 : "parseTaskNumbers(): taskCount must be >= 0";
+
+        String trimmed = normalize(arguments);
+        if (trimmed.indexOf(NUMBER_SEPARATOR) < 0 && trimmed.indexOf(RANGE_SEPARATOR, 1) < 0) {
+            return new int[] {parseTaskIndex(trimmed, keyword, taskCount)};
+        }
+        if (taskCount == 0) {
+            throw new OrionException("There are no tasks to " + keyword + ". Add a task first.");
+        }
+
+        BitSet selected = new BitSet(taskCount);
+        int end = trimmed.length();
+        int partStart = 0;
+        while (partStart <= end) {
+            int partEnd = trimmed.indexOf(NUMBER_SEPARATOR, partStart);
+            partEnd = (partEnd < 0) ? end : partEnd;
+            int from = CommandLexer.trimStart(trimmed, partStart, partEnd);
+            int to = CommandLexer.trimEnd(trimmed, from, partEnd);
+            int range = trimmed.indexOf(RANGE_SEPARATOR, from + 1);
+
+            if (range < 0 || range >= to) {
+                selected.set(parseTaskIndex(trimmed.substring(from, to), keyword, taskCount));
+            } else {
+                int first = parseTaskIndex(CommandLexer.trimmed(trimmed, from, range), keyword, taskCount);
+                int last = parseTaskIndex(CommandLexer.trimmed(trimmed, range + 1, to), keyword, taskCount);
+                if (last < first) {
+                    throw new OrionException("Task range " + trimmed.substring(from, to)
+                            + " must go from the lower to the higher number.");
+                }
+                selected.set(first, last + 1);
+            }
+            partStart = partEnd + 1;
+        }
+        return selected.stream().toArray();
+    }
+
+    /**
+     * Returns true if {@code arguments} select every task that is done rather than numbered tasks,
+     * as in {@code delete done}.
+     *
+     * @param arguments Raw arguments after a {@code mark}, {@code unmark} or {@code delete} command.
+     * @return Whether the arguments are {@code done}.
+     */
+    public static boolean selectsDoneTasks(String arguments) {
+        return SELECT_DONE.equalsIgnoreCase(normalize(arguments));
+    }
+
+    /**
+     * Parses the arguments of the {@code find} command: an optional {@code --explain} flag, then either a plain
+     * keyword, which is matched as a whole as before, or a query of terms that must all hold:
+     * <ul>
+     * <li>{@code word} or {@code "some words"}: the description contains it;</li>
+     * <li>{@code -word} or {@code -"some words"}: the description does not contain it;</li>
+     * <li>{@code type:todo}, {@code type:deadline} or {@code type:event};</li>
+     * <li>{@code done:yes} or {@code done:no};</li>
+     * <li>{@code before:yyyy-MM-dd}, {@code after:yyyy-MM-dd} or {@code on:yyyy-MM-dd}: the deadline is due, or
+     * the event takes place, before, after or on that day.</li>
+     * </ul>
+     * The arguments are read as a query only if some term uses quotes, a {@code -} prefix or one of these fields.
      *
      * @param arguments Raw arguments after {@code find}.
-     * @return Trimmed keyword.
-     * @throws OrionException If the keyword is missing.
+     * @return Query and whether to explain it.
+     * @throws OrionException If the keyword is missing or a query term is invalid.
      */
-    public static String parseFindKeyword(String arguments) throws OrionException {
-        String keyword = normalize(arguments);
-        if (keyword.isEmpty()) {
+    public static FindQuery parseFindQuery(String arguments) throws OrionException {
+        String trimmed = normalize(arguments);
+        int end = trimmed.length();
+        int firstEnd = CommandLexer.nextWhitespace(trimmed, 0, end);
+        boolean isExplain = FLAG_EXPLAIN.equals(trimmed.substring(0, firstEnd));
+        int start = isExplain ? CommandLexer.skipWhitespace(trimmed, firstEnd, end) : 0;
+        if (start == end) {
             throw new OrionException(FIND_USAGE);
         }
-        return keyword;
+
+        String text = trimmed.substring(start);
+        TaskQuery query = hasQuerySyntax(text) ? parseQueryTerms(text) : TaskQuery.keyword(text);
+        return new FindQuery(query, isExplain);
+    }
+
+    /**
+     * Parses the date for the {@code due} command.
+     *
+     * @param arguments Raw arguments after {@code due}.
+     * @return Parsed date.
+     * @throws OrionException If the date is missing or invalid.
+     */
+    public static LocalDate parseDueDate(String arguments) throws OrionException {
+        String trimmed = normalize(arguments);
+        if (trimmed.isEmpty()) {
+            throw new OrionException(DUE_USAGE);
+        }
+        return parseUserDate(trimmed, 0, trimmed.length(), DUE_USAGE);
+    }
+
+    /**
+     * Parses the day or range of days for the {@code agenda} command.
+     *
+     * @param arguments Raw arguments after {@code agenda}: one date, or a start and end date.
+     * @return Parsed range; a single date gives a one-day range.
+     * @throws OrionException If the dates are missing, invalid, or out of order.
+     */
+    public static DateRange parseAgendaRange(String arguments) throws OrionException {
+        String trimmed = normalize(arguments);
+        if (trimmed.isEmpty()) {
+            throw new OrionException(AGENDA_USAGE);
+        }
+
+        int end = trimmed.length();
+        int firstEnd = CommandLexer.nextWhitespace(trimmed, 0, end);
+        int secondStart = CommandLexer.skipWhitespace(trimmed, firstEnd, end);
+        int secondEnd = CommandLexer.nextWhitespace(trimmed, secondStart, end);
+        if (secondEnd < end) {
+            throw new OrionException(AGENDA_USAGE);
+        }
+
+        LocalDate from = parseUserDate(trimmed, 0, firstEnd, AGENDA_USAGE);
+        LocalDate to = (secondStart < end) ? parseUserDate(trimmed, secondStart, end, AGENDA_USAGE) : from;
+        if (to.isBefore(from)) {
+            throw new OrionException("The end date must not be before the start date. " + AGENDA_USAGE);
+        }
+        return new DateRange(from, to);
+    }
+
+    /**
+     * Parses the arguments of the {@code list} command: nothing for the whole list, a 1-based page number of
+     * {@value ListRange#PAGE_SIZE} tasks, or {@code --limit <count>} and/or {@code --offset <count>} in any order.
+     *
+     * @param arguments Raw arguments after {@code list}.
+     * @return Range of tasks to show.
+     * @throws OrionException If the arguments are not one of these forms.
+     */
+    public static ListRange parseListRange(String arguments) throws OrionException {
+        String trimmed = normalize(arguments);
+        if (trimmed.isEmpty()) {
+            return ListRange.ALL;
+        }
+
+        int end = trimmed.length();
+        int firstEnd = CommandLexer.nextWhitespace(trimmed, 0, end);
+        if (firstEnd == end && !trimmed.startsWith("-")) {
+            int page = parsePositiveInt(trimmed, LIST_USAGE);
+            if (page < 1) {
+                throw new OrionException("Page number must be at least 1. " + LIST_USAGE);
+            }
+            long offset = (long) (page - 1) * ListRange.PAGE_SIZE;
+            return new ListRange((int) Math.min(offset, Integer.MAX_VALUE), ListRange.PAGE_SIZE);
+        }
+
+        int offset = -1;
+        int limit = -1;
+        int position = 0;
+        while (position < end) {
+            int flagEnd = CommandLexer.nextWhitespace(trimmed, position, end);
+            int valueStart = CommandLexer.skipWhitespace(trimmed, flagEnd, end);
+            int valueEnd = CommandLexer.nextWhitespace(trimmed, valueStart, end);
+            if (valueStart == end) {
+                throw new OrionException(LIST_USAGE);
+            }
+
+            String flag = trimmed.substring(position, flagEnd);
+            int value = parsePositiveInt(trimmed.substring(valueStart, valueEnd), LIST_USAGE);
+            if (FLAG_LIMIT.equals(flag) && limit == -1) {
+                if (value < 1) {
+                    throw new OrionException("The limit must be at least 1. " + LIST_USAGE);
+                }
+                limit = value;
+            } else if (FLAG_OFFSET.equals(flag) && offset == -1) {
+                if (value < 0) {
+                    throw new OrionException("The offset must not be negative. " + LIST_USAGE);
+                }
+                offset = value;
+            } else {
+                throw new OrionException(LIST_USAGE);
+            }
+            position = CommandLexer.skipWhitespace(trimmed, valueEnd, end);
+        }
+        return new ListRange(Math.max(offset, 0), (limit == -1) ? Integer.MAX_VALUE : limit);
     }
 
     // ---------------- Task parsers ----------------
@@ -172,23 +416,25 @@ public class Parser {
             throw new OrionException(DEADLINE_USAGE);
         }
 
-        String[] parts = splitOnce(arguments, SPLIT_BY);
-        if (parts.length < 2) {
+        int end = arguments.length();
+        int by = CommandLexer.findMarker(arguments, 0, end, MARKER_BY);
+        if (by < 0) {
             throw new OrionException("A deadline needs '/by'. " + DEADLINE_USAGE);
         }
 
-        String description = parts[0].trim();
-        String byRaw = parts[1].trim();
+        String description = CommandLexer.trimmed(arguments, 0, CommandLexer.whitespaceRunStart(arguments, 0, by));
+        int byStart = CommandLexer.trimStart(arguments, by + MARKER_BY.length(), end);
+        int byEnd = CommandLexer.trimEnd(arguments, byStart, end);
 
         if (description.isEmpty()) {
             throw new OrionException("Deadline description cannot be empty. " + DEADLINE_USAGE);
         }
-        if (byRaw.isEmpty()) {
+        if (byStart == byEnd) {
             throw new OrionException("Deadline date/time cannot be empty. " + DEADLINE_USAGE);
         }
 
-        DateTimeParts by = parseUserDateTime(byRaw, DEADLINE_USAGE_EXAMPLE);
-        return new Deadline(description, by.date(), by.time());
+        DateTimeParts byParts = parseUserDateTime(arguments, byStart, byEnd, DEADLINE_USAGE_EXAMPLE);
+        return new Deadline(description, byParts.date(), byParts.time());
     }
 
     private static Task parseEvent(String arguments) throws OrionException {
@@ -196,98 +442,257 @@ public class Parser {
             throw new OrionException(EVENT_USAGE);
         }
 
-        String[] fromSplit = splitOnce(arguments, SPLIT_FROM);
-        if (fromSplit.length < 2) {
+        int end = arguments.length();
+        int fromMarker = CommandLexer.findMarker(arguments, 0, end, MARKER_FROM);
+        if (fromMarker < 0) {
             throw new OrionException("An event needs '/from'. " + EVENT_USAGE);
         }
 
-        String description = fromSplit[0].trim();
-        String[] toSplit = splitOnce(fromSplit[1], SPLIT_TO);
-        if (toSplit.length < 2) {
+        String description = CommandLexer.trimmed(arguments, 0,
+                CommandLexer.whitespaceRunStart(arguments, 0, fromMarker));
+        // '/to' is only looked for after '/from', starting past the whitespace that follows it.
+        int rest = CommandLexer.skipWhitespace(arguments, fromMarker + MARKER_FROM.length(), end);
+        int toMarker = CommandLexer.findMarker(arguments, rest, end, MARKER_TO);
+        if (toMarker < 0) {
             throw new OrionException("An event needs '/to'. " + EVENT_USAGE);
         }
 
-        String fromRaw = toSplit[0].trim();
-        String toRaw = toSplit[1].trim();
+        int fromLimit = CommandLexer.whitespaceRunStart(arguments, rest, toMarker);
+        int fromStart = CommandLexer.trimStart(arguments, rest, fromLimit);
+        int fromEnd = CommandLexer.trimEnd(arguments, fromStart, fromLimit);
+        int toStart = CommandLexer.trimStart(arguments, toMarker + MARKER_TO.length(), end);
+        int toEnd = CommandLexer.trimEnd(arguments, toStart, end);
 
         if (description.isEmpty()) {
             throw new OrionException("Event description cannot be empty. " + EVENT_USAGE);
         }
-        if (fromRaw.isEmpty() || toRaw.isEmpty()) {
+        if (fromStart == fromEnd || toStart == toEnd) {
             throw new OrionException("Event date/time cannot be empty. " + EVENT_USAGE);
         }
 
-        DateTimeParts from = parseUserDateTime(fromRaw, EVENT_USAGE);
-        DateTimeParts to = parseUserDateTime(toRaw, EVENT_USAGE);
+        DateTimeParts from = parseUserDateTime(arguments, fromStart, fromEnd, EVENT_USAGE);
+        DateTimeParts to = parseUserDateTime(arguments, toStart, toEnd, EVENT_USAGE);
 
         return new Event(description, from.date(), from.time(), to.date(), to.time());
     }
 
     // ---------------- Date/time parsing helpers ----------------
 
-    private static DateTimeParts parseUserDateTime(String raw, String usage) throws OrionException {
+    /**
+     * Parses {@code [from, to)} of {@code input} as a date with an optional time.
+     * Whitespace and {@code 'T'} both separate the date from the time (so ISO {@code 2019-10-15T18:00} works);
+     * a leading separator counts as an empty date.
+     */
+    private static DateTimeParts parseUserDateTime(String input, int from, int to, String usage)
+            throws OrionException {
         assert usage != null : "parseUserDateTime(): usage must not be null";
 
-        String normalized = normalize(raw).replace('T', ' ');
-        if (normalized.isEmpty()) {
-            throw new OrionException("Invalid date/time. " + usage);
+        int dateStart = skipDateTimeSeparators(input, from, to);
+        int dateEnd = nextDateTimeSeparator(input, dateStart, to);
+        int timeStart = skipDateTimeSeparators(input, dateEnd, to);
+        int timeEnd = nextDateTimeSeparator(input, timeStart, to);
+        boolean hasLeadingSeparator = dateStart > from;
+
+        if (dateStart == to || skipDateTimeSeparators(input, timeEnd, to) < to) {
+            throw new OrionException("Invalid date/time. " + usage); // no fields, or more than two
+        }
+        if (hasLeadingSeparator) {
+            // The leading separator makes an empty date field, so the first real field is a time.
+            String message = (timeStart < to) ? "Invalid date/time. " : "Invalid date. ";
+            throw new OrionException(message + usage);
         }
+        LocalDate date = parseUserDate(input, dateStart, dateEnd, usage);
+        LocalTime time = (timeStart < to) ? parseUserTime(input, timeStart, timeEnd, usage) : null;
+        return new DateTimeParts(date, time);
+    }
 
-        String[] tokens = normalized.split("\\s+");
-        if (tokens.length == 1) {
-            return new DateTimeParts(parseUserDate(tokens[0], usage), null);
+    private static LocalDate parseUserDate(String input, int from, int to, String usage) throws OrionException {
+        LocalDate date = CommandLexer.parseDate(input, from, to); // yyyy-MM-dd
+        if (date == null) {
+            throw new OrionException("Invalid date. " + usage);
         }
-        if (tokens.length == 2) {
-            LocalDate date = parseUserDate(tokens[0], usage);
-            LocalTime time = parseUserTime(tokens[1], usage);
-            return new DateTimeParts(date, time);
+        return date;
+    }
+
+    private static LocalTime parseUserTime(String input, int from, int to, String usage) throws OrionException {
+        LocalTime time = CommandLexer.parseTime(input, from, to); // HHmm or HH:mm
+        if (time == null) {
+            throw new OrionException("Invalid time. " + usage);
         }
+        return time;
+    }
 
-        throw new OrionException("Invalid date/time. " + usage);
+    private static boolean isDateTimeSeparator(char c) {
+        return c == 'T' || CommandLexer.isWhitespace(c);
     }
 
-    private static LocalDate parseUserDate(String token, String usage) throws OrionException {
-        try {
-            return LocalDate.parse(token); // yyyy-MM-dd
-        } catch (DateTimeParseException e) {
-            throw new OrionException("Invalid date. " + usage);
+    private static int skipDateTimeSeparators(String input, int from, int to) {
+        int i = from;
+        while (i < to && isDateTimeSeparator(input.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int nextDateTimeSeparator(String input, int from, int to) {
+        int i = from;
+        while (i < to && !isDateTimeSeparator(input.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    // ---------------- Small utilities ----------------
+
+    /**
+     * Returns true if {@code text} has a quoted phrase, a {@code -word} exclusion or a {@code field:value} term.
+     */
+    private static boolean hasQuerySyntax(String text) {
+        int end = text.length();
+        int i = CommandLexer.skipWhitespace(text, 0, end);
+        while (i < end) {
+            int tokenEnd = CommandLexer.nextWhitespace(text, i, end);
+            char first = text.charAt(i);
+            if (first == QUOTE || (first == EXCLUDE_PREFIX && tokenEnd - i > 1)
+                    || fieldOf(text, i, tokenEnd) != null) {
+                return true;
+            }
+            i = CommandLexer.skipWhitespace(text, tokenEnd, end);
         }
+        return false;
     }
 
-    private static LocalTime parseUserTime(String token, String usage) throws OrionException {
-        if (token.matches(TIME_HHMM_REGEX)) {
-            int hour = Integer.parseInt(token.substring(0, 2));
-            int minute = Integer.parseInt(token.substring(2, 4));
+    /**
+     * Returns the lowercase query field that the token {@code [from, to)} starts with, or {@code null} if it is
+     * not a {@code field:value} term.
+     */
+    private static String fieldOf(String text, int from, int to) {
+        int separator = text.indexOf(FIELD_SEPARATOR, from);
+        if (separator < 0 || separator >= to) {
+            return null;
+        }
+        String field = text.substring(from, separator).toLowerCase();
+        switch (field) {
+        case FIELD_TYPE:
+        case FIELD_DONE:
+        case FIELD_BEFORE:
+        case FIELD_AFTER:
+        case FIELD_ON:
+            return field;
+        default:
+            return null;
+        }
+    }
 
-            if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
-                throw new OrionException("Invalid time. " + usage);
+    private static TaskQuery parseQueryTerms(String text) throws OrionException {
+        List<String> includes = new ArrayList<>();
+        List<String> excludes = new ArrayList<>();
+        List<LocalDate[]> dateRanges = new ArrayList<>();
+        TaskQuery.Type type = null;
+        Boolean done = null;
+
+        int end = text.length();
+        int i = CommandLexer.skipWhitespace(text, 0, end);
+        while (i < end) {
+            boolean isExclude = text.charAt(i) == EXCLUDE_PREFIX && i + 1 < end
+                    && !CommandLexer.isWhitespace(text.charAt(i + 1));
+            int termStart = isExclude ? i + 1 : i;
+            int termEnd;
+            String term;
+            if (text.charAt(termStart) == QUOTE) {
+                int close = text.indexOf(QUOTE, termStart + 1);
+                if (close < 0) {
+                    throw new OrionException("The quote in your query is not closed. " + FIND_USAGE);
+                }
+                term = text.substring(termStart + 1, close).trim();
+                if (term.isEmpty()) {
+                    throw new OrionException("Quotes in a query must contain some text. " + FIND_USAGE);
+                }
+                termEnd = close + 1;
+            } else {
+                termEnd = CommandLexer.nextWhitespace(text, termStart, end);
+                String field = isExclude ? null : fieldOf(text, termStart, termEnd);
+                if (field != null) {
+                    String value = text.substring(termStart + field.length() + 1, termEnd);
+                    switch (field) {
+                    case FIELD_TYPE:
+                        type = parseQueryType(value, type);
+                        break;
+                    case FIELD_DONE:
+                        done = parseQueryDone(value, done);
+                        break;
+                    default:
+                        dateRanges.add(parseQueryDateRange(field, value));
+                        break;
+                    }
+                    i = CommandLexer.skipWhitespace(text, termEnd, end);
+                    continue;
+                }
+                term = text.substring(termStart, termEnd);
             }
-            return LocalTime.of(hour, minute);
+            (isExclude ? excludes : includes).add(term.toLowerCase());
+            i = CommandLexer.skipWhitespace(text, termEnd, end);
         }
+        return new TaskQuery(text, includes, excludes, type, done, dateRanges);
+    }
 
-        try {
-            return LocalTime.parse(token); // HH:mm 
-        } catch (DateTimeParseException e) {
-            throw new OrionException("Invalid time. " + usage);
+    private static TaskQuery.Type parseQueryType(String value, TaskQuery.Type previous) throws OrionException {
+        TaskQuery.Type type = null;
+        for (TaskQuery.Type candidate : TaskQuery.Type.values()) {
+            if (candidate.word().equalsIgnoreCase(value)) {
+                type = candidate;
+            }
+        }
+        if (type == null) {
+            throw new OrionException("Unknown task type \"" + value
+                    + "\". Use type:todo, type:deadline or type:event.");
         }
+        if (previous != null && previous != type) {
+            throw new OrionException("A query can only ask for one task type.");
+        }
+        return type;
     }
 
-    // ---------------- Small utilities ----------------
+    private static Boolean parseQueryDone(String value, Boolean previous) throws OrionException {
+        Boolean done;
+        if (value.equalsIgnoreCase("yes") || value.equalsIgnoreCase("true")) {
+            done = Boolean.TRUE;
+        } else if (value.equalsIgnoreCase("no") || value.equalsIgnoreCase("false")) {
+            done = Boolean.FALSE;
+        } else {
+            throw new OrionException("Use done:yes or done:no in a query.");
+        }
+        if (previous != null && !previous.equals(done)) {
+            throw new OrionException("A query can only ask for done:yes or done:no, not both.");
+        }
+        return done;
+    }
 
     /**
-     * Normalises nullable input to a trimmed string.
+     * Returns the inclusive {@code {from, to}} day range of a {@code before:}, {@code after:} or {@code on:} term.
      */
-    private static String normalize(String raw) {
-        return (raw == null) ? "" : raw.trim();
+    private static LocalDate[] parseQueryDateRange(String field, String value) throws OrionException {
+        LocalDate date = parseUserDate(value, 0, value.length(), QUERY_DATE_USAGE);
+        try {
+            switch (field) {
+            case FIELD_BEFORE:
+                return new LocalDate[] {null, date.minusDays(1)};
+            case FIELD_AFTER:
+                return new LocalDate[] {date.plusDays(1), null};
+            default:
+                return new LocalDate[] {date, date};
+            }
+        } catch (DateTimeException e) {
+            // Only at the ends of the calendar; parseUserDate keeps dates well inside them.
+            throw new OrionException("There are no days " + field + " " + date + ". " + QUERY_DATE_USAGE);
+        }
     }
 
     /**
-     * Splits input once using the given regex, with limit 2.
+     * Normalises nullable input to a trimmed string.
      */
-    private static String[] splitOnce(String input, String regex) {
-        assert input != null : "splitOnce(): input must not be null";
-        assert regex != null : "splitOnce(): regex must not be null";
-        return input.split(regex, 2);
+    private static String normalize(String raw) {
+        return (raw == null) ? "" : raw.trim();
     }
 
     /**
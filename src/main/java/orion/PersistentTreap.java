@@ -0,0 +1,520 @@
+package orion;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable treap (randomized search tree) of entries ordered by {@code (key, id)}.
+ * Updates return a new treap that shares every untouched node with the old one, so any number of threads can
+ * read a treap while a writer derives newer versions from it. Nodes also record their subtree size, for access
+ * by position, and the largest {@code bound} in their subtree, for interval queries.
+ * Priorities are a hash of {@code (key, id)}, so the shape of a treap depends only on its entries.
+ *
+ * @param <V> Type of the value stored with each entry.
+ */
+final class PersistentTreap<V> {
+    /** Approximate heap size of one node, with compressed references. */
+    static final int NODE_BYTES = 64;
+
+    private static final PersistentTreap<?> EMPTY = new PersistentTreap<>(null);
+
+    private final Node<V> root;
+
+    private PersistentTreap(Node<V> root) {
+        this.root = root;
+    }
+
+    /**
+     * Receives entries in {@code (key, id)} order.
+     *
+     * @param <V> Type of the values.
+     */
+    interface Visitor<V> {
+        void visit(long key, int id, V value);
+    }
+
+    /**
+     * Returns the empty treap.
+     *
+     * @return Treap without entries.
+     */
+    @SuppressWarnings("unchecked")
+    static <V> PersistentTreap<V> empty() {
+        return (PersistentTreap<V>) EMPTY;
+    }
+
+    /**
+     * Builds a treap from {@code count} entries given as parallel arrays, in any order, in linear time after
+     * sorting. The arrays are not modified or retained.
+     *
+     * @param keys Entry keys.
+     * @param ids Entry ids; {@code (key, id)} pairs must be distinct.
+     * @param values Entry values.
+     * @param bounds Entry bounds, or {@code null} for all zero.
+     * @param count Number of entries to use.
+     * @return New treap.
+     */
+    static <V> PersistentTreap<V> of(long[] keys, int[] ids, V[] values, long[] bounds, int count) {
+        Integer[] order = new Integer[count];
+        boolean isSorted = true;
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            isSorted &= (i == 0) || compare(keys[i - 1], ids[i - 1], keys[i], ids[i]) < 0;
+        }
+        if (!isSorted) {
+            Arrays.sort(order, Comparator.<Integer>comparingLong(i -> keys[i]).thenComparingInt(i -> ids[i]));
+        }
+
+        // Cartesian tree by priority over the sorted entries, using a stack of the rightmost path.
+        int[] priorities = new int[count];
+        int[] lefts = new int[count];
+        int[] rights = new int[count];
+        int[] stack = new int[count];
+        int top = -1;
+        for (int i = 0; i < count; i++) {
+            int entry = order[i];
+            priorities[i] = priority(keys[entry], ids[entry]);
+            lefts[i] = -1;
+            rights[i] = -1;
+            int last = -1;
+            while (top >= 0 && priorities[stack[top]] < priorities[i]) {
+                last = stack[top--];
+            }
+            lefts[i] = last;
+            if (top >= 0) {
+                rights[stack[top]] = i;
+            }
+            stack[++top] = i;
+        }
+        if (top < 0) {
+            return empty();
+        }
+        return new PersistentTreap<>(build(stack[0], order, keys, ids, values, bounds, priorities, lefts, rights));
+    }
+
+    private static <V> Node<V> build(int i, Integer[] order, long[] keys, int[] ids, V[] values, long[] bounds,
+            int[] priorities, int[] lefts, int[] rights) {
+        if (i < 0) {
+            return null;
+        }
+        Node<V> left = build(lefts[i], order, keys, ids, values, bounds, priorities, lefts, rights);
+        Node<V> right = build(rights[i], order, keys, ids, values, bounds, priorities, lefts, rights);
+        int entry = order[i];
+        return new Node<>(keys[entry], ids[entry], values[entry], (bounds == null) ? 0 : bounds[entry],
+                priorities[i], left, right);
+    }
+
+    /**
+     * Estimates the bytes of new nodes that updating {@code changedEntries} entries of a treap of {@code size}
+     * entries creates, i.e. what keeping both the old and the new treap costs. Each update copies one search
+     * path, about {@code 2 ln(size)} nodes long; all of them together copy at most the whole treap.
+     *
+     * @param size Number of entries before the update.
+     * @param changedEntries Number of entries inserted, removed or replaced.
+     * @return Estimated bytes.
+     */
+    static long updateBytes(int size, int changedEntries) {
+        double pathNodes = 2 * Math.log(size + 1.0) + 1;
+        return (long) Math.min(changedEntries * pathNodes, (double) size + changedEntries) * NODE_BYTES;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return Entry count.
+     */
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the value stored under {@code (key, id)}.
+     *
+     * @return Value, or {@code null} if there is no such entry.
+     */
+    V get(long key, int id) {
+        Node<V> node = root;
+        while (node != null) {
+            int cmp = compare(key, id, node.key, node.id);
+            if (cmp == 0) {
+                return node.value;
+            }
+            node = (cmp < 0) ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the position of {@code (key, id)} in entry order.
+     *
+     * @return 0-based position, or -1 if there is no such entry.
+     */
+    int positionOf(long key, int id) {
+        int before = 0;
+        Node<V> node = root;
+        while (node != null) {
+            int cmp = compare(key, id, node.key, node.id);
+            if (cmp == 0) {
+                return before + size(node.left);
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                before += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value of the entry at {@code position}.
+     *
+     * @param position 0-based position, less than {@link #size()}.
+     * @return Value at the position.
+     */
+    V valueAt(int position) {
+        return nodeAt(position).value;
+    }
+
+    /**
+     * Returns the id of the entry at {@code position}.
+     *
+     * @param position 0-based position, less than {@link #size()}.
+     * @return Id at the position.
+     */
+    int idAt(int position) {
+        return nodeAt(position).id;
+    }
+
+    /**
+     * Returns a treap that also contains {@code (key, id)}, which must not be present yet.
+     *
+     * @return Updated treap.
+     */
+    PersistentTreap<V> insert(long key, int id, V value, long bound) {
+        return new PersistentTreap<>(insert(root, new Node<>(key, id, value, bound, priority(key, id), null, null)));
+    }
+
+    /**
+     * Returns a treap without {@code (key, id)}.
+     *
+     * @return Updated treap, or this treap if there is no such entry.
+     */
+    PersistentTreap<V> remove(long key, int id) {
+        Node<V> updated = remove(root, key, id);
+        return (updated == root) ? this : new PersistentTreap<>(updated);
+    }
+
+    /**
+     * Returns a treap where the existing entry {@code (key, id)} holds {@code value}; its bound is kept.
+     *
+     * @return Updated treap.
+     */
+    PersistentTreap<V> replace(long key, int id, V value) {
+        return new PersistentTreap<>(replace(root, key, id, value));
+    }
+
+    /**
+     * Visits, in order, every entry with {@code fromKey <= key <= toKey}.
+     */
+    void forEachBetween(long fromKey, long toKey, Visitor<? super V> visitor) {
+        forEachBetween(root, fromKey, toKey, visitor);
+    }
+
+    /**
+     * Returns the number of entries with {@code key <= maxKey}, in time proportional to the height of the treap.
+     *
+     * @return Entry count.
+     */
+    int countAtMost(long maxKey) {
+        int count = 0;
+        Node<V> node = root;
+        while (node != null) {
+            if (node.key <= maxKey) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the smallest id among entries with {@code key} that satisfies {@code test}.
+     *
+     * @return Matching id, or -1 if there is none.
+     */
+    int firstIdWithKey(long key, IntPredicate test) {
+        return firstIdWithKey(root, key, test);
+    }
+
+    /**
+     * Visits, in order, every entry with {@code key <= maxKey} and {@code bound >= minBound}, skipping
+     * subtrees whose bounds are all too small.
+     */
+    void forEachOverlapping(long maxKey, long minBound, Visitor<? super V> visitor) {
+        forEachOverlapping(root, maxKey, minBound, visitor);
+    }
+
+    /**
+     * Returns an unmodifiable list of the values in entry order. The list is a view of this treap, which
+     * never changes, so it can be read from any thread.
+     *
+     * @return List view.
+     */
+    List<V> values() {
+        return new ValueList<>(this);
+    }
+
+    // ---- Tree operations ----
+
+    private static int compare(long key, int id, long otherKey, int otherId) {
+        int cmp = Long.compare(key, otherKey);
+        return (cmp != 0) ? cmp : Integer.compare(id, otherId);
+    }
+
+    private static int priority(long key, int id) {
+        long h = key * 0x9E3779B97F4A7C15L + id;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static int size(Node<?> node) {
+        return (node == null) ? 0 : node.size;
+    }
+
+    private Node<V> nodeAt(int position) {
+        assert position >= 0 && position < size() : "nodeAt(): position out of bounds: " + position;
+        Node<V> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (position == leftSize) {
+                return node;
+            }
+            if (position < leftSize) {
+                node = node.left;
+            } else {
+                position -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private static <V> Node<V> insert(Node<V> node, Node<V> added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.priority > node.priority) {
+            Node<V>[] parts = split(node, added.key, added.id);
+            return added.withChildren(parts[0], parts[1]);
+        }
+        if (compare(added.key, added.id, node.key, node.id) < 0) {
+            return node.withChildren(insert(node.left, added), node.right);
+        }
+        return node.withChildren(node.left, insert(node.right, added));
+    }
+
+    /**
+     * Splits {@code node} into entries before {@code (key, id)} and entries at or after it.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] split(Node<V> node, long key, int id) {
+        if (node == null) {
+            return (Node<V>[]) new Node<?>[2];
+        }
+        if (compare(node.key, node.id, key, id) < 0) {
+            Node<V>[] parts = split(node.right, key, id);
+            parts[0] = node.withChildren(node.left, parts[0]);
+            return parts;
+        }
+        Node<V>[] parts = split(node.left, key, id);
+        parts[1] = node.withChildren(parts[1], node.right);
+        return parts;
+    }
+
+    private static <V> Node<V> remove(Node<V> node, long key, int id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(key, id, node.key, node.id);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            Node<V> left = remove(node.left, key, id);
+            return (left == node.left) ? node : node.withChildren(left, node.right);
+        }
+        Node<V> right = remove(node.right, key, id);
+        return (right == node.right) ? node : node.withChildren(node.left, right);
+    }
+
+    /**
+     * Joins two treaps where every entry of {@code left} comes before every entry of {@code right}.
+     */
+    private static <V> Node<V> merge(Node<V> left, Node<V> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return left.withChildren(left.left, merge(left.right, right));
+        }
+        return right.withChildren(merge(left, right.left), right.right);
+    }
+
+    private static <V> Node<V> replace(Node<V> node, long key, int id, V value) {
+        assert node != null : "replace(): no entry (" + key + ", " + id + ")";
+        int cmp = compare(key, id, node.key, node.id);
+        if (cmp == 0) {
+            return new Node<>(node.key, node.id, value, node.bound, node.priority, node.left, node.right);
+        }
+        if (cmp < 0) {
+            return node.withChildren(replace(node.left, key, id, value), node.right);
+        }
+        return node.withChildren(node.left, replace(node.right, key, id, value));
+    }
+
+    private static <V> void forEachBetween(Node<V> node, long fromKey, long toKey, Visitor<? super V> visitor) {
+        if (node == null) {
+            return;
+        }
+        if (node.key >= fromKey) {
+            forEachBetween(node.left, fromKey, toKey, visitor);
+        }
+        if (node.key >= fromKey && node.key <= toKey) {
+            visitor.visit(node.key, node.id, node.value);
+        }
+        if (node.key <= toKey) {
+            forEachBetween(node.right, fromKey, toKey, visitor);
+        }
+    }
+
+    private static <V> int firstIdWithKey(Node<V> node, long key, IntPredicate test) {
+        if (node == null) {
+            return -1;
+        }
+        if (node.key >= key) {
+            int id = firstIdWithKey(node.left, key, test);
+            if (id != -1) {
+                return id;
+            }
+        }
+        if (node.key == key && test.test(node.id)) {
+            return node.id;
+        }
+        return (node.key <= key) ? firstIdWithKey(node.right, key, test) : -1;
+    }
+
+    private static <V> void forEachOverlapping(Node<V> node, long maxKey, long minBound,
+            Visitor<? super V> visitor) {
+        if (node == null || node.maxBound < minBound) {
+            return; // nothing in this subtree reaches minBound
+        }
+        forEachOverlapping(node.left, maxKey, minBound, visitor);
+        if (node.key > maxKey) {
+            return; // this node and its right subtree start too late
+        }
+        if (node.bound >= minBound) {
+            visitor.visit(node.key, node.id, node.value);
+        }
+        forEachOverlapping(node.right, maxKey, minBound, visitor);
+    }
+
+    private static final class Node<V> {
+        private final long key;
+        private final int id;
+        private final V value;
+        private final long bound;
+        private final int priority;
+        private final Node<V> left;
+        private final Node<V> right;
+        private final int size;
+        private final long maxBound;
+
+        private Node(long key, int id, V value, long bound, int priority, Node<V> left, Node<V> right) {
+            this.key = key;
+            this.id = id;
+            this.value = value;
+            this.bound = bound;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + 1 + size(right);
+            long max = bound;
+            if (left != null) {
+                max = Math.max(max, left.maxBound);
+            }
+            if (right != null) {
+                max = Math.max(max, right.maxBound);
+            }
+            this.maxBound = max;
+        }
+
+        private Node<V> withChildren(Node<V> newLeft, Node<V> newRight) {
+            return new Node<>(key, id, value, bound, priority, newLeft, newRight);
+        }
+    }
+
+    /**
+     * Read-only list over a treap's values; iteration walks the tree instead of looking up each position.
+     */
+    private static final class ValueList<V> extends AbstractList<V> {
+        private final PersistentTreap<V> treap;
+
+        private ValueList(PersistentTreap<V> treap) {
+            this.treap = treap;
+        }
+
+        @Override
+        public V get(int index) {
+            if (index < 0 || index >= treap.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + treap.size());
+            }
+            return treap.valueAt(index);
+        }
+
+        @Override
+        public int size() {
+            return treap.size();
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            Deque<Node<V>> path = new ArrayDeque<>();
+            for (Node<V> node = treap.root; node != null; node = node.left) {
+                path.push(node);
+            }
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return !path.isEmpty();
+                }
+
+                @Override
+                public V next() {
+                    if (path.isEmpty()) {
+                        throw new NoSuchElementException();
+                    }
+                    Node<V> node = path.pop();
+                    for (Node<V> next = node.right; next != null; next = next.left) {
+                        path.push(next);
+                    }
+                    return node.value;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package orion;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index from lowercase character trigrams of task descriptions to task ids.
+ * Any keyword of at least three characters that occurs in a description has all of its trigrams in that
+ * description, so intersecting the keyword's posting lists yields every match (plus a few false positives
+ * that callers filter out with {@link Task#matches(String)}).
+ * <p>
+ * The index is append-only so that readers never need a lock: a single writer adds tasks with increasing ids,
+ * and each reader passes the id limit of the task list version it is reading, so it ignores anything added
+ * after that version. Removed tasks stay in the posting lists, and readers skip ids that are not in their
+ * version; once removals outweigh live entries, the owner builds a fresh index instead (see
+ * {@link #needsRebuild()}), leaving this one to the readers that still use it.
+ */
+class SearchIndex {
+    /** Keywords shorter than this cannot be answered from the index. */
+    static final int GRAM_LENGTH = 3;
+
+    private static final long MIN_REMOVED_FOR_REBUILD = 1 << 14;
+
+    private final Map<Long, Postings> postingsByGram = new ConcurrentHashMap<>();
+    private long liveGrams; // writer only
+    private long removedGrams; // writer only
+
+    /**
+     * Indexes the description of {@code task} under {@code id}.
+     * Only one thread may add or remove at a time.
+     *
+     * @param id Stable task id, greater than every id added before.
+     * @param task Task to index.
+     */
+    void add(int id, Task task) {
+        String text = task.getDescription().toLowerCase();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            postingsByGram.computeIfAbsent(gramAt(text, i), gram -> new Postings()).add(id);
+        }
+        liveGrams += gramCount(task);
+    }
+
+    /**
+     * Records that {@code task}, previously added, has been removed. Its id stays in the posting lists.
+     * Only one thread may add or remove at a time.
+     *
+     * @param task Removed task.
+     */
+    void remove(Task task) {
+        long grams = gramCount(task);
+        liveGrams -= grams;
+        removedGrams += grams;
+    }
+
+    /**
+     * Returns true once removed tasks make up most of the index, so it is worth rebuilding from the live tasks.
+     *
+     * @return Whether to rebuild.
+     */
+    boolean needsRebuild() {
+        return removedGrams >= MIN_REMOVED_FOR_REBUILD && removedGrams > liveGrams;
+    }
+
+    /**
+     * Returns the ids below {@code idLimit} of tasks whose descriptions may contain {@code needle}, in ascending
+     * order. May include ids of removed tasks. Safe to call from any thread, concurrently with the writer.
+     *
+     * @param needle Trimmed, lowercase keyword.
+     * @param idLimit Ids at or above this are ignored.
+     * @return Candidate ids, or {@code null} if {@code needle} is too short to use the index.
+     */
+    int[] candidates(String needle, int idLimit) {
+        if (needle.length() < GRAM_LENGTH) {
+            return null;
+        }
+
+        int gramCount = needle.length() - GRAM_LENGTH + 1;
+        int[][] lists = new int[gramCount][];
+        int[] sizes = new int[gramCount];
+        int rarest = 0;
+        for (int i = 0; i < gramCount; i++) {
+            Postings postings = postingsByGram.get(gramAt(needle, i));
+            if (postings == null) {
+                return new int[0];
+            }
+            int size = postings.size; // read the size first: the array read after it holds at least that many
+            lists[i] = postings.ids;
+            sizes[i] = lowerBound(lists[i], size, idLimit);
+            if (sizes[i] < sizes[rarest]) {
+                rarest = i;
+            }
+        }
+
+        // Start from the rarest gram so the work is bounded by its posting list.
+        int[] result = Arrays.copyOf(lists[rarest], sizes[rarest]);
+        int resultSize = result.length;
+        for (int i = 0; i < gramCount && resultSize > 0; i++) {
+            if (i != rarest) {
+                resultSize = retainAll(lists[i], sizes[i], result, resultSize);
+            }
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    /**
+     * Returns an upper bound on the number of ids {@link #candidates(String, int)} returns, from the length of
+     * the rarest gram's posting list, without intersecting any lists.
+     *
+     * @param needle Trimmed, lowercase keyword.
+     * @param idLimit Ids at or above this are ignored.
+     * @return Estimated candidates, or -1 if {@code needle} is too short to use the index.
+     */
+    int estimate(String needle, int idLimit) {
+        if (needle.length() < GRAM_LENGTH) {
+            return -1;
+        }
+
+        int smallest = Integer.MAX_VALUE;
+        for (int i = 0; i + GRAM_LENGTH <= needle.length(); i++) {
+            Postings postings = postingsByGram.get(gramAt(needle, i));
+            if (postings == null) {
+                return 0;
+            }
+            int size = postings.size; // read the size first, as in candidates()
+            smallest = Math.min(smallest, lowerBound(postings.ids, size, idLimit));
+        }
+        return smallest;
+    }
+
+    private static Long gramAt(String text, int index) {
+        return ((long) text.charAt(index) << 32) | ((long) text.charAt(index + 1) << 16) | text.charAt(index + 2);
+    }
+
+    private static int gramCount(Task task) {
+        return Math.max(0, task.getDescription().length() - GRAM_LENGTH + 1);
+    }
+
+    private static int lowerBound(int[] ids, int size, int id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        return (position >= 0) ? position : -position - 1;
+    }
+
+    /**
+     * Keeps only the first {@code count} entries of {@code candidates} that are also in {@code ids[0, size)}.
+     *
+     * @return Number of entries kept, compacted to the front of {@code candidates}.
+     */
+    private static int retainAll(int[] ids, int size, int[] candidates, int count) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < count; i++) {
+            int position = Arrays.binarySearch(ids, from, size, candidates[i]);
+            if (position >= 0) {
+                candidates[kept++] = candidates[i];
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Append-only, ascending list of task ids. Entries below {@code size} never change once published; the
+     * array is replaced by a larger copy when full, so readers holding the old one still see their entries.
+     */
+    private static final class Postings {
+        private volatile int[] ids = new int[2];
+        private volatile int size;
+
+        private void add(int id) {
+            int count = size;
+            int[] current = ids;
+            if (count > 0 && current[count - 1] == id) {
+                return; // the same gram occurring twice in one description
+            }
+            assert count == 0 || current[count - 1] < id : "Postings.add(): ids must increase: " + id;
+            if (count == current.length) {
+                current = Arrays.copyOf(current, count * 2);
+            }
+            current[count] = id;
+            ids = current;
+            size = count + 1; // publishes the entry
+        }
+    }
+}
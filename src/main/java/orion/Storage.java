@@ -2,21 +2,43 @@ package orion;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Handles loading and saving tasks to disk.
+ * The data file is pipe-delimited text, or compact binary when it ends in {@code .bin} or
+ * {@code -Dorion.dataFormat=binary} is set.
+ * In journaled mode ({@code -Dorion.journal=true}), each change is appended to a small log next to the
+ * data file instead of rewriting the whole file, and the log is compacted into a fresh snapshot in the
+ * background once it grows past {@code orion.journalLimit} bytes.
+ * A text data file is parsed on {@code orion.loadThreads} threads (default 1; 0 uses every processor).
+ * Loads and saves are reported to Java Flight Recorder as {@link OrionEvents.StorageLoadEvent} and
+ * {@link OrionEvents.StorageSaveEvent} when a recording enables them.
  */
 public class Storage {
     private static final String DEFAULT_DATA_FILE = "data/orion.txt";
+    private static final String DATA_FORMAT_PROPERTY = "orion.dataFormat";
+    private static final String JOURNAL_PROPERTY = "orion.journal";
+    private static final String JOURNAL_LIMIT_PROPERTY = "orion.journalLimit";
+    private static final long DEFAULT_JOURNAL_LIMIT = 1 << 20;
+    private static final String LOAD_THREADS_PROPERTY = "orion.loadThreads";
+
+    private static final String COMMENT_PREFIX = "#";
+    static final String SNAPSHOT_SEQ_PREFIX = "# seq ";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int PROGRESS_STEP = 1 << 10; // tasks loaded between progress updates
 
     private static final String FIELD_SEPARATOR_REGEX = "\\s*\\|\\s*";
     private static final String NO_TIME_MARKER = "-";
@@ -30,15 +52,42 @@ public class Storage {
     private static final String ERROR_CORRUPTED_PREFIX = "Saved data is corrupted: ";
 
     private final Path dataPath;
+    private final DataFormat format;
+    private final Journal journal; // null unless journaled mode is enabled
+    private final long journalLimit;
+    private final int loadThreads;
+    private final Object snapshotLock = new Object();
+
+    private boolean isJournalReady; // true once the journal is known to extend the on-disk snapshot
+    private long nextSeq = 1;
+    private long snapshotSeq; // guarded by snapshotLock
+    private ExecutorService compactor;
+    private Future<?> compaction;
+    private volatile int loadedTaskCount;
 
     /**
      * Constructs a {@code Storage} that reads/writes to the data file path.
      * Uses {@code orion.dataFile} system property if provided, else defaults to {@code data/orion.txt}.
      */
     public Storage() {
-        String filePath = System.getProperty("orion.dataFile", DEFAULT_DATA_FILE);
-        this.dataPath = Paths.get(filePath);
+        this(Paths.get(System.getProperty("orion.dataFile", DEFAULT_DATA_FILE)));
+    }
+
+    /**
+     * Constructs a {@code Storage} that reads/writes to the given data file.
+     * The format and journaling options are still taken from the system properties.
+     *
+     * @param dataPath Path of the data file.
+     */
+    public Storage(Path dataPath) {
+        this.dataPath = dataPath;
         assert dataPath != null : "Resolved data path must not be null";
+
+        this.format = DataFormat.choose(dataPath, System.getProperty(DATA_FORMAT_PROPERTY));
+        this.journal = Boolean.getBoolean(JOURNAL_PROPERTY) ? new Journal(dataPath) : null;
+        this.journalLimit = Long.getLong(JOURNAL_LIMIT_PROPERTY, DEFAULT_JOURNAL_LIMIT);
+        int threads = Integer.getInteger(LOAD_THREADS_PROPERTY, 1);
+        this.loadThreads = (threads > 0) ? threads : Runtime.getRuntime().availableProcessors();
     }
 
     /**
@@ -48,29 +97,61 @@ public class Storage {
      * @throws OrionException If the file exists but cannot be read or is corrupted.
      */
     public ArrayList<Task> load() throws OrionException {
-        if (Files.notExists(dataPath)) {
+        OrionEvents.StorageLoadEvent event = new OrionEvents.StorageLoadEvent();
+        event.begin();
+        ArrayList<Task> loadedTasks = null;
+        try {
+            loadedTasks = loadTasks();
+            return loadedTasks;
+        } finally {
+            if (event.shouldCommit()) {
+                event.path = dataPath.toString();
+                event.bytes = fileSize(dataPath) + ((journal == null) ? 0 : journal.sizeBytes());
+                event.taskCount = (loadedTasks == null) ? 0 : loadedTasks.size();
+                event.succeeded = (loadedTasks != null);
+                event.commit();
+            }
+        }
+    }
+
+    private ArrayList<Task> loadTasks() throws OrionException {
+        if (Files.notExists(dataPath) && journal == null) {
             return new ArrayList<>();
         }
 
         try {
-            List<String> lines = Files.readAllLines(dataPath, StandardCharsets.UTF_8);
-            ArrayList<Task> loadedTasks = new ArrayList<>();
+            ArrayList<Task> loadedTasks = new ProgressList();
+            long loadedSeq = Files.exists(dataPath) ? readSnapshot(loadedTasks) : 0;
 
-            for (String line : lines) {
-                if (isBlank(line)) {
-                    continue;
+            if (journal != null) {
+                long lastSeq = journal.replay(loadedTasks, loadedSeq);
+                synchronized (snapshotLock) {
+                    snapshotSeq = loadedSeq;
                 }
-                loadedTasks.add(parseLine(line));
+                nextSeq = lastSeq + 1;
+                isJournalReady = true;
             }
 
+            loadedTaskCount = loadedTasks.size();
             return loadedTasks;
         } catch (IOException e) {
             throw new OrionException(ERROR_LOAD_PREFIX + e.getMessage());
         }
     }
 
+    /**
+     * Returns roughly how many tasks {@link #load()} has read so far. Safe to call from another thread while
+     * loading runs, e.g. to show progress.
+     *
+     * @return Tasks read so far, or the final count once loading has finished.
+     */
+    public int getLoadedTaskCount() {
+        return loadedTaskCount;
+    }
+
     /**
      * Saves tasks to disk.
+     * In journaled mode this writes a fresh snapshot and discards the journal.
      *
      * @param tasks Tasks to save.
      * @throws OrionException If the file cannot be written.
@@ -81,21 +162,209 @@ public class Storage {
             assert task != null : "save(): tasks must not contain null elements";
         }
 
+        OrionEvents.StorageSaveEvent event = new OrionEvents.StorageSaveEvent();
+        event.begin();
+        boolean succeeded = false;
         try {
-            ensureParentDirExists();
+            if (journal != null) {
+                saveSnapshot(tasks);
+            } else {
+                replaceDataFile(tasks, 0);
+            }
+            succeeded = true;
+        } catch (IOException e) {
+            throw new OrionException(ERROR_SAVE_PREFIX + e.getMessage());
+        } finally {
+            if (event.shouldCommit()) {
+                event.path = dataPath.toString();
+                event.bytes = fileSize(dataPath);
+                event.taskCount = tasks.size();
+                event.succeeded = succeeded;
+                event.commit();
+            }
+        }
+    }
 
-            List<String> serializedLines = new ArrayList<>();
-            for (Task task : tasks) {
-                serializedLines.add(task.toDataString());
+    /**
+     * Persists a single change to the task list.
+     * In journaled mode only the change itself is written; otherwise the whole list is saved.
+     *
+     * @param mutation Change that has just been applied to {@code tasks}.
+     * @param tasks Task list after the change.
+     * @throws OrionException If the change cannot be written.
+     */
+    public void record(Mutation mutation, List<Task> tasks) throws OrionException {
+        assert mutation != null : "record(): mutation must not be null";
+        recordAll(List.of(mutation), tasks);
+    }
+
+    /**
+     * Persists a batch of changes to the task list with a single write.
+     * In journaled mode the changes are appended together; otherwise the whole list is saved once.
+     *
+     * @param mutations Changes that have just been applied to {@code tasks}, in order.
+     * @param tasks Task list after the changes.
+     * @throws OrionException If the changes cannot be written.
+     */
+    public void recordAll(List<Mutation> mutations, List<Task> tasks) throws OrionException {
+        assert mutations != null : "recordAll(): mutations must not be null";
+        assert tasks != null : "recordAll(): tasks must not be null";
+
+        if (journal == null) {
+            save(tasks);
+            return;
+        }
+        if (!isJournalReady) {
+            // The journal may not match what is on disk (e.g. load failed); start over from a full snapshot.
+            save(tasks);
+            return;
+        }
+
+        OrionEvents.StorageSaveEvent event = new OrionEvents.StorageSaveEvent();
+        event.begin();
+        long journalBytes = journal.sizeBytes();
+        boolean succeeded = false;
+        try {
+            journal.appendAll(nextSeq, mutations);
+            nextSeq += mutations.size();
+            succeeded = true;
+        } catch (IOException e) {
+            isJournalReady = false;
+            throw new OrionException(ERROR_SAVE_PREFIX + e.getMessage());
+        } finally {
+            if (event.shouldCommit()) {
+                event.path = dataPath.toString();
+                event.bytes = journal.sizeBytes() - journalBytes;
+                event.taskCount = tasks.size();
+                event.journaled = true;
+                event.succeeded = succeeded;
+                event.commit();
             }
+        }
 
-            Files.write(dataPath, serializedLines, StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        if (journal.sizeBytes() > journalLimit) {
+            compactInBackground(tasks);
+        }
+    }
+
+    private void saveSnapshot(List<Task> tasks) throws OrionException {
+        try {
+            writeSnapshot(tasks, nextSeq - 1);
+            journal.clear();
+            isJournalReady = true;
         } catch (IOException e) {
             throw new OrionException(ERROR_SAVE_PREFIX + e.getMessage());
         }
     }
 
+    private void compactInBackground(List<Task> tasks) throws OrionException {
+        if (compaction != null && !compaction.isDone()) {
+            return;
+        }
+
+        // Only the list structure is copied here. A task's done flag may be changed by a later MARK/UNMARK
+        // before the snapshot is written; that record has a higher seq and is replayed on load anyway.
+        List<Task> snapshot = new ArrayList<>(tasks);
+        long seq = nextSeq - 1;
+        try {
+            journal.rotate();
+        } catch (IOException e) {
+            throw new OrionException(ERROR_SAVE_PREFIX + e.getMessage());
+        }
+
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "orion-journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        // On failure the rotated journal stays on disk and is replayed on the next load.
+        compaction = compactor.submit(() -> {
+            writeSnapshot(snapshot, seq);
+            journal.deleteRotated();
+            return null;
+        });
+    }
+
+    /**
+     * Atomically replaces the data file with a snapshot taken at sequence number {@code seq}.
+     * Snapshots older than the one already on disk are discarded.
+     */
+    private void writeSnapshot(List<Task> tasks, long seq) throws IOException {
+        synchronized (snapshotLock) {
+            if (seq < snapshotSeq) {
+                return;
+            }
+            replaceDataFile(tasks, seq);
+            snapshotSeq = seq;
+        }
+    }
+
+    /**
+     * Writes {@code tasks} to a temp file beside the data file, then moves it over the data file, so a write that
+     * fails part way leaves the previous contents intact.
+     */
+    private void replaceDataFile(List<Task> tasks, long seq) throws IOException {
+        ensureParentDirExists();
+
+        Path tempPath = dataPath.resolveSibling(dataPath.getFileName() + TEMP_SUFFIX);
+        try {
+            format.write(tempPath, tasks, seq);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        try {
+            Files.move(tempPath, dataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, dataPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads the snapshot file into {@code tasks}.
+     *
+     * @return Sequence number recorded in the snapshot header, or 0 if there is none.
+     */
+    private long readSnapshot(List<Task> tasks) throws IOException, OrionException {
+        return format.read(dataPath, tasks, loadThreads);
+    }
+
+    /**
+     * Reads a data file line by line with {@link #parseLine(String)}.
+     * This is the reference behaviour {@link MappedTaskReader} must match; it is kept for comparison.
+     *
+     * @return Sequence number recorded in the snapshot header, or 0 if there is none.
+     */
+    static long readSnapshotLines(Path path, List<Task> tasks) throws IOException, OrionException {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        long seq = 0;
+
+        for (String line : lines) {
+            if (isBlank(line)) {
+                continue;
+            }
+            if (line.startsWith(COMMENT_PREFIX)) {
+                seq = parseSnapshotSeq(line, seq);
+                continue;
+            }
+            tasks.add(parseLine(line));
+        }
+        return seq;
+    }
+
+    static long parseSnapshotSeq(String line, long current) throws OrionException {
+        if (!line.startsWith(SNAPSHOT_SEQ_PREFIX)) {
+            return current;
+        }
+        try {
+            return Long.parseLong(line.substring(SNAPSHOT_SEQ_PREFIX.length()).trim());
+        } catch (NumberFormatException e) {
+            throw corrupted(line);
+        }
+    }
+
     private void ensureParentDirExists() throws IOException {
         Path parent = dataPath.getParent();
         if (parent != null) {
@@ -103,11 +372,22 @@ public class Storage {
         }
     }
 
+    /**
+     * Returns the size of {@code path} in bytes, or 0 if it cannot be read; only used for reporting.
+     */
+    private static long fileSize(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
     private static boolean isBlank(String s) {
         return s == null || s.trim().isEmpty();
     }
 
-    private static Task parseLine(String line) throws OrionException {
+    static Task parseLine(String line) throws OrionException {
         String[] parts = line.split(FIELD_SEPARATOR_REGEX);
 
         // Common minimum: TYPE | DONE | DESC
@@ -165,10 +445,14 @@ public class Storage {
         }
     }
 
-    private static OrionException corrupted(String rawLine) {
+    static OrionException corrupted(String rawLine) {
         return new OrionException(ERROR_CORRUPTED_PREFIX + rawLine);
     }
 
+    static OrionException invalidDoneFlag(String rawLine) {
+        return new OrionException(ERROR_CORRUPTED_PREFIX + "invalid done flag in line: " + rawLine);
+    }
+
     private static int parseDoneFlag(String raw, String rawLine) throws OrionException {
         if ("0".equals(raw)) {
             return 0;
@@ -176,7 +460,7 @@ public class Storage {
         if ("1".equals(raw)) {
             return 1;
         }
-        throw new OrionException(ERROR_CORRUPTED_PREFIX + "invalid done flag in line: " + rawLine);
+        throw invalidDoneFlag(rawLine);
     }
 
     private static LocalDate parseStoredDate(String raw, String rawLine) throws OrionException {
@@ -198,4 +482,20 @@ public class Storage {
             throw corrupted(rawLine);
         }
     }
+
+    /**
+     * Task list that publishes its size to {@link #loadedTaskCount} every {@value #PROGRESS_STEP} tasks.
+     */
+    private final class ProgressList extends ArrayList<Task> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean add(Task task) {
+            super.add(task);
+            if (size() % PROGRESS_STEP == 0) {
+                loadedTaskCount = size();
+            }
+            return true;
+        }
+    }
 }
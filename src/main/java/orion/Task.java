@@ -1,18 +1,20 @@
 package orion;
 
+import java.util.Locale;
 import java.util.Objects;
 
 /**
  * Represents a task with a description and a completion status.
  */
-public class Task {
+public class Task implements Cloneable {
     private static final String TYPE_CODE = "T";
     private static final String FIELD_SEPARATOR = " | ";
     private static final String DONE_FLAG = "1";
     private static final String NOT_DONE_FLAG = "0";
+    private static final char LAST_ASCII = 0x7F;
 
     private final String description;
-    private final String normalizedDescription; // cached for duplicate checks/search
+    private final int descriptionFingerprint; // hash of the normalized description, for duplicate checks
     private boolean isDone;
 
     /**
@@ -23,7 +25,7 @@ public class Task {
     public Task(String description) {
         assert description != null : "Task description must not be null";
         this.description = description;
-        this.normalizedDescription = normalizeDescription(description);
+        this.descriptionFingerprint = fingerprint(description);
         this.isDone = false;
     }
 
@@ -50,6 +52,44 @@ public class Task {
         return description;
     }
 
+    /**
+     * Returns {@code true} if this task is marked as done.
+     *
+     * @return Completion status.
+     */
+    boolean isDone() {
+        return isDone;
+    }
+
+    /**
+     * Returns an independent copy of this task: marking one does not affect the other.
+     *
+     * @return Copy of this task.
+     */
+    Task copy() {
+        try {
+            return (Task) super.clone(); // every other field is immutable
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError("Task is Cloneable", e);
+        }
+    }
+
+    /**
+     * Returns this task if its status is already {@code isDone}, else a copy with that status.
+     * Lets {@link TaskList} publish a changed task without modifying the instance other threads may be reading.
+     *
+     * @param isDone Completion status wanted.
+     * @return Task with that status.
+     */
+    Task withDone(boolean isDone) {
+        if (this.isDone == isDone) {
+            return this;
+        }
+        Task copy = copy();
+        copy.isDone = isDone;
+        return copy;
+    }
+
     /**
      * Returns {@code true} if this task's description contains the given keyword (case-insensitive).
      *
@@ -90,15 +130,136 @@ public class Task {
             return false;
         }
         // Compare normalized descriptions to avoid duplicates caused by casing / extra spaces.
-        return this.normalizedDescription.equals(other.normalizedDescription);
+        return this.descriptionFingerprint == other.descriptionFingerprint
+                && isSameNormalizedDescription(this.description, other.description);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #isSameTask(Task)}: tasks that are the same task have equal hashes.
+     *
+     * @return Hash of the identifying fields.
+     */
+    public int sameTaskHashCode() {
+        return 31 * getClass().hashCode() + descriptionFingerprint;
     }
 
     /**
-     * Normalizes task descriptions for duplicate detection.
+     * Normalizes task descriptions for duplicate detection: trims, turns each run of whitespace into one space and
+     * lowercases.
      */
     protected static String normalizeDescription(String raw) {
         assert raw != null : "normalizeDescription(): raw must not be null";
-        return raw.trim().replaceAll("\\s+", " ").toLowerCase();
+        int end = trimmedEnd(raw);
+        int start = trimmedStart(raw, end);
+
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = raw.charAt(i);
+            if (isWhitespace(c)) {
+                sb.append(' ');
+                i = skipWhitespace(raw, i, end) - 1;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns {@code normalizeDescription(raw).hashCode()}. For ASCII descriptions, the usual case, it is computed
+     * in one pass without building the normalized string.
+     */
+    private static int fingerprint(String raw) {
+        int end = trimmedEnd(raw);
+        int hash = 0;
+        for (int i = trimmedStart(raw, end); i < end; i++) {
+            char c = raw.charAt(i);
+            if (c > LAST_ASCII) {
+                return normalizeDescription(raw).hashCode();
+            }
+            if (isWhitespace(c)) {
+                hash = 31 * hash + ' ';
+                i = skipWhitespace(raw, i, end) - 1;
+            } else {
+                hash = 31 * hash + toLowerAscii(c);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns {@code true} if both descriptions normalize to the same string. ASCII descriptions are compared
+     * in place, a character at a time.
+     */
+    private static boolean isSameNormalizedDescription(String a, String b) {
+        if (!isAscii(a) || !isAscii(b)) {
+            return normalizeDescription(a).equals(normalizeDescription(b));
+        }
+
+        int aEnd = trimmedEnd(a);
+        int bEnd = trimmedEnd(b);
+        int i = trimmedStart(a, aEnd);
+        int j = trimmedStart(b, bEnd);
+        while (i < aEnd && j < bEnd) {
+            char x = a.charAt(i);
+            char y = b.charAt(j);
+            if (isWhitespace(x) && isWhitespace(y)) {
+                i = skipWhitespace(a, i, aEnd);
+                j = skipWhitespace(b, j, bEnd);
+            } else if (toLowerAscii(x) == toLowerAscii(y)) { // never true for whitespace against non-whitespace
+                i++;
+                j++;
+            } else {
+                return false;
+            }
+        }
+        return i == aEnd && j == bEnd;
+    }
+
+    /**
+     * Returns the end of {@code s} without the characters {@link String#trim()} removes (code points up to U+0020).
+     */
+    private static int trimmedEnd(String s) {
+        int end = s.length();
+        while (end > 0 && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static int trimmedStart(String s, int end) {
+        int start = 0;
+        while (start < end && s.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int skipWhitespace(String s, int from, int end) {
+        while (from < end && isWhitespace(s.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Returns {@code true} for the characters matched by the regex class {@code \s}.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > LAST_ASCII) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerAscii(char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
     }
 
     /**
@@ -1,18 +1,54 @@
 package orion;
 
+import java.time.LocalDate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Represents a list of tasks and provides operations to modify it.
+ * Each task is given a stable id when it is added; ids increase along the list, so a set of ids sorted
+ * ascending is also in list order. Indexes refer to tasks by id and are kept up to date on every change.
+ * <p>
+ * The list is safe to share between threads. Its state is an immutable {@link Version} (tasks and indexes)
+ * held in a volatile field: every read method works on the version current when it starts, without locking,
+ * and changes are serialized by a lock and publish a new version in one write. Tasks in a version are never
+ * modified; marking a task replaces it with a copy. Tasks added to the list must not be modified afterwards.
+ * Positions returned by one call refer to the version that call saw.
+ * <p>
+ * Tasks are held in a {@link TaskStore}; with {@code -Dorion.taskStore=columnar} it keeps their fields in
+ * primitive arrays rather than as objects, which takes far less memory for very long lists.
+ * <p>
+ * Because versions share structure, the list keeps recent versions for {@link #undo()} and {@link #redo()}:
+ * each costs only the nodes its change copied. History is dropped oldest first once its estimated size passes
+ * {@code orion.undoBudget} bytes (default 32 MiB; 0 disables undo).
  */
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    private static final String UNDO_BUDGET_PROPERTY = "orion.undoBudget";
+    private static final long DEFAULT_UNDO_BUDGET = 1 << 25;
+
+    private final Object writeLock = new Object();
+    private final long undoBudget;
+    private final Deque<Step> undoSteps = new ArrayDeque<>(); // newest first; guarded by writeLock
+    private final Deque<Step> redoSteps = new ArrayDeque<>(); // newest first; guarded by writeLock
+    private long historyBytes; // estimated size of both histories; guarded by writeLock
+    private volatile Version current;
+
+    /**
+     * A change that {@link #undo()} or {@link #redo()} has just reverted or reapplied.
+     *
+     * @param change The change as originally made to the list.
+     * @param updates Changes that turn the list as it was into the list as it is now, in order, for storage.
+     */
+    public record Revision(Mutation change, List<Mutation> updates) {
+    }
 
     /** Constructs an empty {@code TaskList}. */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this(List.of());
     }
 
     /**
@@ -21,13 +57,26 @@ public class TaskList {
      * @param tasks Tasks to initialize with.
      */
     public TaskList(List<Task> tasks) {
+        this(tasks, TaskStore.isColumnarConfigured());
+    }
+
+    /**
+     * Constructs a {@code TaskList} containing a copy of the given tasks, in the given layout.
+     *
+     * @param tasks Tasks to initialize with.
+     * @param isColumnar True to keep the tasks in a {@link ColumnarTaskStore}.
+     */
+    TaskList(List<Task> tasks, boolean isColumnar) {
         assert tasks != null : "Initial task list must not be null";
 
-        this.tasks = new ArrayList<>(tasks.size());
-        for (Task task : tasks) {
-            assert task != null : "Initial task list must not contain null tasks";
-            this.tasks.add(task);
+        List<Task> initial = List.copyOf(tasks); // also rejects null tasks
+        SearchIndex searchIndex = new SearchIndex();
+        for (int id = 0; id < initial.size(); id++) {
+            searchIndex.add(id, initial.get(id));
         }
+        this.current = new Version(TaskStore.of(initial, isColumnar), searchIndex, DuplicateIndex.of(initial),
+                CalendarIndex.of(initial), initial.size());
+        this.undoBudget = Math.max(0, Long.getLong(UNDO_BUDGET_PROPERTY, DEFAULT_UNDO_BUDGET));
     }
 
     /**
@@ -36,7 +85,7 @@ public class TaskList {
      * @return Task count.
      */
     public int size() {
-        return tasks.size();
+        return current.tasks.size();
     }
 
     /**
@@ -46,7 +95,7 @@ public class TaskList {
      * @return Task at the index.
      */
     public Task get(int index) {
-        return getTaskAt(index, "get()");
+        return current.getTaskAt(index, "get()");
     }
 
     /**
@@ -56,7 +105,15 @@ public class TaskList {
      */
     public void add(Task task) {
         assert task != null : "add(): task must not be null";
-        tasks.add(task);
+
+        synchronized (writeLock) {
+            Version version = current;
+            int id = version.nextId;
+            version.searchIndex.add(id, task); // invisible to readers of older versions: id >= their nextId
+            publish(new Version(version.tasks.add(id, task), version.searchIndex,
+                    version.duplicateIndex.add(id, task), version.calendarIndex.add(id, task), id + 1),
+                    Mutation.added(task), 1);
+        }
     }
 
     /**
@@ -66,8 +123,60 @@ public class TaskList {
      * @return Removed task.
      */
     public Task remove(int index) {
-        assertIndexInBounds(index, "remove()");
-        return tasks.remove(index);
+        synchronized (writeLock) {
+            Version version = current;
+            Task removed = version.getTaskAt(index, "remove()");
+            int id = version.tasks.idAt(index);
+            TaskStore tasks = version.tasks.remove(index);
+
+            SearchIndex searchIndex = version.searchIndex;
+            searchIndex.remove(removed);
+            if (searchIndex.needsRebuild()) {
+                SearchIndex rebuilt = new SearchIndex();
+                tasks.forEach(rebuilt::add);
+                searchIndex = rebuilt;
+            }
+
+            publish(new Version(tasks, searchIndex, version.duplicateIndex.remove(id, removed),
+                    version.calendarIndex.remove(id, removed), version.nextId), Mutation.deleted(index), 1);
+            return removed;
+        }
+    }
+
+    /**
+     * Removes the tasks at the given indexes in one pass and returns them.
+     *
+     * @param indexes 0-based task indexes, ascending and distinct.
+     * @return Removed tasks, in list order.
+     */
+    public List<Task> removeAll(int[] indexes) {
+        assert isAscending(indexes) : "removeAll(): indexes must be ascending and distinct";
+
+        synchronized (writeLock) {
+            Version version = current;
+            List<Task> removed = new ArrayList<>(indexes.length);
+            SearchIndex searchIndex = version.searchIndex;
+            DuplicateIndex duplicateIndex = version.duplicateIndex;
+            CalendarIndex calendarIndex = version.calendarIndex;
+            for (int index : indexes) {
+                Task task = version.getTaskAt(index, "removeAll()");
+                int id = version.tasks.idAt(index);
+                removed.add(task);
+                searchIndex.remove(task);
+                duplicateIndex = duplicateIndex.remove(id, task);
+                calendarIndex = calendarIndex.remove(id, task);
+            }
+
+            TaskStore tasks = version.tasks.removeAll(indexes);
+            if (searchIndex.needsRebuild()) {
+                SearchIndex rebuilt = new SearchIndex();
+                tasks.forEach(rebuilt::add);
+                searchIndex = rebuilt;
+            }
+            publish(new Version(tasks, searchIndex, duplicateIndex, calendarIndex, version.nextId),
+                    Mutation.deletedAll(indexes), indexes.length);
+            return removed;
+        }
     }
 
     /**
@@ -77,9 +186,7 @@ public class TaskList {
      * @return Updated task.
      */
     public Task markDone(int index) {
-        Task task = getTaskAt(index, "markDone()");
-        task.markDone();
-        return task;
+        return setDone(index, true, "markDone()");
     }
 
     /**
@@ -89,9 +196,57 @@ public class TaskList {
      * @return Updated task.
      */
     public Task markUndone(int index) {
-        Task task = getTaskAt(index, "markUndone()");
-        task.markUndone();
-        return task;
+        return setDone(index, false, "markUndone()");
+    }
+
+    /**
+     * Sets the completion status of the tasks at the given indexes, publishing the change once.
+     *
+     * @param indexes 0-based task indexes, ascending and distinct.
+     * @param isDone New completion status.
+     * @return Number of tasks whose status changed.
+     */
+    public int markAll(int[] indexes, boolean isDone) {
+        assert isAscending(indexes) : "markAll(): indexes must be ascending and distinct";
+
+        synchronized (writeLock) {
+            Version version = current;
+            TaskStore tasks = version.tasks;
+            int[] changed = new int[indexes.length];
+            int changedCount = 0;
+            for (int index : indexes) {
+                Task task = version.getTaskAt(index, "markAll()");
+                Task updated = task.withDone(isDone);
+                if (updated != task) {
+                    tasks = tasks.replace(index, updated);
+                    changed[changedCount++] = index;
+                }
+            }
+            if (changedCount > 0) {
+                publish(new Version(tasks, version.searchIndex, version.duplicateIndex, version.calendarIndex,
+                        version.nextId), Mutation.markedAll(Arrays.copyOf(changed, changedCount), isDone),
+                        changedCount);
+            }
+            return changedCount;
+        }
+    }
+
+    /**
+     * Returns the positions of all tasks that are done.
+     *
+     * @return 0-based task indexes, ascending.
+     */
+    public int[] doneIndexes() {
+        Version version = current;
+        IntStream.Builder indexes = IntStream.builder();
+        int[] position = new int[1];
+        version.tasks.forEach((id, task) -> {
+            if (task.isDone()) {
+                indexes.add(position[0]);
+            }
+            position[0]++;
+        });
+        return indexes.build().toArray();
     }
 
     /**
@@ -103,51 +258,364 @@ public class TaskList {
     public int indexOfDuplicate(Task candidate) {
         assert candidate != null : "indexOfDuplicate(): candidate must not be null";
 
-        for (int i = 0; i < tasks.size(); i++) {
-            if (tasks.get(i).isSameTask(candidate)) {
-                return i;
+        OrionEvents.DuplicateCheckEvent event = new OrionEvents.DuplicateCheckEvent();
+        event.begin();
+        Version version = current;
+        int id;
+        if (event.isEnabled()) {
+            int[] examined = new int[1];
+            id = version.duplicateIndex.firstIdOf(candidate, candidateId -> {
+                examined[0]++;
+                return version.tasks.getById(candidateId);
+            });
+            event.candidatesExamined = examined[0];
+        } else {
+            id = version.duplicateIndex.firstIdOf(candidate, version.tasks::getById);
+        }
+        int index = (id == -1) ? -1 : version.indexOfId(id);
+
+        if (event.shouldCommit()) {
+            event.taskCount = version.tasks.size();
+            event.found = (index != -1);
+            event.commit();
+        }
+        return index;
+    }
+
+    /**
+     * Restores the list as it was before the latest change that has not been undone.
+     *
+     * @return The change undone and how to apply the undo to a copy of the list, or {@code null} if there is
+     *         nothing to undo.
+     */
+    public Revision undo() {
+        synchronized (writeLock) {
+            Step step = undoSteps.poll();
+            if (step == null) {
+                return null;
             }
+            Version undone = current;
+            redoSteps.push(new Step(undone, step.change(), step.bytes()));
+            restore(step.version());
+            return new Revision(step.change(), inverseOf(step.change(), step.version(), undone));
         }
-        return -1;
     }
 
     /**
-     * Returns an unmodifiable view of the underlying task list.
+     * Reapplies the change most recently undone, unless the list has been changed since.
      *
-     * @return Unmodifiable list of tasks.
+     * @return The change reapplied and how to apply it to a copy of the list, or {@code null} if there is
+     *         nothing to redo.
+     */
+    public Revision redo() {
+        synchronized (writeLock) {
+            Step step = redoSteps.poll();
+            if (step == null) {
+                return null;
+            }
+            undoSteps.push(new Step(current, step.change(), step.bytes()));
+            restore(step.version());
+            return new Revision(step.change(), List.of(step.change()));
+        }
+    }
+
+    /**
+     * Returns an unmodifiable view of the task list as it is now. Later changes to this list do not affect the
+     * view, so it can be saved or iterated while other threads keep changing the list.
+     *
+     * @return Unmodifiable point-in-time list of tasks.
      */
     public List<Task> asUnmodifiableList() {
-        assert tasks != null : "Internal task list must not be null";
-        return Collections.unmodifiableList(tasks);
+        return current.tasks.values();
     }
 
     /**
      * Returns tasks whose descriptions contain the given keyword (case-insensitive).
+     * Each search is reported to Java Flight Recorder as an {@link OrionEvents.FindEvent} when enabled.
      *
      * @param keyword Keyword to search for.
      * @return List of matching tasks, in the same order as the task list.
      */
     public List<Task> find(String keyword) {
+        String needle = (keyword == null) ? "" : keyword.trim().toLowerCase();
         List<Task> matches = new ArrayList<>();
-        for (Task task : tasks) {
-            if (task.matches(keyword)) {
-                matches.add(task);
+        if (needle.isEmpty()) {
+            return matches;
+        }
+
+        OrionEvents.FindEvent event = new OrionEvents.FindEvent();
+        event.begin();
+        Version version = current;
+        int[] candidates = version.searchIndex.candidates(needle, version.nextId);
+        if (candidates == null) {
+            // Keyword too short for the index.
+            version.tasks.forEachWithDescription(description -> description.toLowerCase().contains(needle),
+                    (id, task) -> matches.add(task));
+        } else {
+            // Candidate ids are ascending, so they are in list order.
+            for (int id : candidates) {
+                Task task = version.tasks.getById(id);
+                if (task != null && task.matches(keyword)) { // null: removed, but still in the search index
+                    matches.add(task);
+                }
             }
         }
+
+        if (event.shouldCommit()) {
+            event.keywordLength = needle.length();
+            event.matches = matches.size();
+            event.tasksScanned = (candidates == null) ? version.tasks.size() : candidates.length;
+            event.usedIndex = (candidates != null);
+            event.commit();
+        }
         return matches;
     }
 
+    /**
+     * Returns the tasks matching {@code query}, in list order.
+     * Candidates come from the cheapest of the usable access paths: the calendar index for a date range, the
+     * calendar index's deadline or event partition for a type, the search index for a text term of at least
+     * three characters, or a scan of every task; each path's cost is its estimated number of candidates. Every
+     * candidate is then checked against the whole query. There is no partition by completion status or for todos,
+     * so those terms are only checked per task.
+     *
+     * @param query Query to run.
+     * @return Matches, the plan used and the number of tasks examined.
+     */
+    public TaskQuery.Result query(TaskQuery query) {
+        assert query != null : "query(): query must not be null";
+
+        OrionEvents.FindEvent event = new OrionEvents.FindEvent();
+        event.begin();
+        Version version = current;
+        TaskQuery.Plan plan = plan(version, query);
+        TaskQuery.AccessPath access = plan.chosen();
+        List<Task> matches = new ArrayList<>();
+        int examined;
+        if (access.kind() == TaskQuery.AccessKind.FULL_SCAN) {
+            version.tasks.forEachWithDescription(query::matchesDescription, (id, task) -> {
+                if (query.matchesFields(task)) {
+                    matches.add(task);
+                }
+            });
+            examined = version.tasks.size();
+        } else {
+            int[] ids = candidateIds(version, query, access);
+            Arrays.sort(ids); // list order
+            for (int id : ids) {
+                Task task = version.tasks.getById(id);
+                if (task != null && query.matches(task)) { // null: removed, but still in the search index
+                    matches.add(task);
+                }
+            }
+            examined = ids.length;
+        }
+
+        if (event.shouldCommit()) {
+            event.keywordLength = query.getIncludes().stream().mapToInt(String::length).max().orElse(0);
+            event.matches = matches.size();
+            event.tasksScanned = examined;
+            event.usedIndex = (access.kind() != TaskQuery.AccessKind.FULL_SCAN);
+            event.commit();
+        }
+        return new TaskQuery.Result(matches, plan, examined, version.tasks.size());
+    }
+
+    /**
+     * Returns the positions of deadlines due on or before {@code date}, ordered by due date and time.
+     *
+     * @param date Last due date to include.
+     * @return 0-based task indexes.
+     */
+    public int[] deadlinesDueBy(LocalDate date) {
+        assert date != null : "deadlinesDueBy(): date must not be null";
+        Version version = current;
+        return version.toIndexes(version.calendarIndex.deadlinesBetween(null, date));
+    }
+
+    /**
+     * Returns the positions of deadlines due and events taking place between {@code from} and {@code to}
+     * (inclusive), ordered by due/start date and time.
+     *
+     * @param from First day.
+     * @param to Last day.
+     * @return 0-based task indexes.
+     */
+    public int[] agenda(LocalDate from, LocalDate to) {
+        assert from != null && to != null : "agenda(): dates must not be null";
+        Version version = current;
+        return version.toIndexes(version.calendarIndex.agenda(from, to));
+    }
+
     // ---- Helpers ----
 
-    private Task getTaskAt(int index, String caller) {
-        assertIndexInBounds(index, caller);
-        Task task = tasks.get(index);
-        assert task != null : caller + ": task must not be null at index " + index;
-        return task;
+    private Task setDone(int index, boolean isDone, String caller) {
+        synchronized (writeLock) {
+            Version version = current;
+            Task task = version.getTaskAt(index, caller);
+            Task updated = task.withDone(isDone);
+            if (updated != task) {
+                publish(new Version(version.tasks.replace(index, updated), version.searchIndex,
+                        version.duplicateIndex, version.calendarIndex, version.nextId),
+                        Mutation.marked(index, isDone), 1);
+            }
+            return updated;
+        }
+    }
+
+    /**
+     * Makes {@code next} the current version and records the change for undo, dropping the redo history.
+     * Must hold {@code writeLock}.
+     */
+    private void publish(Version next, Mutation change, int changedTasks) {
+        Version previous = current;
+        current = next;
+
+        for (Step step : redoSteps) {
+            historyBytes -= step.bytes();
+        }
+        redoSteps.clear();
+        long bytes = previous.tasks.updateBytes(changedTasks)
+                + 2 * PersistentTreap.updateBytes(previous.tasks.size(), changedTasks); // duplicate and calendar
+        undoSteps.push(new Step(previous, change, bytes));
+        historyBytes += bytes;
+        while (historyBytes > undoBudget && !undoSteps.isEmpty()) {
+            historyBytes -= undoSteps.removeLast().bytes();
+        }
     }
 
-    private void assertIndexInBounds(int index, String caller) {
-        assert index >= 0 && index < tasks.size()
-                : caller + ": index out of bounds: " + index + " (size=" + tasks.size() + ")";
+    /**
+     * Makes an earlier or undone version current again. Ids keep increasing across restores, so ids handed out
+     * in between are never reused. Must hold {@code writeLock}.
+     */
+    private void restore(Version version) {
+        current = new Version(version.tasks, version.searchIndex, version.duplicateIndex, version.calendarIndex,
+                Math.max(version.nextId, current.nextId));
+    }
+
+    /**
+     * Returns the changes that turn {@code after}, the list right after {@code change}, back into {@code before}.
+     */
+    private static List<Mutation> inverseOf(Mutation change, Version before, Version after) {
+        int[] indexes = change.getIndexes();
+        switch (change.getKind()) {
+        case ADD:
+            return List.of(Mutation.deleted(after.tasks.size() - 1));
+        case MARK:
+            return List.of(Mutation.markedAll(indexes, false));
+        case UNMARK:
+            return List.of(Mutation.markedAll(indexes, true));
+        default:
+            // DELETE: put each task back, in ascending order so every index is final when it is used.
+            List<Mutation> inserts = new ArrayList<>(indexes.length);
+            for (int index : indexes) {
+                inserts.add(Mutation.inserted(index, before.tasks.get(index)));
+            }
+            return inserts;
+        }
+    }
+
+    private static boolean isAscending(int[] indexes) {
+        for (int i = 1; i < indexes.length; i++) {
+            if (indexes[i - 1] >= indexes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lists the access paths usable for {@code query} with their estimated candidates and picks the cheapest;
+     * on a tie, the earlier {@link TaskQuery.AccessKind} wins.
+     */
+    private static TaskQuery.Plan plan(Version version, TaskQuery query) {
+        List<TaskQuery.AccessPath> paths = new ArrayList<>();
+        TaskQuery.Type type = query.getType();
+        boolean wantsDeadlines = (type == null || type == TaskQuery.Type.DEADLINE);
+        boolean wantsEvents = (type == null || type == TaskQuery.Type.EVENT);
+
+        if (query.isDated()) {
+            LocalDate[] range = query.candidateDateRange();
+            long estimate = version.calendarIndex.estimateBetween(range[0], range[1], wantsDeadlines, wantsEvents);
+            paths.add(new TaskQuery.AccessPath(TaskQuery.AccessKind.DATE_INDEX, null, estimate,
+                    "date index " + TaskQuery.describeRange(range[0], range[1])));
+        }
+        if (type == TaskQuery.Type.DEADLINE || type == TaskQuery.Type.EVENT) {
+            int count = (type == TaskQuery.Type.DEADLINE)
+                    ? version.calendarIndex.deadlineCount()
+                    : version.calendarIndex.eventCount();
+            paths.add(new TaskQuery.AccessPath(TaskQuery.AccessKind.TYPE_PARTITION, null, count,
+                    type.word() + " partition"));
+        }
+        for (String include : query.getIncludes()) {
+            int estimate = version.searchIndex.estimate(include, version.nextId);
+            if (estimate >= 0) {
+                paths.add(new TaskQuery.AccessPath(TaskQuery.AccessKind.TEXT_INDEX, include, estimate,
+                        "text index for \"" + include + "\""));
+            }
+        }
+        paths.add(new TaskQuery.AccessPath(TaskQuery.AccessKind.FULL_SCAN, null, version.tasks.size(),
+                "full scan"));
+
+        paths.sort((a, b) -> (a.estimatedRows() != b.estimatedRows())
+                ? Long.compare(a.estimatedRows(), b.estimatedRows())
+                : a.kind().compareTo(b.kind()));
+        return new TaskQuery.Plan(paths.get(0), List.copyOf(paths.subList(1, paths.size())));
+    }
+
+    /**
+     * Returns the ids {@code access} yields for {@code query}, in no particular order.
+     */
+    private static int[] candidateIds(Version version, TaskQuery query, TaskQuery.AccessPath access) {
+        TaskQuery.Type type = query.getType();
+        switch (access.kind()) {
+        case DATE_INDEX:
+            LocalDate[] range = query.candidateDateRange();
+            return version.calendarIndex.datedBetween(range[0], range[1],
+                    type == null || type == TaskQuery.Type.DEADLINE, type == null || type == TaskQuery.Type.EVENT);
+        case TYPE_PARTITION:
+            return version.calendarIndex.datedBetween(null, null,
+                    type == TaskQuery.Type.DEADLINE, type == TaskQuery.Type.EVENT);
+        case TEXT_INDEX:
+            return version.searchIndex.candidates(access.term(), version.nextId);
+        default:
+            throw new AssertionError("candidateIds(): no candidates for " + access.kind());
+        }
+    }
+
+    /**
+     * A version kept for undo or redo, the change that leads from or to it, and its estimated cost in bytes.
+     */
+    private record Step(Version version, Mutation change, long bytes) {
+    }
+
+    /**
+     * Tasks and their indexes at one point in time.
+     * The search index is shared with later versions, which only append ids at or above {@code nextId}.
+     */
+    private record Version(TaskStore tasks, SearchIndex searchIndex, DuplicateIndex duplicateIndex,
+            CalendarIndex calendarIndex, int nextId) {
+
+        private int[] toIndexes(int[] idsToMap) {
+            int[] indexes = new int[idsToMap.length];
+            for (int i = 0; i < idsToMap.length; i++) {
+                indexes[i] = indexOfId(idsToMap[i]);
+            }
+            return indexes;
+        }
+
+        private int indexOfId(int id) {
+            int index = tasks.positionOf(id);
+            assert index >= 0 : "indexOfId(): unknown id " + id;
+            return index;
+        }
+
+        private Task getTaskAt(int index, String caller) {
+            assert index >= 0 && index < tasks.size()
+                    : caller + ": index out of bounds: " + index + " (size=" + tasks.size() + ")";
+            Task task = tasks.get(index);
+            assert task != null : caller + ": task must not be null at index " + index;
+            return task;
+        }
     }
 }
@@ -0,0 +1,272 @@
+package orion;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Search of the task list made of terms that must all hold: words or quoted phrases the description contains,
+ * {@code -word} exclusions, and {@code type:}, {@code done:}, {@code before:}, {@code after:} and {@code on:}
+ * filters. Parsed by {@link Parser#parseFindQuery(String)} and run by {@link TaskList#query(TaskQuery)}, which
+ * picks the cheapest {@link AccessPath} to the candidates and checks each one with {@link #matches(Task)}.
+ * <p>
+ * A date filter holds for deadlines due in its range and events that overlap it; todos have no date, so they
+ * never pass one. Text terms are compared case-insensitively, as {@link Task#matches(String)} does.
+ */
+public final class TaskQuery {
+    /**
+     * Task types a query can be limited to.
+     */
+    public enum Type {
+        TODO, DEADLINE, EVENT;
+
+        /**
+         * Returns the type's name as written in queries, e.g. {@code deadline}.
+         *
+         * @return Lowercase name.
+         */
+        public String word() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Ways {@link TaskList#query(TaskQuery)} can find candidate tasks, most selective first when costs tie.
+     */
+    public enum AccessKind {
+        /** Deadlines and events in the query's date range, from the calendar index. */
+        DATE_INDEX,
+        /** Every deadline, or every event, from the calendar index. */
+        TYPE_PARTITION,
+        /** Tasks whose descriptions share a text term's trigrams, from the search index. */
+        TEXT_INDEX,
+        /** Every task. */
+        FULL_SCAN
+    }
+
+    /**
+     * One way to find the candidates of a query.
+     *
+     * @param kind Index or scan used.
+     * @param term Text term for {@link AccessKind#TEXT_INDEX}, otherwise {@code null}.
+     * @param estimatedRows Number of candidates it is expected to produce.
+     * @param description Readable summary, e.g. {@code text index for "report"}.
+     */
+    public record AccessPath(AccessKind kind, String term, long estimatedRows, String description) {
+    }
+
+    /**
+     * Access path chosen for a query, and the other paths that were considered.
+     *
+     * @param chosen Path with the lowest estimate.
+     * @param alternatives The other usable paths, cheapest first.
+     */
+    public record Plan(AccessPath chosen, List<AccessPath> alternatives) {
+    }
+
+    /**
+     * Outcome of running a query.
+     *
+     * @param matches Matching tasks, in list order.
+     * @param plan Plan that produced them.
+     * @param examined Number of candidate tasks checked against the query.
+     * @param taskCount Number of tasks in the list that was searched.
+     */
+    public record Result(List<Task> matches, Plan plan, int examined, int taskCount) {
+    }
+
+    private final String source;
+    private final List<String> includes; // lowercase
+    private final List<String> excludes; // lowercase
+    private final Type type; // null: any type
+    private final Boolean done; // null: done or not
+    private final List<LocalDate[]> dateRanges; // {from, to}, either null for no bound
+
+    /**
+     * Constructs a query from its terms.
+     *
+     * @param source Query as typed, shown by {@code find --explain}.
+     * @param includes Lowercase texts every matching description contains.
+     * @param excludes Lowercase texts no matching description contains.
+     * @param type Type of matching tasks, or {@code null} for any.
+     * @param done Completion status of matching tasks, or {@code null} for any.
+     * @param dateRanges Inclusive {@code {from, to}} day ranges a matching task's date must overlap; either
+     *         bound may be {@code null} for none.
+     */
+    TaskQuery(String source, List<String> includes, List<String> excludes, Type type, Boolean done,
+            List<LocalDate[]> dateRanges) {
+        this.source = source;
+        this.includes = List.copyOf(includes);
+        this.excludes = List.copyOf(excludes);
+        this.type = type;
+        this.done = done;
+        this.dateRanges = List.copyOf(dateRanges);
+    }
+
+    /**
+     * Returns a query for tasks whose descriptions contain {@code keyword}, as plain {@code find} searches.
+     *
+     * @param keyword Keyword to search for.
+     * @return Query with one text term.
+     */
+    static TaskQuery keyword(String keyword) {
+        String needle = keyword.trim().toLowerCase();
+        return new TaskQuery(keyword.trim(), needle.isEmpty() ? List.of() : List.of(needle), List.of(), null,
+                null, List.of());
+    }
+
+    /**
+     * Returns true if {@code task} satisfies every term.
+     *
+     * @param task Task to check.
+     * @return Whether the task matches.
+     */
+    public boolean matches(Task task) {
+        return matchesFields(task) && matchesDescription(task.getDescription());
+    }
+
+    /**
+     * Returns true if {@code task} satisfies the type, status and date terms, ignoring the text terms.
+     */
+    boolean matchesFields(Task task) {
+        if (type != null && typeOf(task) != type) {
+            return false;
+        }
+        if (done != null && task.isDone() != done) {
+            return false;
+        }
+        for (LocalDate[] range : dateRanges) {
+            if (!overlaps(task, range[0], range[1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if {@code description} satisfies the text terms.
+     */
+    boolean matchesDescription(String description) {
+        if (includes.isEmpty() && excludes.isEmpty()) {
+            return true;
+        }
+        String text = description.toLowerCase();
+        for (String include : includes) {
+            if (!text.contains(include)) {
+                return false;
+            }
+        }
+        for (String exclude : excludes) {
+            if (text.contains(exclude)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    List<String> getIncludes() {
+        return includes;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    boolean isDated() {
+        return !dateRanges.isEmpty();
+    }
+
+    /**
+     * Returns the day range the calendar index should be searched over: where every date term overlaps, or if
+     * they do not all overlap, the first term's range. Every task that passes the date terms is a deadline or
+     * event with a date in this range.
+     *
+     * @return {@code {from, to}}, either {@code null} for no bound.
+     */
+    LocalDate[] candidateDateRange() {
+        assert isDated() : "candidateDateRange(): query has no date terms";
+        LocalDate from = null;
+        LocalDate to = null;
+        for (LocalDate[] range : dateRanges) {
+            from = later(from, range[0]);
+            to = earlier(to, range[1]);
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            return dateRanges.get(0).clone();
+        }
+        return new LocalDate[] {from, to};
+    }
+
+    /**
+     * Returns a readable list of the terms, e.g. {@code type is deadline; not done; mentions "report"}.
+     *
+     * @return Terms, or {@code any task} if there are none.
+     */
+    String describeTerms() {
+        List<String> terms = new ArrayList<>();
+        if (type != null) {
+            terms.add("type is " + type.word());
+        }
+        if (done != null) {
+            terms.add(done ? "done" : "not done");
+        }
+        for (LocalDate[] range : dateRanges) {
+            terms.add("dated " + describeRange(range[0], range[1]));
+        }
+        for (String include : includes) {
+            terms.add("mentions \"" + include + "\"");
+        }
+        for (String exclude : excludes) {
+            terms.add("does not mention \"" + exclude + "\"");
+        }
+        return terms.isEmpty() ? "any task" : String.join("; ", terms);
+    }
+
+    /**
+     * Returns a readable inclusive day range, e.g. {@code up to 2024-12-31}.
+     */
+    static String describeRange(LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return "any day";
+        } else if (from == null) {
+            return "up to " + to;
+        } else if (to == null) {
+            return "from " + from;
+        }
+        return from.equals(to) ? "on " + from : "from " + from + " to " + to;
+    }
+
+    static Type typeOf(Task task) {
+        if (task instanceof Deadline) {
+            return Type.DEADLINE;
+        }
+        return (task instanceof Event) ? Type.EVENT : Type.TODO;
+    }
+
+    private static boolean overlaps(Task task, LocalDate from, LocalDate to) {
+        LocalDate start;
+        LocalDate end;
+        if (task instanceof Deadline deadline) {
+            start = deadline.getByDate();
+            end = start;
+        } else if (task instanceof Event event) {
+            start = event.getFromDate();
+            end = event.getToDate();
+        } else {
+            return false;
+        }
+        return (to == null || !start.isAfter(to)) && (from == null || !end.isBefore(from));
+    }
+
+    private static LocalDate later(LocalDate a, LocalDate b) {
+        return (a == null || (b != null && b.isAfter(a))) ? b : a;
+    }
+
+    private static LocalDate earlier(LocalDate a, LocalDate b) {
+        return (a == null || (b != null && b.isBefore(a))) ? b : a;
+    }
+}
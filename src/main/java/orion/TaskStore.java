@@ -0,0 +1,153 @@
+package orion;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Immutable sequence of tasks, each with a stable id; ids increase along the sequence.
+ * Updates return a new store that shares structure with this one, so a store can be read from any thread while
+ * a writer derives newer stores from it. Updates to stores derived from one another must be serialized.
+ * <p>
+ * Two layouts are available: {@link ObjectTaskStore}, which keeps the task objects themselves, and
+ * {@link ColumnarTaskStore}, which keeps their fields in primitive arrays and creates task objects on demand.
+ * The {@code orion.taskStore} system property picks the layout; {@code columnar} selects the columnar one.
+ */
+interface TaskStore {
+    /** System property naming the layout of new task lists. */
+    String LAYOUT_PROPERTY = "orion.taskStore";
+    /** Value of {@link #LAYOUT_PROPERTY} that selects {@link ColumnarTaskStore}. */
+    String COLUMNAR = "columnar";
+
+    /**
+     * Receives tasks in list order.
+     */
+    interface Visitor {
+        void visit(int id, Task task);
+    }
+
+    /**
+     * Returns {@code true} if the system properties select the columnar layout.
+     *
+     * @return Whether new task lists should be columnar.
+     */
+    static boolean isColumnarConfigured() {
+        return COLUMNAR.equalsIgnoreCase(System.getProperty(LAYOUT_PROPERTY));
+    }
+
+    /**
+     * Returns a store of {@code tasks}, where the task at position {@code i} has id {@code i}.
+     *
+     * @param tasks Tasks to store.
+     * @param isColumnar True for the columnar layout, false to keep the task objects.
+     * @return New store.
+     */
+    static TaskStore of(List<Task> tasks, boolean isColumnar) {
+        return isColumnar ? ColumnarTaskStore.of(tasks) : ObjectTaskStore.of(tasks);
+    }
+
+    /**
+     * Returns the number of tasks.
+     *
+     * @return Task count.
+     */
+    int size();
+
+    /**
+     * Returns the task at {@code index}.
+     *
+     * @param index 0-based position.
+     * @return Task at that position.
+     */
+    Task get(int index);
+
+    /**
+     * Returns the id of the task at {@code index}.
+     *
+     * @param index 0-based position.
+     * @return Stable id.
+     */
+    int idAt(int index);
+
+    /**
+     * Returns the position of the task with {@code id}.
+     *
+     * @param id Stable id.
+     * @return 0-based position, or -1 if no task has that id.
+     */
+    int positionOf(int id);
+
+    /**
+     * Returns the task with {@code id}.
+     *
+     * @param id Stable id.
+     * @return Task, or {@code null} if no task has that id.
+     */
+    Task getById(int id);
+
+    /**
+     * Returns a store with {@code task} appended under {@code id}.
+     *
+     * @param id Stable id, greater than every id in this store.
+     * @param task Task to append.
+     * @return Updated store.
+     */
+    TaskStore add(int id, Task task);
+
+    /**
+     * Returns a store without the task at {@code index}.
+     *
+     * @param index 0-based position.
+     * @return Updated store.
+     */
+    TaskStore remove(int index);
+
+    /**
+     * Returns a store without the tasks at {@code indexes}, built in one pass over the affected part of the store.
+     *
+     * @param indexes 0-based positions, ascending and distinct.
+     * @return Updated store.
+     */
+    TaskStore removeAll(int[] indexes);
+
+    /**
+     * Returns a store where the task at {@code index} is replaced by {@code task}, a copy of it that differs at
+     * most in its completion status.
+     *
+     * @param index 0-based position.
+     * @param task Replacement task.
+     * @return Updated store.
+     */
+    TaskStore replace(int index, Task task);
+
+    /**
+     * Estimates the bytes that a store derived from this one by changing {@code changedTasks} tasks does not share
+     * with it, i.e. what keeping this store alive next to the new one costs.
+     *
+     * @param changedTasks Number of tasks added, removed or replaced.
+     * @return Estimated bytes.
+     */
+    long updateBytes(int changedTasks);
+
+    /**
+     * Visits every task in list order.
+     *
+     * @param visitor Receives each task with its id.
+     */
+    void forEach(Visitor visitor);
+
+    /**
+     * Visits, in list order, every task whose description satisfies {@code test}.
+     * The columnar layout tests descriptions without creating the other tasks.
+     *
+     * @param test Test of a task's description.
+     * @param visitor Receives each matching task with its id.
+     */
+    void forEachWithDescription(Predicate<String> test, Visitor visitor);
+
+    /**
+     * Returns an unmodifiable list view of the tasks, in order.
+     *
+     * @return List view.
+     */
+    List<Task> values();
+}
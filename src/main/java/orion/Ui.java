@@ -1,10 +1,15 @@
 package orion;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * Formats responses shown to the user.
- * This class does not read input or print output; it only returns Strings.
+ * This class does not read input or print output; it returns Strings, or for task listings that can be
+ * arbitrarily long, writes them line by line to an {@link Appendable} supplied by the caller.
  */
 public class Ui {
     private static final String INDENT = "    ";
@@ -14,10 +19,18 @@ public class Ui {
 
     private static final String WELCOME_TITLE = "Hello! I'm Orion";
     private static final String WELCOME_PROMPT = "What can I do for you?";
+    private static final String LOADING_PREFIX = "Loading your tasks... ";
+    private static final String LOADING_SUFFIX = " read so far.";
+    private static final String LOADING_NOTE = "Commands you type now will run once loading is done.";
     private static final String BYE_MESSAGE = "Bye. Hope to see you again soon!";
 
     private static final String LIST_HEADER = "Here are the tasks in your list:";
+    private static final String RANGE_PREFIX = "Showing tasks ";
+    private static final String EMPTY_RANGE_PREFIX = "No tasks in that range; the list has ";
     private static final String FIND_HEADER = "Here are the matching tasks in your list:";
+    private static final String DUE_HEADER_PREFIX = "Here are the unfinished deadlines due by ";
+    private static final String OVERDUE_HEADER = "Here are your overdue deadlines:";
+    private static final String AGENDA_HEADER_PREFIX = "Here is your agenda for ";
 
     private static final String ADD_HEADER = "Got it. I've added this task:";
     private static final String DELETE_HEADER = "Noted. I've removed this task:";
@@ -26,6 +39,19 @@ public class Ui {
 
     private static final String MARK_DONE_MESSAGE = "Nice! I've marked this task as done:";
     private static final String MARK_UNDONE_MESSAGE = "OK, I've marked this task as not done yet:";
+    private static final String BULK_MARK_DONE_SUFFIX = " as done.";
+    private static final String BULK_MARK_UNDONE_SUFFIX = " as not done yet.";
+    private static final String BULK_UNCHANGED_SUFFIX = " of them already were.";
+    private static final String BULK_DELETE_PREFIX = "Noted. I've removed ";
+    private static final String UNDO_PREFIX = "Undone: ";
+    private static final String REDO_PREFIX = "Redone: ";
+    private static final String STATS_HEADER = "Command latency since startup:";
+    private static final String STATS_EMPTY = "No commands have been timed yet.";
+
+    private static final String PLAN_HEADER = "Query plan for: ";
+    private static final String PLAN_ACCESS = "access: ";
+    private static final String PLAN_FILTER = "filter: ";
+    private static final String PLAN_ALTERNATIVES = "also considered: ";
 
     private static final String DUPLICATE_HEADER = "That task already exists in your list (not added):";
 
@@ -41,6 +67,21 @@ public class Ui {
         );
     }
 
+    /**
+     * Returns the greeting shown while the task file is still loading.
+     *
+     * @param loadedCount Tasks read so far.
+     * @return Loading message string.
+     */
+    public String formatLoading(int loadedCount) {
+        assert loadedCount >= 0 : "formatLoading(): loadedCount must be non-negative";
+        return framed(
+                INDENT + WELCOME_TITLE,
+                INDENT + LOADING_PREFIX + loadedCount + LOADING_SUFFIX,
+                INDENT + LOADING_NOTE
+        );
+    }
+
     /**
      * Returns the exit message.
      *
@@ -68,16 +109,61 @@ public class Ui {
      * @return Task list string.
      */
     public String formatList(TaskList tasks) {
-        assert tasks != null : "formatList(): tasks must not be null";
-
-        StringBuilder body = new StringBuilder();
-        body.append(INDENT).append(LIST_HEADER).append(LS);
+        return formatList(tasks, 0, Integer.MAX_VALUE);
+    }
 
-        for (int i = 0; i < tasks.size(); i++) {
-            body.append(formatNumberedTaskLine(i + 1, tasks.get(i)));
+    /**
+     * Returns the formatted part of the task list, as written by {@link #writeList(TaskList, int, int, Appendable)}.
+     *
+     * @param tasks TaskList to display.
+     * @param offset Number of tasks to skip.
+     * @param limit Maximum number of tasks to show.
+     * @return Task list string.
+     */
+    public String formatList(TaskList tasks, int offset, int limit) {
+        StringBuilder out = new StringBuilder();
+        try {
+            writeList(tasks, offset, limit, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder does not throw
         }
+        return out.toString();
+    }
 
-        return framed(body.toString());
+    /**
+     * Writes up to {@code limit} tasks of the list starting at 0-based {@code offset}, one line at a time, so
+     * memory use does not grow with the list. Tasks keep their numbers from the whole list. If some tasks are
+     * left out, a last line says which ones are shown. The tasks come from one snapshot of the list.
+     *
+     * @param tasks TaskList to display.
+     * @param offset Number of tasks to skip.
+     * @param limit Maximum number of tasks to show.
+     * @param out Destination.
+     * @throws IOException If {@code out} cannot be written.
+     */
+    public void writeList(TaskList tasks, int offset, int limit, Appendable out) throws IOException {
+        assert tasks != null : "writeList(): tasks must not be null";
+        assert offset >= 0 && limit >= 1 : "writeList(): invalid range " + offset + "+" + limit;
+
+        List<Task> snapshot = tasks.asUnmodifiableList();
+        int size = snapshot.size();
+        int from = Math.min(offset, size);
+        int to = (int) Math.min(size, (long) from + limit);
+
+        out.append(LINE).append(LS);
+        out.append(INDENT).append(LIST_HEADER).append(LS);
+        // Walking the snapshot from the start is cheaper per task than looking each one up by position.
+        Iterator<Task> shown = (from == 0) ? snapshot.iterator() : snapshot.subList(from, to).iterator();
+        for (int number = from + 1; number <= to; number++) {
+            writeNumberedTaskLine(number, shown.next(), out);
+        }
+        if (from == to && size > 0) {
+            out.append(INDENT).append(EMPTY_RANGE_PREFIX).append(String.valueOf(size)).append(" tasks.").append(LS);
+        } else if (to - from < size) {
+            out.append(INDENT).append(RANGE_PREFIX).append(String.valueOf(from + 1)).append("-")
+                    .append(String.valueOf(to)).append(" of ").append(String.valueOf(size)).append(".").append(LS);
+        }
+        out.append(LINE).append(LS);
     }
 
     /**
@@ -133,6 +219,86 @@ public class Ui {
         );
     }
 
+    /**
+     * Returns a summary after marking/unmarking several tasks at once.
+     *
+     * @param selected Number of tasks selected.
+     * @param changed Number of those whose status changed.
+     * @param isMark True if marking done, false if unmarking.
+     * @return Bulk mark/unmark message string.
+     */
+    public String formatBulkMark(int selected, int changed, boolean isMark) {
+        assert changed >= 0 && changed <= selected : "formatBulkMark(): changed must be within 0..selected";
+
+        String header = (isMark ? "Nice! I've marked " : "OK, I've marked ") + taskCount(selected)
+                + (isMark ? BULK_MARK_DONE_SUFFIX : BULK_MARK_UNDONE_SUFFIX);
+        if (changed == selected) {
+            return framed(INDENT + header);
+        }
+        return framed(
+                INDENT + header,
+                INDENT + (selected - changed) + BULK_UNCHANGED_SUFFIX
+        );
+    }
+
+    /**
+     * Returns a summary after deleting several tasks at once.
+     *
+     * @param removed Number of tasks removed.
+     * @param size New list size.
+     * @return Bulk delete message string.
+     */
+    public String formatBulkDelete(int removed, int size) {
+        assert removed >= 0 : "formatBulkDelete(): removed must be non-negative";
+        assert size >= 0 : "formatBulkDelete(): size must be non-negative";
+
+        return framed(
+                INDENT + BULK_DELETE_PREFIX + taskCount(removed) + ".",
+                INDENT + COUNT_PREFIX + size + COUNT_SUFFIX
+        );
+    }
+
+    /**
+     * Returns a message after undoing or redoing a change.
+     *
+     * @param change The change as originally made.
+     * @param isRedo True if the change was made again, false if it was undone.
+     * @param size New list size.
+     * @return Undo/redo message string.
+     */
+    public String formatRevision(Mutation change, boolean isRedo, int size) {
+        assert change != null : "formatRevision(): change must not be null";
+
+        int count = change.getIndexes().length;
+        String description = switch (change.getKind()) {
+            case ADD -> "adding " + change.getTask();
+            case MARK -> "marking " + taskCount(count) + " as done";
+            case UNMARK -> "marking " + taskCount(count) + " as not done";
+            default -> "deleting " + taskCount(count);
+        };
+        return framed(
+                INDENT + (isRedo ? REDO_PREFIX : UNDO_PREFIX) + description,
+                INDENT + COUNT_PREFIX + size + COUNT_SUFFIX
+        );
+    }
+
+    /**
+     * Returns the command latency report.
+     *
+     * @param lines Report lines, as returned by {@link CommandStats#summaryLines()}.
+     * @return Stats string.
+     */
+    public String formatStats(List<String> lines) {
+        assert lines != null : "formatStats(): lines must not be null";
+
+        StringBuilder body = new StringBuilder();
+        body.append(INDENT).append(lines.isEmpty() ? STATS_EMPTY : STATS_HEADER).append(LS);
+        for (String line : lines) {
+            body.append(INDENT).append(line).append(LS);
+        }
+        return framed(body.toString());
+    }
+
     /**
      * Returns the formatted find results.
      *
@@ -152,6 +318,82 @@ public class Ui {
         return framed(body.toString());
     }
 
+    /**
+     * Returns the find results followed by the plan that produced them, for {@code find --explain}.
+     *
+     * @param query Query that was run.
+     * @param result Its matches, plan and work done.
+     * @return Find results and plan string.
+     */
+    public String formatQueryPlan(TaskQuery query, TaskQuery.Result result) {
+        assert query != null && result != null : "formatQueryPlan(): query and result must not be null";
+
+        StringBuilder body = new StringBuilder();
+        body.append(INDENT).append(FIND_HEADER).append(LS);
+        List<Task> matches = result.matches();
+        for (int i = 0; i < matches.size(); i++) {
+            body.append(formatNumberedTaskLine(i + 1, matches.get(i)));
+        }
+
+        TaskQuery.Plan plan = result.plan();
+        body.append(INDENT).append(PLAN_HEADER).append(query.getSource()).append(LS);
+        body.append(TASK_INDENT).append(PLAN_ACCESS).append(formatAccessPath(plan.chosen())).append(LS);
+        body.append(TASK_INDENT).append(PLAN_FILTER).append(query.describeTerms()).append(LS);
+        if (!plan.alternatives().isEmpty()) {
+            body.append(TASK_INDENT).append(PLAN_ALTERNATIVES);
+            for (int i = 0; i < plan.alternatives().size(); i++) {
+                body.append((i == 0) ? "" : "; ").append(formatAccessPath(plan.alternatives().get(i)));
+            }
+            body.append(LS);
+        }
+        body.append(INDENT).append("Examined ").append(result.examined()).append(" of ").append(result.taskCount())
+                .append(" tasks; ").append(matches.size()).append(" matched.")
+                .append(LS);
+        return framed(body.toString());
+    }
+
+    /**
+     * Returns the deadlines due by a date, numbered by their position in the task list.
+     *
+     * @param date Date queried.
+     * @param tasks Full task list.
+     * @param indexes 0-based indexes of the tasks to show.
+     * @return Due tasks string.
+     */
+    public String formatDue(LocalDate date, TaskList tasks, int[] indexes) {
+        assert date != null : "formatDue(): date must not be null";
+        return formatSelection(DUE_HEADER_PREFIX + DateTimeUtil.formatForDisplay(date, null) + ":", tasks, indexes);
+    }
+
+    /**
+     * Returns the overdue deadlines, numbered by their position in the task list.
+     *
+     * @param tasks Full task list.
+     * @param indexes 0-based indexes of the tasks to show.
+     * @return Overdue tasks string.
+     */
+    public String formatOverdue(TaskList tasks, int[] indexes) {
+        return formatSelection(OVERDUE_HEADER, tasks, indexes);
+    }
+
+    /**
+     * Returns the deadlines and events in a range of days, numbered by their position in the task list.
+     *
+     * @param from First day.
+     * @param to Last day.
+     * @param tasks Full task list.
+     * @param indexes 0-based indexes of the tasks to show.
+     * @return Agenda string.
+     */
+    public String formatAgenda(LocalDate from, LocalDate to, TaskList tasks, int[] indexes) {
+        assert from != null && to != null : "formatAgenda(): dates must not be null";
+
+        String period = from.equals(to)
+                ? DateTimeUtil.formatForDisplay(from, null)
+                : DateTimeUtil.formatForDisplay(from, null) + " to " + DateTimeUtil.formatForDisplay(to, null);
+        return formatSelection(AGENDA_HEADER_PREFIX + period + ":", tasks, indexes);
+    }
+
     /**
      * Returns a formatted message when the user tries to add a duplicate task.
      *
@@ -203,6 +445,35 @@ public class Ui {
         return sb.toString();
     }
 
+    private static String formatAccessPath(TaskQuery.AccessPath path) {
+        return path.description() + " (est. " + path.estimatedRows() + ")";
+    }
+
+    private static String formatSelection(String header, TaskList tasks, int[] indexes) {
+        assert tasks != null : "formatSelection(): tasks must not be null";
+        assert indexes != null : "formatSelection(): indexes must not be null";
+
+        StringBuilder body = new StringBuilder();
+        body.append(INDENT).append(header).append(LS);
+
+        for (int index : indexes) {
+            body.append(formatNumberedTaskLine(index + 1, tasks.get(index)));
+        }
+
+        return framed(body.toString());
+    }
+
+    private static void writeNumberedTaskLine(int oneBasedIndex, Task task, Appendable out) throws IOException {
+        assert oneBasedIndex >= 1 : "writeNumberedTaskLine(): index must be >= 1";
+        assert task != null : "writeNumberedTaskLine(): task must not be null";
+
+        out.append(INDENT).append(String.valueOf(oneBasedIndex)).append(". ").append(task.toString()).append(LS);
+    }
+
+    private static String taskCount(int count) {
+        return count + ((count == 1) ? " task" : " tasks");
+    }
+
     private static String formatNumberedTaskLine(int oneBasedIndex, Task task) {
         assert oneBasedIndex >= 1 : "formatNumberedTaskLine(): index must be >= 1";
         assert task != null : "formatNumberedTaskLine(): task must not be null";
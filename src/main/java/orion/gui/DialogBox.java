@@ -1,60 +1,76 @@
 package orion.gui;
 
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
  * and a label containing text from the speaker.
+ * The layout is built in code rather than loaded from FXML, so creating a dialog box costs a few node
+ * allocations instead of an FXML parse. A dialog box can be reused for another message with
+ * {@link #show(String, Image, boolean)}.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
-
-    private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private static final double PREF_WIDTH = 400.0;
+    private static final double PICTURE_SIZE = 99.0;
+    private static final Insets PADDING = new Insets(15.0, 5.0, 15.0, 5.0);
 
-        dialog.setText(text);
-        displayPicture.setImage(img);
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
+
+    /**
+     * Constructs an empty dialog box, laid out for the user.
+     */
+    DialogBox() {
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPrefWidth(PREF_WIDTH);
+        setPadding(PADDING);
+
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
+
+        getChildren().setAll(dialog, displayPicture);
+    }
+
+    private DialogBox(String text, Image img, boolean isUser) {
+        this();
+        show(text, img, isUser);
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Shows {@code text} from the given speaker: the user's picture on the right, or Orion's on the left.
+     *
+     * @param text Message text.
+     * @param img Speaker's picture.
+     * @param isUser True for the user, false for Orion.
      */
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+    void show(String text, Image img, boolean isUser) {
+        dialog.setText(text);
+        displayPicture.setImage(img);
+
+        boolean isPictureFirst = getChildren().get(0) == displayPicture;
+        if (isUser == isPictureFirst) {
+            getChildren().setAll(isUser ? dialog : displayPicture, isUser ? displayPicture : dialog);
+        }
+        setAlignment(isUser ? Pos.TOP_RIGHT : Pos.TOP_LEFT);
     }
 
     public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img);
+        return new DialogBox(text, img, true);
     }
 
     public static DialogBox getOrionDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
-        db.flip();
-        return db;
+        return new DialogBox(text, img, false);
     }
 }
@@ -1,67 +1,194 @@
 package orion.gui;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 import javafx.application.Platform;
+import javafx.util.Duration;
 
 import orion.Orion;
+import orion.Storage;
+import orion.Ui;
 
 /**
  * Controller for the main GUI.
+ * The conversation is shown in a {@link ListView}, which only creates dialog boxes for the messages on screen and
+ * reuses them while scrolling, over a bounded {@link Transcript}.
+ * Commands run one at a time, in the order they were entered, on a background thread, so saving and searching
+ * large lists never freezes the window; each reply shows as a placeholder until it is ready.
+ * The task file is loaded the same way, as the first job on that thread, so the window shows at once with the
+ * load's progress, and commands typed meanwhile simply wait their turn behind it.
  */
 public class MainWindow extends AnchorPane {
+    private static final double CELL_INSET = 20.0; // room for the scroll bar
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+    private static final String FAILURE_MESSAGE = "Something went wrong: ";
+    private static final String NOT_LOADED_MESSAGE = "Your tasks could not be loaded; please restart Orion.";
+    private static final Duration PROGRESS_INTERVAL = Duration.millis(200);
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<Transcript.Entry> transcriptView;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
 
-    private Orion orion;
+    private Orion orion; // only used on the command thread; null until loaded
+    private final Transcript transcript = new Transcript();
+    private final ExecutorService commands = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "orion-command");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/DaUser.png"));
     private Image orionImage = new Image(this.getClass().getResourceAsStream("/images/DaOrion.png"));
 
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        transcriptView.setItems(transcript.entries());
+        transcriptView.setCellFactory(view -> new DialogCell());
+        transcriptView.setFocusTraversable(false);
+        // Messages are not selectable; undo any selection made by clicking.
+        transcriptView.getSelectionModel().selectedIndexProperty().addListener((observable, before, after) -> {
+            if (after.intValue() >= 0) {
+                Platform.runLater(transcriptView.getSelectionModel()::clearSelection);
+            }
+        });
     }
 
-    /** Injects the Orion instance */
-    public void setOrion(Orion o) {
-        orion = o;
+    /**
+     * Creates Orion over {@code storage} on the command thread, which loads the task file, and shows a greeting
+     * with the number of tasks read so far until it is done. Must be called on the JavaFX Application Thread.
+     *
+     * @param storage Storage to load the tasks from.
+     * @param metrics Startup times, to record when loading is done.
+     */
+    public void load(Storage storage, StartupMetrics metrics) {
+        Ui ui = new Ui();
+        Transcript.Entry[] greeting = { transcript.complete(transcript.addPending(), ui.formatLoading(0)) };
+        Timeline progress = new Timeline(new KeyFrame(PROGRESS_INTERVAL, event ->
+                greeting[0] = transcript.complete(greeting[0], ui.formatLoading(storage.getLoadedTaskCount()))));
+        progress.setCycleCount(Animation.INDEFINITE);
+        progress.play();
 
-        // Show welcome message once at startup
-        dialogContainer.getChildren().add(
-                DialogBox.getOrionDialog(orion.getWelcomeMessage(), orionImage)
-        );
+        commands.execute(() -> {
+            String welcome;
+            try {
+                orion = new Orion(storage);
+                welcome = orion.getWelcomeMessage();
+            } catch (RuntimeException e) {
+                welcome = ui.formatError(FAILURE_MESSAGE + e);
+            }
+            metrics.markLoaded(storage.getLoadedTaskCount());
+            String message = welcome;
+            Platform.runLater(() -> {
+                progress.stop();
+                transcript.complete(greeting[0], message);
+            });
+        });
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Orion's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Shows the user input with a placeholder reply and queues the command. The reply replaces the placeholder when
+     * the command has run; after {@code bye}, the application exits once its reply is shown.
+     * Clears the user input.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = orion.getResponse(input);
-
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getOrionDialog(response, orionImage)
-        );
-
         userInput.clear();
 
+        transcript.add(input, true);
+        Transcript.Entry pending = transcript.addPending();
+        scrollToEnd();
+        commands.execute(() -> runCommand(input, pending));
+    }
+
+    /**
+     * Runs on the command thread: handles {@code input} and hands the reply back to the JavaFX thread.
+     */
+    private void runCommand(String input, Transcript.Entry pending) {
+        if (orion == null) {
+            Platform.runLater(() -> transcript.complete(pending, new Ui().formatError(NOT_LOADED_MESSAGE)));
+            return;
+        }
         if (orion.isExit()) {
-            Platform.exit();
+            Platform.runLater(() -> transcript.remove(pending)); // entered after bye
+            return;
+        }
+
+        String response;
+        try {
+            response = orion.getResponse(input);
+        } catch (RuntimeException e) {
+            response = new Ui().formatError(FAILURE_MESSAGE + e);
+        }
+        String reply = response;
+        boolean isExit = orion.isExit();
+        Platform.runLater(() -> {
+            transcript.complete(pending, reply);
+            scrollToEnd();
+            if (isExit) {
+                Platform.exit();
+            }
+        });
+    }
+
+    /**
+     * Waits for queued commands to finish and saves any changes still pending.
+     * Called when the application stops, on the JavaFX thread.
+     */
+    public void shutdown() {
+        commands.shutdown();
+        try {
+            commands.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (orion != null) {
+            orion.close();
+        }
+    }
+
+    private void scrollToEnd() {
+        transcriptView.scrollTo(transcript.entries().size() - 1);
+    }
+
+    /**
+     * List cell showing one message in a dialog box that is created once and reused for every message the cell
+     * displays.
+     */
+    private final class DialogCell extends ListCell<Transcript.Entry> {
+        private final DialogBox dialogBox = new DialogBox();
+
+        private DialogCell() {
+            setStyle("-fx-background-color: transparent; -fx-padding: 0;");
+            dialogBox.prefWidthProperty().bind(transcriptView.widthProperty().subtract(CELL_INSET));
+            dialogBox.setMaxWidth(USE_PREF_SIZE);
+        }
+
+        @Override
+        protected void updateItem(Transcript.Entry entry, boolean isEmpty) {
+            super.updateItem(entry, isEmpty);
+            setText(null);
+            if (isEmpty || entry == null) {
+                setGraphic(null);
+                return;
+            }
+            dialogBox.show(entry.text(), entry.isUser() ? userImage : orionImage, entry.isUser());
+            setGraphic(dialogBox);
         }
     }
 }
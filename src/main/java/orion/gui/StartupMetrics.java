@@ -0,0 +1,105 @@
+package orion.gui;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+/**
+ * Startup times of the GUI, measured from JVM start: when the first frame of the window is laid out, and when the
+ * task file has finished loading. The two happen in either order; once both are known, a one-line summary is
+ * printed to standard error if {@code -Dorion.startupMetrics=true} is set.
+ */
+public final class StartupMetrics {
+    private static final String REPORT_PROPERTY = "orion.startupMetrics";
+    private static final long UNKNOWN = -1;
+
+    private final LongSupplier uptimeMillis;
+    private final boolean isReported = Boolean.getBoolean(REPORT_PROPERTY);
+    private long firstFrameMillis = UNKNOWN;
+    private long loadedMillis = UNKNOWN;
+    private int loadedTaskCount;
+
+    /**
+     * Constructs metrics timed by the JVM's uptime.
+     */
+    public StartupMetrics() {
+        this(ManagementFactory.getRuntimeMXBean()::getUptime);
+    }
+
+    /**
+     * Constructs metrics timed by the given clock.
+     *
+     * @param uptimeMillis Milliseconds since JVM start.
+     */
+    StartupMetrics(LongSupplier uptimeMillis) {
+        this.uptimeMillis = uptimeMillis;
+    }
+
+    /**
+     * Records the first frame of {@code scene}: the end of the first layout pass after it is shown.
+     * Call before showing the stage. Must be called on the JavaFX Application Thread.
+     *
+     * @param scene Scene of the main window.
+     */
+    public void watchFirstFrame(Scene scene) {
+        Runnable listener = new Runnable() {
+            private boolean isDone;
+
+            @Override
+            public void run() {
+                if (isDone) {
+                    return;
+                }
+                isDone = true;
+                markFirstFrame();
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(this)); // not while the scene iterates
+            }
+        };
+        scene.addPostLayoutPulseListener(listener);
+    }
+
+    /**
+     * Records that the first frame is on screen. Later calls are ignored.
+     */
+    synchronized void markFirstFrame() {
+        if (firstFrameMillis == UNKNOWN) {
+            firstFrameMillis = uptimeMillis.getAsLong();
+            reportIfComplete();
+        }
+    }
+
+    /**
+     * Records that the task file has finished loading. Later calls are ignored.
+     *
+     * @param taskCount Tasks loaded.
+     */
+    synchronized void markLoaded(int taskCount) {
+        if (loadedMillis == UNKNOWN) {
+            loadedMillis = uptimeMillis.getAsLong();
+            loadedTaskCount = taskCount;
+            reportIfComplete();
+        }
+    }
+
+    /**
+     * Returns the startup times recorded so far.
+     *
+     * @return Summary such as {@code Startup: first frame after 420 ms, 1000 tasks loaded after 900 ms.}
+     */
+    synchronized String summary() {
+        return "Startup: first frame after " + describe(firstFrameMillis) + ", " + loadedTaskCount
+                + " tasks loaded after " + describe(loadedMillis) + ".";
+    }
+
+    private void reportIfComplete() {
+        if (isReported && firstFrameMillis != UNKNOWN && loadedMillis != UNKNOWN) {
+            System.err.println(summary());
+        }
+    }
+
+    private static String describe(long millis) {
+        return (millis == UNKNOWN) ? "(not yet)" : millis + " ms";
+    }
+}
@@ -0,0 +1,120 @@
+package orion.gui;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Bounded history of the messages shown in the main window.
+ * Once more than {@value #MAX_MESSAGES} messages are stored, the oldest are dropped in one batch, so memory use
+ * stays flat over long sessions. Very long messages are shortened for display; the full text of a long task list
+ * is still available through {@code list <page>}.
+ */
+class Transcript {
+    /** Most messages kept. */
+    static final int MAX_MESSAGES = 1000;
+    /** Longest message kept, in characters. */
+    static final int MAX_MESSAGE_LENGTH = 20_000;
+
+    /** Text of a reply that is still being worked out. */
+    static final String PENDING_TEXT = "...";
+
+    private static final int DROP_BATCH = MAX_MESSAGES / 10;
+    private static final String TRUNCATED_NOTE = System.lineSeparator()
+            + "    ... (message shortened; use list <page> to see long lists in parts)";
+
+    private final ObservableList<Entry> entries = FXCollections.observableArrayList();
+
+    /**
+     * One message.
+     *
+     * @param text Text to show.
+     * @param isUser True for the user's input, false for Orion's reply.
+     */
+    record Entry(String text, boolean isUser) {
+    }
+
+    /**
+     * Returns the stored messages, oldest first, for a list view to display.
+     *
+     * @return Live list of messages.
+     */
+    ObservableList<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * Appends a message, dropping the oldest ones if the history is full.
+     *
+     * @param text Message text.
+     * @param isUser True for the user's input, false for Orion's reply.
+     */
+    void add(String text, boolean isUser) {
+        append(new Entry(shorten(text), isUser));
+    }
+
+    /**
+     * Appends a placeholder for a reply that is still being worked out.
+     *
+     * @return The placeholder, to pass to {@link #complete(Entry, String)} or {@link #remove(Entry)}.
+     */
+    Entry addPending() {
+        Entry pending = new Entry(PENDING_TEXT, false);
+        append(pending);
+        return pending;
+    }
+
+    /**
+     * Replaces the placeholder {@code pending} with the reply {@code text}, keeping its place in the history.
+     * If the placeholder has already been dropped from the history, the reply is appended instead.
+     *
+     * @param pending Placeholder returned by {@link #addPending()}, or an entry returned by this method.
+     * @param text Reply text.
+     * @return The stored reply, which can be completed again to update it, e.g. with progress.
+     */
+    Entry complete(Entry pending, String text) {
+        Entry reply = new Entry(shorten(text), false);
+        int index = indexOf(pending);
+        if (index == -1) {
+            append(reply);
+        } else {
+            entries.set(index, reply);
+        }
+        return reply;
+    }
+
+    /**
+     * Removes the placeholder {@code pending}, for a command that was not run.
+     *
+     * @param pending Placeholder returned by {@link #addPending()}.
+     */
+    void remove(Entry pending) {
+        int index = indexOf(pending);
+        if (index != -1) {
+            entries.remove(index);
+        }
+    }
+
+    private void append(Entry entry) {
+        if (entries.size() >= MAX_MESSAGES) {
+            entries.remove(0, DROP_BATCH); // one change event for the whole batch
+        }
+        entries.add(entry);
+    }
+
+    /**
+     * Returns the position of this very entry (not an equal one), searching from the newest.
+     */
+    private int indexOf(Entry entry) {
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            if (entries.get(i) == entry) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String shorten(String text) {
+        assert text != null : "Transcript: text must not be null";
+        return (text.length() <= MAX_MESSAGE_LENGTH) ? text : text.substring(0, MAX_MESSAGE_LENGTH) + TRUNCATED_NOTE;
+    }
+}
@@ -0,0 +1,77 @@
+package orion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandStatsTest {
+
+    @Test
+    public void latencyHistogram_percentiles_withinBucketWidth() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos * 1_000); // 1 us .. 100 ms, uniformly
+        }
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100_002, snapshot.count());
+        for (double percentile : new double[] {50, 99, 99.9}) {
+            double expected = percentile / 100 * 100_000_000;
+            double actual = snapshot.valueAt(percentile);
+            assertTrue(actual >= expected * 0.99 && actual <= expected * 1.04, percentile + ": " + actual);
+        }
+        assertEquals(0, snapshot.valueAt(0));
+        assertTrue(snapshot.valueAt(100) > 100_000_000_000L);
+
+        for (long value = 0; value < 1 << 20; value += 7) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.highestValueOf(bucket) >= value, "bucket end below " + value);
+            assertTrue(bucket == 0 || LatencyHistogram.highestValueOf(bucket - 1) < value, "bucket of " + value);
+        }
+    }
+
+    @Test
+    public void statsCommand_afterCommands_reportsPhasesAndMatchesJmx(@TempDir Path tempDir) throws Exception {
+        CommandStats stats = CommandStats.global();
+        stats.reset();
+        Orion orion = new Orion(new Storage(tempDir.resolve("tasks.txt")));
+        orion.getResponse("todo read book");
+        orion.getResponse("todo buy milk");
+        orion.getResponse("list");
+        orion.getResponse("mark 9");
+        orion.getResponse("frobnicate");
+
+        String response = orion.getResponse("stats");
+        assertTrue(response.contains("    Command latency since startup:"), response);
+        assertTrue(response.contains("    todo: 2 runs, p50 "), response);
+        assertTrue(response.contains("    mark: 1 run, p50 "), response);
+        assertTrue(response.contains("    unknown: 1 run, p50 "), response);
+        assertTrue(response.contains("      persist p50 "), response);
+        assertTrue(response.contains("      render  p50 "), response);
+        assertEquals(2, stats.count("todo"));
+        assertEquals(1, stats.count("list"));
+        assertEquals(0, stats.count("frobnicate"));
+        assertEquals(0, stats.percentileMillis("mark", "persist", 50)); // failed before saving
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(CommandStats.OBJECT_NAME);
+        String[] commands = (String[]) server.getAttribute(name, "Commands");
+        assertEquals(Arrays.asList("list", "mark", "stats", "todo", "unknown"), Arrays.asList(commands));
+        Object count = server.invoke(name, "count", new Object[] {"todo"}, new String[] {String.class.getName()});
+        assertEquals(2L, count);
+        double p99 = (Double) server.invoke(name, "percentileMillis", new Object[] {"todo", "total", 99.0},
+                new String[] {String.class.getName(), String.class.getName(), double.class.getName()});
+        assertTrue(p99 > 0 && p99 >= stats.percentileMillis("todo", "parse", 99), String.valueOf(p99));
+    }
+}
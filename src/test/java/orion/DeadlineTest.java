@@ -6,6 +6,9 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DeadlineTest {
 
@@ -26,4 +29,26 @@ public class DeadlineTest {
 
         assertEquals("D | 0 | return book | 2019-10-15 | -", d.toDataString());
     }
+
+    @Test
+    public void isSameTask_caseAndWhitespaceDiffer_isDuplicate() {
+        LocalDate date = LocalDate.of(2019, 10, 15);
+        Deadline d = new Deadline("  Return\tthe  BOOK ", date, null);
+        Deadline same = new Deadline("return the book", date, null);
+        Deadline different = new Deadline("return the books", date, null);
+
+        assertTrue(d.isSameTask(same));
+        assertEquals(d.sameTaskHashCode(), same.sameTaskHashCode());
+        assertFalse(d.isSameTask(different));
+        assertTrue(new Todo("Stra\u00dfe \u00c4RGER").isSameTask(new Todo("stra\u00dfe  \u00e4rger")));
+    }
+
+    @Test
+    public void constructor_equalDatesAndTimes_shareInstances() {
+        Deadline first = new Deadline("a", LocalDate.parse("2019-10-15"), LocalTime.of(18, 0));
+        Deadline second = new Deadline("b", LocalDate.parse("2019-10-15"), LocalTime.parse("18:00"));
+
+        assertSame(first.getByDate(), second.getByDate());
+        assertSame(first.getByTime(), second.getByTime());
+    }
 }
@@ -0,0 +1,85 @@
+package orion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OrionEventsTest {
+
+    @Test
+    public void bundledSettings_recording_capturesOrionEvents(@TempDir Path tempDir) throws Exception {
+        Configuration settings;
+        try (Reader reader = new InputStreamReader(OrionEventsTest.class.getResourceAsStream("/jfr/orion.jfc"),
+                StandardCharsets.UTF_8)) {
+            settings = Configuration.create(reader);
+        }
+        assertEquals("true", settings.getSettings().get("orion.Command#enabled"));
+
+        Path recordingFile = tempDir.resolve("orion.jfr");
+        try (Recording recording = new Recording(settings)) {
+            for (String event : new String[] {"orion.Command", "orion.Find", "orion.DuplicateCheck"}) {
+                recording.enable(event).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            Orion orion = new Orion(new Storage(tempDir.resolve("tasks.txt")));
+            orion.getResponse("todo read book");
+            orion.getResponse("todo read book");
+            orion.getResponse("find book");
+            orion.getResponse("mark 7");
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(event -> event.getEventType().getName().startsWith("orion."))
+                .collect(Collectors.toList());
+        List<String> commands = events.stream()
+                .filter(event -> event.getEventType().getName().equals("orion.Command"))
+                .map(event -> event.getString("command") + " " + event.getInt("argumentLength") + " "
+                        + event.getString("outcome"))
+                .collect(Collectors.toList());
+        assertEquals(List.of("todo 9 ok", "todo 9 ok", "find 4 ok", "mark 1 error"), commands);
+
+        RecordedEvent find = only(events, "orion.Find");
+        assertEquals(4, find.getInt("keywordLength"));
+        assertEquals(1, find.getInt("matches"));
+        assertTrue(find.getInt("tasksScanned") >= 1);
+
+        List<Boolean> duplicates = events.stream()
+                .filter(event -> event.getEventType().getName().equals("orion.DuplicateCheck"))
+                .map(event -> event.getBoolean("found"))
+                .collect(Collectors.toList());
+        assertEquals(List.of(false, true), duplicates);
+
+        RecordedEvent load = only(events, "orion.StorageLoad");
+        assertEquals(0, load.getInt("taskCount"));
+        RecordedEvent save = only(events, "orion.StorageSave");
+        assertEquals(1, save.getInt("taskCount"));
+        assertTrue(save.getLong("bytes") > 0);
+        assertFalse(save.getBoolean("journaled"));
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,124 @@
+package orion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OrionServerTest {
+
+    @Test
+    public void serve_twoUsers_keepSeparateTaskListsAndFiles(@TempDir Path tempDir) throws Exception {
+        Ui ui = new Ui();
+        try (OrionServer server = new OrionServer(0, tempDir);
+             Socket alice = connect(server);
+             Socket bob = connect(server)) {
+            BufferedReader aliceIn = reader(alice);
+            BufferedReader bobIn = reader(bob);
+
+            send(alice, "list");
+            assertEquals(ui.formatError("Please identify yourself first. Usage: user <name>"), readReply(aliceIn));
+            send(alice, "user alice");
+            assertEquals(ui.formatWelcome(), readReply(aliceIn));
+            send(bob, "user alice");
+            assertTrue(readReply(bobIn).contains("User alice is already connected."));
+            send(bob, "user bob");
+            assertEquals(ui.formatWelcome(), readReply(bobIn));
+
+            send(alice, "todo read book");
+            assertTrue(readReply(aliceIn).contains("Now you have 1 tasks in the list."));
+            send(bob, "list");
+            assertEquals(ui.formatList(new TaskList()), readReply(bobIn));
+
+            send(alice, "bye");
+            assertEquals(ui.formatBye(), readReply(aliceIn));
+        }
+
+        assertEquals(List.of("T | 0 | read book"), Files.readAllLines(tempDir.resolve("alice.txt")));
+        assertTrue(Files.notExists(tempDir.resolve("bob.txt")));
+    }
+
+    @Test
+    public void serve_namesDifferingInCase_shareOneUserAndFile(@TempDir Path tempDir) throws Exception {
+        Ui ui = new Ui();
+        try (OrionServer server = new OrionServer(0, tempDir);
+             Socket first = connect(server);
+             Socket second = connect(server)) {
+            BufferedReader firstIn = reader(first);
+            BufferedReader secondIn = reader(second);
+
+            send(first, "user Alice");
+            assertEquals(ui.formatWelcome(), readReply(firstIn));
+            send(second, "user aLICE");
+            assertTrue(readReply(secondIn).contains("User aLICE is already connected."));
+
+            send(first, "todo read book");
+            readReply(firstIn);
+            send(first, "bye");
+            assertEquals(ui.formatBye(), readReply(firstIn));
+        }
+
+        assertEquals(List.of("T | 0 | read book"), Files.readAllLines(tempDir.resolve("alice.txt")));
+        assertTrue(Files.notExists(tempDir.resolve("Alice.txt")) || Files.isSameFile(
+                tempDir.resolve("Alice.txt"), tempDir.resolve("alice.txt")));
+    }
+
+    @Test
+    public void serve_sessionFailsToStart_releasesUser(@TempDir Path tempDir) throws Exception {
+        String previous = System.getProperty("orion.dataFormat");
+        Ui ui = new Ui();
+        try (OrionServer server = new OrionServer(0, tempDir)) {
+            System.setProperty("orion.dataFormat", "unknown");
+            try (Socket failing = connect(server)) {
+                send(failing, "user alice");
+                assertEquals("", readReply(reader(failing))); // closed without a welcome
+            } finally {
+                System.clearProperty("orion.dataFormat");
+            }
+
+            try (Socket retry = connect(server)) {
+                send(retry, "user alice");
+                assertEquals(ui.formatWelcome(), readReply(reader(retry)));
+            }
+        } finally {
+            if (previous != null) {
+                System.setProperty("orion.dataFormat", previous);
+            }
+        }
+    }
+
+    private static Socket connect(OrionServer server) throws IOException {
+        return new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static void send(Socket socket, String line) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static String readReply(BufferedReader in) throws IOException {
+        StringBuilder reply = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.isEmpty()) {
+            reply.append(line).append(System.lineSeparator());
+        }
+        return reply.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package orion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OrionTest {
+
+    private static final String SCRIPT = "todo read book\r\n"
+            + "deadline return book /by 2019-10-15 1800\n"
+            + "mark 2\rlist\n"
+            + "\n"
+            + "delete 5\n"
+            + "event meeting /from 2019-10-16 /to 2019-10-17\n"
+            + "unmark 2\n"
+            + "bye\n"
+            + "todo after bye\n";
+
+    @Test
+    public void runBatch_script_matchesInteractiveOutputAndSavedData(@TempDir Path tempDir) throws Exception {
+        String previousFile = System.getProperty("orion.dataFile");
+        String previousCheckpoint = System.getProperty("orion.batchCheckpoint");
+
+        try {
+            System.setProperty("orion.dataFile", tempDir.resolve("interactive.txt").toString());
+            Orion interactive = new Orion();
+            StringBuilder expected = new StringBuilder(interactive.getWelcomeMessage());
+            for (String line : SCRIPT.split("\r\n|[\n\r]")) {
+                expected.append(interactive.getResponse(line));
+                if (interactive.isExit()) {
+                    break;
+                }
+            }
+
+            System.setProperty("orion.dataFile", tempDir.resolve("batch.txt").toString());
+            System.setProperty("orion.batchCheckpoint", "2");
+            StringWriter actual = new StringWriter();
+            ByteArrayOutputStream summary = new ByteArrayOutputStream();
+            new Orion().runBatch(new StringReader(SCRIPT), actual, new PrintStream(summary, true));
+
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(Files.readString(tempDir.resolve("interactive.txt")),
+                    Files.readString(tempDir.resolve("batch.txt")));
+            assertTrue(summary.toString().startsWith("Batch: 9 commands in "), summary.toString());
+            assertTrue(summary.toString().contains(", 2 errors, 3 saves"), summary.toString());
+        } finally {
+            restoreProperty("orion.dataFile", previousFile);
+            restoreProperty("orion.batchCheckpoint", previousCheckpoint);
+        }
+    }
+
+    @Test
+    public void writeResponse_listRange_streamsSameTextAsGetResponse(@TempDir Path tempDir) throws Exception {
+        String previousFile = System.getProperty("orion.dataFile");
+        try {
+            System.setProperty("orion.dataFile", tempDir.resolve("tasks.txt").toString());
+            Orion orion = new Orion();
+            orion.getResponse("todo read book");
+            orion.getResponse("todo buy milk");
+            orion.getResponse("todo call mom");
+
+            StringWriter streamed = new StringWriter();
+            orion.writeResponse("list --limit 1 --offset 1", streamed);
+
+            String ls = System.lineSeparator();
+            String line = "    _______________________________________________________" + ls;
+            assertEquals(line + "    Here are the tasks in your list:" + ls
+                    + "    2. [T][ ] buy milk" + ls
+                    + "    Showing tasks 2-2 of 3." + ls + line, streamed.toString());
+            assertEquals(streamed.toString(), orion.getResponse("list --offset 1 --limit 1"));
+            assertEquals(orion.getResponse("list"), orion.getResponse("list 1"));
+            assertTrue(orion.getResponse("list 2").contains("No tasks in that range; the list has 3 tasks."));
+        } finally {
+            restoreProperty("orion.dataFile", previousFile);
+        }
+    }
+
+    @Test
+    public void undoRedo_journaled_restoresListAndSavedData(@TempDir Path tempDir) throws Exception {
+        String previousFile = System.getProperty("orion.dataFile");
+        String previousJournal = System.getProperty("orion.journal");
+        try {
+            System.setProperty("orion.dataFile", tempDir.resolve("tasks.txt").toString());
+            System.setProperty("orion.journal", "true");
+            Orion orion = new Orion();
+            orion.getResponse("todo read book");
+            orion.getResponse("todo buy milk");
+            orion.getResponse("todo call mom");
+            orion.getResponse("todo pay bills");
+            orion.getResponse("mark 1,3");
+            String before = orion.getResponse("list");
+
+            orion.getResponse("delete 1-3");
+            assertTrue(orion.getResponse("undo").contains("Undone: deleting 3 tasks"));
+            assertEquals(before, orion.getResponse("list"));
+            assertEquals(before, new Orion().getResponse("list"));
+
+            assertTrue(orion.getResponse("redo").contains("Redone: deleting 3 tasks"));
+            assertTrue(orion.getResponse("redo").contains("There is nothing to redo."));
+            String after = orion.getResponse("list");
+            assertEquals(after, new Orion().getResponse("list"));
+
+            orion.getResponse("undo");
+            orion.getResponse("undo");
+            assertTrue(orion.getResponse("list").contains("1. [T][ ] read book"));
+            orion.getResponse("todo water plants");
+            assertTrue(orion.getResponse("redo").contains("There is nothing to redo."));
+            assertEquals(orion.getResponse("list"), new Orion().getResponse("list"));
+        } finally {
+            restoreProperty("orion.dataFile", previousFile);
+            restoreProperty("orion.journal", previousJournal);
+        }
+    }
+
+    private static void restoreProperty(String key, String previous) {
+        if (previous == null) {
+            System.clearProperty(key);
+        } else {
+            System.setProperty(key, previous);
+        }
+    }
+}
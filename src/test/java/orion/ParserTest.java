@@ -0,0 +1,155 @@
+package orion;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParserTest {
+
+    @Test
+    public void parse_extraWhitespace_splitsWordAndTrimmedArguments() throws OrionException {
+        Parser.ParsedCommand command = new Parser().parse("  deadline \t return book  /by 2019-10-15  ");
+
+        assertEquals("deadline", command.getCommandWord());
+        assertEquals("return book  /by 2019-10-15", command.getArguments());
+    }
+
+    @Test
+    public void parseTask_eventWithIsoAndCompactTimes_parsesBothEnds() throws OrionException {
+        Task task = new Parser().parseTask("event",
+                "project meeting   /from 2019-10-15T09:00 /to\t2019-10-15 1130");
+
+        assertEquals("E | 0 | project meeting | 2019-10-15 | 09:00 | 2019-10-15 | 11:30", task.toDataString());
+    }
+
+    @Test
+    public void parseTask_markerWithoutSurroundingSpace_isPartOfDescription() throws OrionException {
+        Task task = new Parser().parseTask("deadline", "read a/by b /by 2019-10-15");
+
+        assertEquals("D | 0 | read a/by b | 2019-10-15 | -", task.toDataString());
+    }
+
+    @Test
+    public void parseTask_invalidInput_keepsErrorMessages() {
+        Parser parser = new Parser();
+
+        assertEquals("A deadline needs '/by'. Usage: deadline <description> /by yyyy-MM-dd [HHmm|HH:mm]",
+                assertThrows(OrionException.class, () -> parser.parseTask("deadline", "read /by")).getMessage());
+        assertEquals("Invalid time. Usage: deadline <description> /by yyyy-MM-dd [HHmm|HH:mm]"
+                        + " (e.g. 2019-10-15 1800)",
+                assertThrows(OrionException.class,
+                        () -> parser.parseTask("deadline", "read /by 2019-10-15 2400")).getMessage());
+        assertEquals("An event needs '/to'. Usage: event <description> /from yyyy-MM-dd [HHmm|HH:mm]"
+                        + " /to yyyy-MM-dd [HHmm|HH:mm]",
+                assertThrows(OrionException.class,
+                        () -> parser.parseTask("event", "talk /to 2019-10-16 /from 2019-10-15")).getMessage());
+        assertEquals("Invalid date/time. Usage: event <description> /from yyyy-MM-dd [HHmm|HH:mm]"
+                        + " /to yyyy-MM-dd [HHmm|HH:mm]",
+                assertThrows(OrionException.class,
+                        () -> parser.parseTask("event", "talk /from 2019-10-15 09:00 x /to 2019-10-16")).getMessage());
+        assertEquals("Invalid date. Usage: deadline <description> /by yyyy-MM-dd [HHmm|HH:mm]"
+                        + " (e.g. 2019-10-15 1800)",
+                assertThrows(OrionException.class,
+                        () -> parser.parseTask("deadline", "far /by +999999999-12-31")).getMessage());
+    }
+
+    @Test
+    public void parseTaskNumbers_rangesAndLists_returnsAscendingIndexes() throws OrionException {
+        Parser parser = new Parser();
+
+        assertArrayEquals(new int[] {2}, parser.parseTaskNumbers(" 3 ", "mark", 10));
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4}, parser.parseTaskNumbers("1-5", "mark", 10));
+        assertArrayEquals(new int[] {2, 6, 7, 8, 9}, parser.parseTaskNumbers("8 - 10, 3,7 ,9", "delete", 10));
+        assertTrue(Parser.selectsDoneTasks(" Done "));
+
+        assertEquals("Task number must be between 1 and 10.",
+                assertThrows(OrionException.class, () -> parser.parseTaskNumbers("3,11", "delete", 10)).getMessage());
+        assertEquals("Task number must be an integer. Usage: delete <taskNumber>",
+                assertThrows(OrionException.class, () -> parser.parseTaskNumbers("1-x", "delete", 10)).getMessage());
+        assertEquals("Task range 5-2 must go from the lower to the higher number.",
+                assertThrows(OrionException.class, () -> parser.parseTaskNumbers("1,5-2", "mark", 10)).getMessage());
+        assertEquals("Task number must be between 1 and 10.",
+                assertThrows(OrionException.class, () -> parser.parseTaskNumbers("-1", "mark", 10)).getMessage());
+    }
+
+    @Test
+    public void parseListRange_pageAndFlags_returnsRange() throws OrionException {
+        assertEquals(Parser.ListRange.ALL, Parser.parseListRange(" "));
+        assertEquals(new Parser.ListRange(50, 50), Parser.parseListRange("2"));
+        assertEquals(new Parser.ListRange(3, 10), Parser.parseListRange("--offset 3  --limit 10"));
+        assertEquals(new Parser.ListRange(0, 5), Parser.parseListRange("--limit 5"));
+
+        String usage = "Usage: list [<page>] or list [--limit <count>] [--offset <count>]";
+        assertEquals(usage, assertThrows(OrionException.class, () -> Parser.parseListRange("all")).getMessage());
+        assertEquals(usage, assertThrows(OrionException.class,
+                () -> Parser.parseListRange("--limit 5 --limit 6")).getMessage());
+        assertEquals("The limit must be at least 1. " + usage,
+                assertThrows(OrionException.class, () -> Parser.parseListRange("--limit 0")).getMessage());
+        assertEquals("Page number must be at least 1. " + usage,
+                assertThrows(OrionException.class, () -> Parser.parseListRange("0")).getMessage());
+    }
+
+    @Test
+    public void parseFindQuery_termsAndPlainKeywords_parseIntoQueries() throws OrionException {
+        Task draft = new Deadline("Write REPORT draft", LocalDate.of(2024, 12, 20), null);
+        Task report = new Deadline("final report", LocalDate.of(2024, 12, 31), null);
+        Task late = new Deadline("late report", LocalDate.of(2025, 1, 1), null);
+        Task event = new Event("report review", LocalDate.of(2024, 12, 30), null, LocalDate.of(2025, 1, 3), null);
+        Task todo = new Todo("report");
+
+        Parser.FindQuery find = Parser.parseFindQuery(
+                " --explain type:DEADLINE done:no \"report\"  before:2025-01-01 -draft ");
+        assertTrue(find.isExplain());
+        assertFalse(find.query().matches(draft));
+        assertTrue(find.query().matches(report));
+        assertFalse(find.query().matches(late));
+        assertFalse(find.query().matches(event));
+
+        TaskQuery dated = Parser.parseFindQuery("after:2024-12-31 on:2025-01-02").query();
+        assertFalse(dated.matches(late));
+        assertTrue(dated.matches(event));
+        assertFalse(dated.matches(todo));
+
+        // Without query syntax the whole text is one keyword, as before; unknown fields are just text.
+        Parser.FindQuery plain = Parser.parseFindQuery("report review");
+        assertFalse(plain.isExplain());
+        assertTrue(plain.query().matches(event));
+        assertFalse(plain.query().matches(report));
+        assertTrue(Parser.parseFindQuery("-\"final\" re:view").query().matches(new Todo("re:view")));
+
+        String usage = "Usage: find [--explain] <keyword or query>";
+        assertEquals(usage, assertThrows(OrionException.class, () -> Parser.parseFindQuery("  ")).getMessage());
+        assertEquals(usage, assertThrows(OrionException.class,
+                () -> Parser.parseFindQuery("--explain")).getMessage());
+        assertEquals("The quote in your query is not closed. " + usage, assertThrows(OrionException.class,
+                () -> Parser.parseFindQuery("\"report")).getMessage());
+        assertEquals("Unknown task type \"chore\". Use type:todo, type:deadline or type:event.",
+                assertThrows(OrionException.class, () -> Parser.parseFindQuery("type:chore")).getMessage());
+        assertEquals("A query can only ask for one task type.", assertThrows(OrionException.class,
+                () -> Parser.parseFindQuery("type:todo type:event")).getMessage());
+        assertEquals("Invalid date. Dates in queries are yyyy-MM-dd, e.g. before:2025-01-01.",
+                assertThrows(OrionException.class, () -> Parser.parseFindQuery("on:2025-02-30")).getMessage());
+    }
+
+    @Test
+    public void parseFindQuery_datesAtRangeEnds_rejectsOrMatchesNothing() throws OrionException {
+        String invalid = "Invalid date. Dates in queries are yyyy-MM-dd, e.g. before:2025-01-01.";
+        assertEquals(invalid, assertThrows(OrionException.class,
+                () -> Parser.parseFindQuery("before:-999999999-01-01")).getMessage());
+        assertEquals(invalid, assertThrows(OrionException.class,
+                () -> Parser.parseFindQuery("after:+999999999-12-31")).getMessage());
+
+        LocalDate first = LocalDate.ofEpochDay(Integer.MIN_VALUE);
+        LocalDate last = LocalDate.ofEpochDay(Integer.MAX_VALUE);
+        Task deadline = new Deadline("far away", last, null);
+        assertFalse(Parser.parseFindQuery("before:" + first).query().matches(deadline));
+        assertFalse(Parser.parseFindQuery("after:" + last).query().matches(deadline));
+        assertTrue(Parser.parseFindQuery("on:" + last).query().matches(deadline));
+    }
+}
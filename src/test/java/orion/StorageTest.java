@@ -5,12 +5,20 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class StorageTest {
 
@@ -75,4 +83,353 @@ public class StorageTest {
             }
         }
     }
+
+    @Test
+    public void record_journaled_replaysChangesOnLoad(@TempDir Path tempDir) throws Exception {
+        String previousFile = System.getProperty("orion.dataFile");
+        String previousJournal = System.getProperty("orion.journal");
+        System.setProperty("orion.dataFile", tempDir.resolve("orion.txt").toString());
+        System.setProperty("orion.journal", "true");
+
+        try {
+            Storage storage = new Storage();
+            ArrayList<Task> tasks = storage.load();
+
+            tasks.add(new Todo("read book"));
+            storage.record(Mutation.added(tasks.get(0)), tasks);
+            tasks.add(new Todo("return book"));
+            storage.record(Mutation.added(tasks.get(1)), tasks);
+            tasks.get(1).markDone();
+            storage.record(Mutation.marked(1, true), tasks);
+            tasks.remove(0);
+            storage.record(Mutation.deleted(0), tasks);
+
+            ArrayList<Task> loaded = new Storage().load();
+
+            assertEquals(1, loaded.size());
+            assertEquals("T | 1 | return book", loaded.get(0).toDataString());
+        } finally {
+            restoreProperty("orion.dataFile", previousFile);
+            restoreProperty("orion.journal", previousJournal);
+        }
+    }
+
+    @Test
+    public void record_journaledBulkChanges_replaysRangesOnLoad(@TempDir Path tempDir) throws Exception {
+        String previousFile = System.getProperty("orion.dataFile");
+        String previousJournal = System.getProperty("orion.journal");
+        System.setProperty("orion.dataFile", tempDir.resolve("orion.txt").toString());
+        System.setProperty("orion.journal", "true");
+
+        try {
+            Storage storage = new Storage();
+            ArrayList<Task> tasks = storage.load();
+            for (int i = 0; i < 10; i++) {
+                tasks.add(new Todo("task " + i));
+                storage.record(Mutation.added(tasks.get(i)), tasks);
+            }
+
+            Mutation marked = Mutation.markedAll(new int[] {0, 1, 2, 5, 9}, true);
+            marked.applyTo(tasks);
+            storage.record(marked, tasks);
+            Mutation deleted = Mutation.deletedAll(new int[] {1, 2, 3, 7});
+            deleted.applyTo(tasks);
+            storage.record(deleted, tasks);
+
+            String journal = Files.readString(tempDir.resolve("orion.txt.journal"));
+            assertTrue(journal.contains(" MARK 0-2,5,9\n"), journal);
+            assertTrue(journal.contains(" DELETE 1-3,7\n"), journal);
+
+            ArrayList<Task> loaded = new Storage().load();
+            assertEquals(List.of("T | 1 | task 0", "T | 0 | task 4", "T | 1 | task 5", "T | 0 | task 6",
+                    "T | 0 | task 8", "T | 1 | task 9"), loaded.stream().map(Task::toDataString).toList());
+        } finally {
+            restoreProperty("orion.dataFile", previousFile);
+            restoreProperty("orion.journal", previousJournal);
+        }
+    }
+
+    @Test
+    public void record_journalOverLimit_compactsInBackground(@TempDir Path tempDir) throws Exception {
+        String previousFile = System.getProperty("orion.dataFile");
+        String previousJournal = System.getProperty("orion.journal");
+        String previousLimit = System.getProperty("orion.journalLimit");
+        Path dataFile = tempDir.resolve("orion.txt");
+        Path rotated = tempDir.resolve("orion.txt.journal.old");
+        System.setProperty("orion.dataFile", dataFile.toString());
+        System.setProperty("orion.journal", "true");
+        System.setProperty("orion.journalLimit", "100"); // about four records
+
+        try {
+            Storage storage = new Storage();
+            ArrayList<Task> tasks = storage.load();
+            for (int i = 0; i < 40; i++) {
+                tasks.add(new Todo("task " + i));
+                storage.record(Mutation.added(tasks.get(i)), tasks);
+                if (i % 3 == 0) {
+                    Mutation marked = Mutation.marked(i / 2, true);
+                    marked.applyTo(tasks);
+                    storage.record(marked, tasks);
+                }
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (Files.exists(rotated) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(Files.exists(rotated));
+            assertTrue(Files.readString(dataFile).startsWith(Storage.SNAPSHOT_SEQ_PREFIX));
+            assertFalse(Files.readString(tempDir.resolve("orion.txt.journal")).startsWith("1 ADD"));
+
+            List<String> expected = tasks.stream().map(Task::toDataString).toList();
+            assertEquals(expected, new Storage().load().stream().map(Task::toDataString).toList());
+
+            // A rotated journal left by a compaction that died after its snapshot holds nothing new.
+            Files.writeString(rotated, "1 ADD T | 0 | task 0\n2 DELETE 0\n");
+            assertEquals(expected, new Storage().load().stream().map(Task::toDataString).toList());
+        } finally {
+            restoreProperty("orion.dataFile", previousFile);
+            restoreProperty("orion.journal", previousJournal);
+            restoreProperty("orion.journalLimit", previousLimit);
+        }
+    }
+
+    @Test
+    public void load_halfWrittenJournalRecord_dropsAndTruncatesIt(@TempDir Path tempDir) throws Exception {
+        String previousFile = System.getProperty("orion.dataFile");
+        String previousJournal = System.getProperty("orion.journal");
+        Path journal = tempDir.resolve("orion.txt.journal");
+        System.setProperty("orion.dataFile", tempDir.resolve("orion.txt").toString());
+        System.setProperty("orion.journal", "true");
+
+        try {
+            Storage storage = new Storage();
+            ArrayList<Task> tasks = storage.load();
+            tasks.add(new Todo("read book"));
+            storage.record(Mutation.added(tasks.get(0)), tasks);
+            tasks.add(new Todo("return book"));
+            storage.record(Mutation.added(tasks.get(1)), tasks);
+            String complete = Files.readString(journal);
+            Files.writeString(journal, "3 ADD T | 0 | half wri", StandardOpenOption.APPEND);
+
+            Storage reopened = new Storage();
+            ArrayList<Task> loaded = reopened.load();
+            assertEquals(List.of("T | 0 | read book", "T | 0 | return book"),
+                    loaded.stream().map(Task::toDataString).toList());
+            assertEquals(complete, Files.readString(journal));
+
+            loaded.add(new Todo("buy milk"));
+            reopened.record(Mutation.added(loaded.get(2)), loaded);
+            assertEquals("T | 0 | buy milk", new Storage().load().get(2).toDataString());
+        } finally {
+            restoreProperty("orion.dataFile", previousFile);
+            restoreProperty("orion.journal", previousJournal);
+        }
+    }
+
+    @Test
+    public void mappedReader_matchesLineReader(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("orion.txt");
+        Files.writeString(file, "T | 1 | read book\r\n\n  D|0|return book|2019-10-15|18:00  \r"
+                + "E | 0 | meeting | 2019-10-16 | - | 2019-10-17 | 09:30");
+
+        ArrayList<Task> expected = new ArrayList<>();
+        ArrayList<Task> actual = new ArrayList<>();
+        Storage.readSnapshotLines(file, expected);
+        MappedTaskReader.read(file, actual);
+
+        assertEquals(3, actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toDataString(), actual.get(i).toDataString());
+        }
+
+        Files.writeString(file, "T | 0 | ok\nD | 0 | late | 2019-10-15 |\n");
+        OrionException expectedError = assertThrows(OrionException.class,
+                () -> Storage.readSnapshotLines(file, new ArrayList<>()));
+        OrionException actualError = assertThrows(OrionException.class,
+                () -> MappedTaskReader.read(file, new ArrayList<>()));
+        assertEquals(expectedError.getMessage(), actualError.getMessage());
+    }
+
+    @Test
+    public void mappedReader_parallel_matchesSequential(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("orion.txt");
+        String[] endings = {"\n", "\r\n", "\r"};
+        StringBuilder content = new StringBuilder("# seq 7\n");
+        for (int i = 0; i < 20_000; i++) {
+            content.append((i % 2 == 0) ? "T | 0 | read b\u00f6\u00f6k " + i
+                            : "D | 1 | return book | 2019-10-15 | 18:00")
+                    .append(endings[i % endings.length]);
+            if (i % 1000 == 0) {
+                content.append('\n');
+            }
+        }
+        Files.writeString(file, content);
+
+        ArrayList<Task> expected = new ArrayList<>();
+        ArrayList<Task> actual = new ArrayList<>();
+        long expectedSeq = MappedTaskReader.read(file, expected);
+        long actualSeq = MappedTaskReader.read(file, actual, 4);
+
+        assertEquals(7, actualSeq);
+        assertEquals(expectedSeq, actualSeq);
+        assertEquals(20_000, actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toDataString(), actual.get(i).toDataString());
+        }
+
+        // Corrupt one line near the end, then one near the start too: the earlier one must be reported.
+        String lateCorrupted = content.toString().replace("T | 0 | read b\u00f6\u00f6k 19998\n", "E | 0 | late\n");
+        String bothCorrupted = lateCorrupted.replace("T | 0 | read b\u00f6\u00f6k 10\r", "T | 2 | early\r");
+        String[][] cases = {{lateCorrupted, "late"}, {bothCorrupted, "early"}};
+        for (String[] testCase : cases) {
+            Files.writeString(file, testCase[0]);
+            OrionException expectedError = assertThrows(OrionException.class,
+                    () -> Storage.readSnapshotLines(file, new ArrayList<>()));
+            OrionException actualError = assertThrows(OrionException.class,
+                    () -> MappedTaskReader.read(file, new ArrayList<>(), 4));
+            assertEquals(expectedError.getMessage(), actualError.getMessage());
+            assertTrue(actualError.getMessage().endsWith(testCase[1]), actualError.getMessage());
+        }
+    }
+
+    @Test
+    public void convert_textToBinaryAndBack_isLossless(@TempDir Path tempDir) throws Exception {
+        Path text = tempDir.resolve("orion.txt");
+        Path binary = tempDir.resolve("orion.bin");
+        Path roundTrip = tempDir.resolve("round-trip.txt");
+        String content = "T | 1 | read b\u00f6\u00f6k\n"
+                + "D | 0 | return book | 2019-10-15 | 18:00\n"
+                + "E | 0 | project meeting | 2019-10-16 | - | 2019-10-18 | 09:05\n";
+        Files.writeString(text, content);
+
+        assertEquals(3, StorageConverter.convert(text, binary));
+        assertEquals(3, StorageConverter.convert(binary, roundTrip));
+
+        assertEquals(content, Files.readString(roundTrip));
+        assertTrue(Files.size(binary) < Files.size(text));
+    }
+
+    @Test
+    public void save_binaryDateOutOfRange_throwsAndKeepsPreviousFile(@TempDir Path tempDir) throws Exception {
+        String previous = System.getProperty("orion.dataFile");
+        System.setProperty("orion.dataFile", tempDir.resolve("orion.bin").toString());
+
+        try {
+            Storage storage = new Storage();
+            ArrayList<Task> tasks = new ArrayList<>();
+            tasks.add(new Todo("read book"));
+            tasks.add(new Todo("return book"));
+            storage.save(tasks);
+
+            tasks.add(new Deadline("far away", LocalDate.MAX, null));
+            OrionException error = assertThrows(OrionException.class, () -> storage.save(tasks));
+            assertTrue(error.getMessage().startsWith("Failed to save tasks: "), error.getMessage());
+
+            ArrayList<Task> loaded = new Storage().load();
+            assertEquals(2, loaded.size());
+            assertEquals("T | 0 | return book", loaded.get(1).toDataString());
+            assertFalse(Files.exists(tempDir.resolve("orion.bin.tmp")));
+        } finally {
+            restoreProperty("orion.dataFile", previous);
+        }
+    }
+
+    @Test
+    public void asyncWriter_burstThenFlush_persistsAllChanges(@TempDir Path tempDir) throws Exception {
+        String previous = System.getProperty("orion.dataFile");
+        System.setProperty("orion.dataFile", tempDir.resolve("orion.txt").toString());
+
+        try {
+            ArrayList<Task> tasks = new ArrayList<>();
+            AsyncStorageWriter writer = new AsyncStorageWriter(new Storage(), tasks, 10_000);
+
+            tasks.add(new Todo("read book"));
+            writer.submit(Mutation.added(tasks.get(0)));
+            tasks.add(new Todo("return book"));
+            writer.submit(Mutation.added(tasks.get(1)));
+            tasks.get(0).markDone();
+            writer.submit(Mutation.marked(0, true));
+            tasks.remove(1);
+            writer.submit(Mutation.deleted(1));
+            tasks.get(0).markUndone(); // not submitted: the writer must not see it
+
+            writer.flush(); // does not wait out the 10 s delay
+            ArrayList<Task> loaded = new Storage().load();
+
+            assertEquals(1, loaded.size());
+            assertEquals("T | 1 | read book", loaded.get(0).toDataString());
+            assertNull(writer.takeError());
+            writer.close();
+        } finally {
+            restoreProperty("orion.dataFile", previous);
+        }
+    }
+
+    @Test
+    public void asyncWriter_writeFails_reportsErrorOnce(@TempDir Path tempDir) throws Exception {
+        String previous = System.getProperty("orion.dataFile");
+        Path notADirectory = Files.writeString(tempDir.resolve("data"), "");
+        System.setProperty("orion.dataFile", notADirectory.resolve("orion.txt").toString());
+
+        try {
+            AsyncStorageWriter writer = new AsyncStorageWriter(new Storage(), new ArrayList<>(), 0);
+            writer.submit(Mutation.added(new Todo("read book")));
+            writer.close();
+
+            OrionException error = writer.takeError();
+            assertTrue(error.getMessage().startsWith("Failed to save tasks: "));
+            assertNull(writer.takeError());
+        } finally {
+            restoreProperty("orion.dataFile", previous);
+        }
+    }
+
+    @Test
+    public void asyncWriter_markChange_leavesSharedTasksUntouched(@TempDir Path tempDir) throws Exception {
+        String previous = System.getProperty("orion.dataFile");
+        System.setProperty("orion.dataFile", tempDir.resolve("orion.txt").toString());
+
+        try {
+            List<Task> tasks = List.of(new Todo("read book"), new Todo("return book"));
+            AsyncStorageWriter writer = new AsyncStorageWriter(new Storage(), tasks, 0);
+            writer.submit(Mutation.marked(1, true));
+            writer.close();
+
+            assertFalse(tasks.get(1).isDone());
+            assertEquals("T | 1 | return book", new Storage().load().get(1).toDataString());
+            assertNull(writer.takeError());
+        } finally {
+            restoreProperty("orion.dataFile", previous);
+        }
+    }
+
+    @Test
+    public void asyncWriter_changeDoesNotFit_reportsErrorWithoutHanging(@TempDir Path tempDir) throws Exception {
+        String previous = System.getProperty("orion.dataFile");
+        System.setProperty("orion.dataFile", tempDir.resolve("orion.txt").toString());
+
+        try {
+            AsyncStorageWriter writer = new AsyncStorageWriter(new Storage(), new ArrayList<>(), 0);
+            writer.submit(Mutation.deleted(5)); // trips the writer's assertion, as tests run with -ea
+
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                writer.flush();
+                writer.submit(Mutation.added(new Todo("read book")));
+                writer.close();
+            });
+            assertTrue(writer.takeError().getMessage().startsWith("Failed to save tasks: "));
+            assertEquals(List.of("T | 0 | read book"), Files.readAllLines(tempDir.resolve("orion.txt")));
+        } finally {
+            restoreProperty("orion.dataFile", previous);
+        }
+    }
+
+    private static void restoreProperty(String key, String previous) {
+        if (previous == null) {
+            System.clearProperty(key);
+        } else {
+            System.setProperty(key, previous);
+        }
+    }
 }
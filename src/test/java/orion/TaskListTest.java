@@ -0,0 +1,359 @@
+package orion;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskListTest {
+
+    @Test
+    public void find_indexedKeyword_returnsMatchesInListOrder() {
+        TaskList tasks = new TaskList(List.of(
+                new Todo("Read book"),
+                new Todo("return library BOOK"),
+                new Todo("buy milk"),
+                new Todo("bookmark site")));
+
+        List<Task> matches = tasks.find("  BOOK ");
+
+        assertEquals(3, matches.size());
+        assertEquals(tasks.get(0), matches.get(0));
+        assertEquals(tasks.get(1), matches.get(1));
+        assertEquals(tasks.get(3), matches.get(2));
+    }
+
+    @Test
+    public void find_afterRemoveAndAdd_reflectsCurrentList() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Todo("read notes"));
+        tasks.remove(0);
+        tasks.add(new Todo("reading list"));
+
+        List<Task> matches = tasks.find("read");
+
+        assertEquals(2, matches.size());
+        assertEquals("[T][ ] read notes", matches.get(0).toString());
+        assertEquals("[T][ ] reading list", matches.get(1).toString());
+        assertTrue(tasks.find("book").isEmpty());
+    }
+
+    @Test
+    public void find_shortKeyword_fallsBackToScan() {
+        TaskList tasks = new TaskList(List.of(new Todo("go gym"), new Todo("sleep")));
+
+        assertEquals(1, tasks.find("gy").size());
+        assertTrue(tasks.find(" ").isEmpty());
+    }
+
+    @Test
+    public void indexOfDuplicate_tracksAddAndRemove() {
+        LocalDate date = LocalDate.parse("2019-10-15");
+        TaskList tasks = new TaskList(List.of(
+                new Todo("read book"),
+                new Deadline("return book", date, null),
+                new Todo("Read   BOOK")));
+
+        assertEquals(0, tasks.indexOfDuplicate(new Todo("read book")));
+        assertEquals(1, tasks.indexOfDuplicate(new Deadline("Return Book", date, null)));
+        assertEquals(-1, tasks.indexOfDuplicate(new Deadline("return book", date, LocalTime.of(18, 0))));
+        assertEquals(-1, tasks.indexOfDuplicate(new Event("return book", date, null, date, null)));
+
+        tasks.remove(0);
+        assertEquals(1, tasks.indexOfDuplicate(new Todo("read book")));
+        tasks.remove(1);
+        assertEquals(-1, tasks.indexOfDuplicate(new Todo("read book")));
+    }
+
+    @Test
+    public void agenda_mixedTasks_returnsOverlappingInDateOrder() {
+        LocalDate day = LocalDate.parse("2019-10-15");
+        TaskList tasks = new TaskList(List.of(
+                new Deadline("submit report", day, LocalTime.of(18, 0)),
+                new Event("conference", day.minusDays(3), null, day.plusDays(1), null),
+                new Todo("read book"),
+                new Deadline("pay bills", day.plusDays(1), null),
+                new Event("workshop", day, LocalTime.of(9, 0), day, LocalTime.of(11, 0))));
+
+        assertArrayEquals(new int[] {1, 4, 0}, tasks.agenda(day, day));
+        assertArrayEquals(new int[] {0, 3}, tasks.deadlinesDueBy(day.plusDays(1)));
+
+        tasks.remove(1);
+        assertArrayEquals(new int[] {3, 0}, tasks.agenda(day, day));
+    }
+
+    @Test
+    public void asUnmodifiableList_laterChanges_doNotAffectSnapshot() {
+        TaskList tasks = new TaskList(List.of(new Todo("read book"), new Todo("buy milk")));
+        List<Task> snapshot = tasks.asUnmodifiableList();
+
+        Task marked = tasks.markDone(0);
+        tasks.remove(1);
+        tasks.add(new Todo("read notes"));
+
+        assertEquals(List.of("[T][ ] read book", "[T][ ] buy milk"), snapshot.stream().map(Task::toString).toList());
+        assertEquals("[T][X] read book", marked.toString());
+        assertFalse(snapshot.get(0).isDone());
+        assertEquals(marked, tasks.get(0));
+        assertEquals(2, tasks.find("read").size());
+    }
+
+    @Test
+    public void columnarLayout_sameOperations_matchObjectLayout() {
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 2 * ColumnarTaskStore.CHUNK_CAPACITY + 10; i++) {
+            LocalDate date = LocalDate.of(2024, 1, 1).plusDays(i % 40);
+            initial.add(switch (i % 3) {
+                case 0 -> new Todo("read chapter " + i);
+                case 1 -> new Deadline("submit caf\u00e9 report " + i, date, (i % 2 == 0) ? null : LocalTime.of(9, 30));
+                default -> new Event("team \u2603 meeting " + i, date, LocalTime.of(14, 0), date.plusDays(1), null);
+            });
+        }
+        TaskList objects = new TaskList(initial, false);
+        TaskList columns = new TaskList(initial, true);
+        List<Task> snapshot = columns.asUnmodifiableList();
+
+        for (TaskList tasks : List.of(objects, columns)) {
+            tasks.markDone(5);
+            tasks.remove(ColumnarTaskStore.CHUNK_CAPACITY);
+            tasks.remove(0);
+            tasks.add(new Deadline("return book", LocalDate.of(2024, 3, 1), LocalTime.of(18, 0)));
+            tasks.markUndone(3);
+        }
+
+        assertEquals(objects.asUnmodifiableList().stream().map(Task::toDataString).toList(),
+                columns.asUnmodifiableList().stream().map(Task::toDataString).toList());
+        assertEquals(objects.find("caf\u00e9 report 1").size(), columns.find("caf\u00e9 report 1").size());
+        assertArrayEquals(objects.agenda(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 6)),
+                columns.agenda(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 6)));
+        assertEquals(objects.indexOfDuplicate(new Todo("READ chapter 9")),
+                columns.indexOfDuplicate(new Todo("READ chapter 9")));
+        assertEquals(initial.get(0).toString(), snapshot.get(0).toString());
+        assertFalse(snapshot.get(5).isDone());
+    }
+
+    @Test
+    public void columnarLayout_unsupportedDates_keepsTasksAsObjects() {
+        Task far = new Deadline("far away", LocalDate.MAX, null);
+        Task near = new Todo("read book");
+
+        TaskList loaded = new TaskList(List.of(near, far), true);
+        TaskList added = new TaskList(List.of(near), true);
+        added.add(far);
+        added.add(new Event("long trip", LocalDate.of(2024, 1, 1), null, LocalDate.MAX, null));
+
+        assertEquals(List.of(near.toDataString(), far.toDataString()),
+                loaded.asUnmodifiableList().stream().map(Task::toDataString).toList());
+        assertEquals(3, added.size());
+        assertEquals(far.toDataString(), added.get(1).toDataString());
+        assertEquals(1, added.find("trip").size());
+    }
+
+    @Test
+    public void removeAllAndMarkAll_bothLayouts_matchOneByOne() {
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 3 * ColumnarTaskStore.CHUNK_CAPACITY; i++) {
+            LocalDate date = LocalDate.of(2024, 1, 1).plusDays(i % 30);
+            initial.add((i % 2 == 0) ? new Todo("read chapter " + i) : new Deadline("submit report " + i, date, null));
+        }
+        int[] marked = {1, 2, 3, 700, 1500, 3000};
+        int[] removed = new int[1800]; // a whole chunk and parts of its neighbours
+        for (int i = 0; i < removed.length; i++) {
+            removed[i] = 500 + i;
+        }
+
+        TaskList expected = new TaskList(initial, false);
+        for (int index : marked) {
+            expected.markDone(index);
+        }
+        for (int i = removed.length - 1; i >= 0; i--) {
+            expected.remove(removed[i]);
+        }
+
+        for (boolean isColumnar : new boolean[] {false, true}) {
+            TaskList tasks = new TaskList(initial, isColumnar);
+            assertEquals(marked.length, tasks.markAll(marked, true));
+            assertEquals(1, tasks.markAll(new int[] {3, 4}, true));
+            tasks.markUndone(4);
+            assertArrayEquals(marked, tasks.doneIndexes());
+
+            List<Task> before = tasks.asUnmodifiableList();
+            List<Task> removedTasks = tasks.removeAll(removed);
+
+            assertEquals(removed.length, removedTasks.size());
+            assertEquals("D | 0 | submit report 501 | 2024-01-22 | -", removedTasks.get(1).toDataString());
+            assertEquals(initial.size(), before.size());
+            assertEquals(expected.asUnmodifiableList().stream().map(Task::toDataString).toList(),
+                    tasks.asUnmodifiableList().stream().map(Task::toDataString).toList());
+            assertEquals(expected.find("chapter 23").size(), tasks.find("chapter 23").size());
+            assertEquals(-1, tasks.indexOfDuplicate(new Todo("read chapter 600")));
+            assertArrayEquals(expected.deadlinesDueBy(LocalDate.of(2024, 1, 2)),
+                    tasks.deadlinesDueBy(LocalDate.of(2024, 1, 2)));
+        }
+    }
+
+    @Test
+    public void undoRedo_bothLayouts_restoreVersionsAndDescribeStorageUpdates() {
+        for (boolean isColumnar : new boolean[] {false, true}) {
+            TaskList tasks = new TaskList(List.of(new Todo("read book"), new Todo("buy milk")), isColumnar);
+            List<Task> saved = new ArrayList<>(List.of(new Todo("read book"), new Todo("buy milk")));
+            List<List<Task>> versions = new ArrayList<>();
+            versions.add(tasks.asUnmodifiableList());
+
+            tasks.add(new Deadline("return book", LocalDate.of(2019, 10, 15), null));
+            versions.add(tasks.asUnmodifiableList());
+            tasks.markAll(new int[] {0, 2}, true);
+            versions.add(tasks.asUnmodifiableList());
+            tasks.removeAll(new int[] {0, 1});
+            versions.add(tasks.asUnmodifiableList());
+
+            for (int i = versions.size() - 1; i > 0; i--) {
+                TaskList.Revision revision = tasks.undo();
+                assertEquals(toData(versions.get(i - 1)), toData(tasks.asUnmodifiableList()));
+                assertTrue(revision.updates().size() >= 1);
+            }
+            assertNull(tasks.undo());
+
+            for (int i = 1; i < versions.size(); i++) {
+                applyAll(tasks.redo().updates(), saved);
+                assertEquals(toData(versions.get(i)), toData(tasks.asUnmodifiableList()));
+                assertEquals(toData(versions.get(i)), toData(saved));
+            }
+            for (int i = versions.size() - 1; i > 0; i--) {
+                applyAll(tasks.undo().updates(), saved);
+                assertEquals(toData(versions.get(i - 1)), toData(saved));
+            }
+
+            tasks.add(new Todo("read book again"));
+            assertNull(tasks.redo());
+            assertEquals(2, tasks.find("read book").size());
+            assertEquals(2, tasks.indexOfDuplicate(new Todo("READ BOOK AGAIN")));
+        }
+    }
+
+    @Test
+    public void undo_zeroBudget_keepsNoHistory() {
+        String previous = System.getProperty("orion.undoBudget");
+        System.setProperty("orion.undoBudget", "0");
+        try {
+            TaskList tasks = new TaskList();
+            tasks.add(new Todo("read book"));
+            assertNull(tasks.undo());
+        } finally {
+            if (previous == null) {
+                System.clearProperty("orion.undoBudget");
+            } else {
+                System.setProperty("orion.undoBudget", previous);
+            }
+        }
+    }
+
+    /**
+     * Applies storage updates to {@code saved} the way the background writer does, on copies of their tasks.
+     */
+    private static void applyAll(List<Mutation> updates, List<Task> saved) {
+        for (Mutation update : updates) {
+            Mutation copied = (update.getTask() == null) ? update : update.withTask(update.getTask().copy());
+            assertTrue(copied.applyTo(saved));
+        }
+    }
+
+    private static List<String> toData(List<Task> tasks) {
+        return tasks.stream().map(Task::toDataString).toList();
+    }
+
+    @Test
+    public void query_bothLayouts_matchesFilteringEveryTaskAndPicksCheapestPath() throws OrionException {
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            LocalDate day = LocalDate.of(2024, 1, 1).plusDays(i % 400);
+            Task task = switch (i % 3) {
+                case 0 -> new Todo("chore " + i + ((i % 7 == 0) ? " report draft" : ""));
+                case 1 -> new Deadline("submit report " + i, day, (i % 2 == 0) ? LocalTime.of(9, 30) : null);
+                default -> new Event("meeting " + i, day, null, day.plusDays(i % 5), null);
+            };
+            initial.add((i % 4 == 0) ? task.withDone(true) : task);
+        }
+        String[] queries = {"report", "type:deadline done:no \"report\" before:2024-03-01 -draft", "type:event",
+            "after:2024-12-31 on:2025-01-20", "on:2024-02-10 after:2024-03-01", "re -chore", "type:todo draft",
+            "\"submit report 1\" done:yes"};
+
+        for (boolean isColumnar : new boolean[] {false, true}) {
+            TaskList tasks = new TaskList(initial, isColumnar);
+            tasks.remove(10);
+            tasks.markDone(20);
+            tasks.add(new Deadline("late report", LocalDate.of(2025, 2, 1), null));
+            for (String text : queries) {
+                TaskQuery query = Parser.parseFindQuery(text).query();
+                List<Task> expected = tasks.asUnmodifiableList().stream().filter(query::matches).toList();
+
+                TaskQuery.Result result = tasks.query(query);
+                assertEquals(toData(expected), toData(result.matches()), text);
+                for (TaskQuery.AccessPath alternative : result.plan().alternatives()) {
+                    assertTrue(alternative.estimatedRows() >= result.plan().chosen().estimatedRows(), text);
+                }
+                assertTrue(result.examined() >= expected.size(), text);
+            }
+            assertEquals(toData(tasks.find("report")), toData(tasks.query(TaskQuery.keyword("REPORT ")).matches()));
+        }
+
+        TaskList tasks = new TaskList(initial, false);
+        TaskQuery.Result dated = tasks.query(Parser.parseFindQuery("type:deadline on:2024-02-10").query());
+        assertEquals(TaskQuery.AccessKind.DATE_INDEX, dated.plan().chosen().kind());
+        assertTrue(dated.examined() < 10, String.valueOf(dated.examined()));
+        TaskQuery.Result text = tasks.query(Parser.parseFindQuery("type:todo \"report draft\"").query());
+        assertEquals(TaskQuery.AccessKind.TEXT_INDEX, text.plan().chosen().kind());
+        assertEquals(TaskQuery.AccessKind.FULL_SCAN,
+                tasks.query(Parser.parseFindQuery("done:yes").query()).plan().chosen().kind());
+    }
+
+    @Test
+    public void find_concurrentWriter_alwaysSeesConsistentVersion() throws Exception {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Todo("stable task " + i));
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 20_000; i++) {
+                    tasks.add(new Todo("churn task " + i));
+                    tasks.markDone(tasks.size() - 1);
+                    tasks.remove(tasks.size() - 1);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+
+        writer.start();
+        List<String> problems = new ArrayList<>();
+        while (writer.isAlive() && problems.isEmpty()) {
+            int stable = tasks.find("stable").size();
+            List<Task> snapshot = tasks.asUnmodifiableList();
+            int iterated = 0;
+            for (Task ignored : snapshot) {
+                iterated++;
+            }
+            if (stable != 100 || iterated != snapshot.size() || snapshot.size() < 100 || snapshot.size() > 101) {
+                problems.add("stable=" + stable + " iterated=" + iterated + " size=" + snapshot.size());
+            }
+        }
+        writer.join();
+
+        assertNull(failure.get());
+        assertEquals(List.of(), problems);
+        assertEquals(100, tasks.size());
+        assertEquals(0, tasks.find("churn").size());
+    }
+}
@@ -0,0 +1,26 @@
+package orion.gui;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StartupMetricsTest {
+
+    @Test
+    public void summary_loadedBeforeFirstFrame_reportsBothTimesOnce() {
+        AtomicLong uptime = new AtomicLong(300);
+        StartupMetrics metrics = new StartupMetrics(uptime::get);
+
+        metrics.markLoaded(42);
+        assertEquals("Startup: first frame after (not yet), 42 tasks loaded after 300 ms.", metrics.summary());
+
+        uptime.set(450);
+        metrics.markFirstFrame();
+        uptime.set(900);
+        metrics.markFirstFrame(); // later frames are not the first
+        metrics.markLoaded(7);
+        assertEquals("Startup: first frame after 450 ms, 42 tasks loaded after 300 ms.", metrics.summary());
+    }
+}
@@ -0,0 +1,43 @@
+package orion.gui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TranscriptTest {
+
+    @Test
+    public void add_beyondLimit_dropsOldestAndShortensLongMessages() {
+        Transcript transcript = new Transcript();
+        for (int i = 0; i < Transcript.MAX_MESSAGES + 5; i++) {
+            transcript.add("message " + i, i % 2 == 0);
+        }
+
+        int size = transcript.entries().size();
+        assertTrue(size <= Transcript.MAX_MESSAGES, "size " + size);
+        assertEquals("message " + (Transcript.MAX_MESSAGES + 4), transcript.entries().get(size - 1).text());
+        assertEquals("message " + (Transcript.MAX_MESSAGES + 5 - size), transcript.entries().get(0).text());
+
+        transcript.add("x".repeat(Transcript.MAX_MESSAGE_LENGTH + 1), false);
+        String shown = transcript.entries().get(transcript.entries().size() - 1).text();
+        assertTrue(shown.startsWith("x".repeat(Transcript.MAX_MESSAGE_LENGTH)));
+        assertTrue(shown.endsWith("use list <page> to see long lists in parts)"));
+    }
+
+    @Test
+    public void complete_pendingReply_replacesPlaceholderInPlace() {
+        Transcript transcript = new Transcript();
+        transcript.add("list", true);
+        Transcript.Entry first = transcript.addPending();
+        transcript.add("bye", true);
+        Transcript.Entry second = transcript.addPending();
+
+        transcript.complete(first, "reply to list");
+        transcript.remove(second);
+
+        assertEquals(3, transcript.entries().size());
+        assertEquals(new Transcript.Entry("reply to list", false), transcript.entries().get(1));
+        assertEquals(new Transcript.Entry("bye", true), transcript.entries().get(2));
+    }
+}